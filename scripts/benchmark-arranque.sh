@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+# Tiempo hasta el primer GET /topicos exitoso y RSS en régimen estable para cada modo de arranque.
+#
+#   ./mvnw -Parranque -DskipTests package      # jar, AOT y archivo CDS en target/arranque
+#   ./mvnw -Pnative native:compile             # opcional: target/apihub (requiere GraalVM)
+#   SPRING_DATASOURCE_URL=... SPRING_DATASOURCE_PASSWORD=... JWT_SECRET=... scripts/benchmark-arranque.sh
+#
+# Variables: MODOS (jar lazy aot aot-cds native), REPETICIONES (5), PUERTO (8080),
+# ESPERA_RSS (segundos tras la primera respuesta antes de medir la memoria, 30),
+# LIMITE (segundos máximos de arranque, 120).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+DIRECTORIO=target/arranque
+JAR="$DIRECTORIO/apihub-0.0.1-SNAPSHOT.jar"
+CDS="$DIRECTORIO/apihub.jsa"
+NATIVO=target/apihub
+MODOS=${MODOS:-"jar lazy aot aot-cds native"}
+REPETICIONES=${REPETICIONES:-5}
+PUERTO=${PUERTO:-8080}
+ESPERA_RSS=${ESPERA_RSS:-30}
+LIMITE=${LIMITE:-120}
+URL="http://localhost:$PUERTO"
+
+: "${JWT_SECRET:?JWT_SECRET es obligatorio}"
+export JWT_SECRET
+[[ -f "$JAR" ]] || { echo "Falta $JAR: ejecutar ./mvnw -Parranque -DskipTests package" >&2; exit 1; }
+
+comando() {
+    case "$1" in
+        jar)     echo "java -jar $JAR" ;;
+        lazy)    echo "java -jar $JAR --spring.main.lazy-initialization=true" ;;
+        aot)     echo "java -Dspring.aot.enabled=true -jar $JAR" ;;
+        aot-cds) echo "java -XX:SharedArchiveFile=$CDS -Dspring.aot.enabled=true -jar $JAR" ;;
+        native)  echo "$NATIVO" ;;
+    esac
+}
+
+PID=
+detener() {
+    if [[ -n "$PID" ]] && kill -0 "$PID" 2>/dev/null; then
+        kill "$PID"
+        wait "$PID" 2>/dev/null || true
+    fi
+    PID=
+}
+trap detener EXIT
+
+iniciar() {
+    # shellcheck disable=SC2046
+    $(comando "$1") --server.port="$PUERTO" > "target/arranque-$1.log" 2>&1 &
+    PID=$!
+}
+
+ahora_ms() {
+    date +%s%3N
+}
+
+# Usuario y token una sola vez, con la aplicación levantada en modo jar
+preparar_token() {
+    iniciar jar
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' "$URL/topicos")" != 000 ]]; do
+        kill -0 "$PID" 2>/dev/null || { echo "La aplicación no arrancó, ver target/arranque-jar.log" >&2; exit 1; }
+        sleep 0.5
+    done
+    curl -s -o /dev/null -H 'Content-Type: application/json' \
+        -d '{"nombre":"Arranque","correoElectronico":"arranque@forohub.com","contrasena":"arranque123"}' \
+        "$URL/auth/register" || true
+    TOKEN=$(curl -sf -H 'Content-Type: application/json' \
+        -d '{"correoElectronico":"arranque@forohub.com","contrasena":"arranque123"}' \
+        "$URL/auth/login" | sed -E 's/.*"token" *: *"([^"]+)".*/\1/')
+    detener
+    [[ -n "$TOKEN" ]] || { echo "No se obtuvo el token de /auth/login" >&2; exit 1; }
+}
+
+# Deja en MS y RSS el tiempo hasta el primer GET /topicos con 200 y la memoria residente (KB) de una corrida
+medir() {
+    local inicio fin
+    inicio=$(ahora_ms)
+    iniciar "$1"
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $TOKEN" "$URL/topicos")" == 200 ]]; do
+        kill -0 "$PID" 2>/dev/null || { echo "El modo $1 terminó antes de responder, ver target/arranque-$1.log" >&2; exit 1; }
+        (( $(ahora_ms) - inicio < LIMITE * 1000 )) || { echo "El modo $1 no respondió en ${LIMITE}s" >&2; exit 1; }
+        sleep 0.05
+    done
+    fin=$(ahora_ms)
+    sleep "$ESPERA_RSS"
+    MS=$((fin - inicio))
+    RSS=$(ps -o rss= -p "$PID" | tr -d ' ')
+    detener
+}
+
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+preparar_token
+
+printf '%-8s %14s %14s %14s\n' modo "primer GET ms" "mín ms" "RSS MB"
+for modo in $MODOS; do
+    if [[ "$modo" == native && ! -x "$NATIVO" ]]; then
+        printf '%-8s %14s\n' "$modo" "sin $NATIVO"
+        continue
+    fi
+    tiempos=()
+    memorias=()
+    for _ in $(seq "$REPETICIONES"); do
+        medir "$modo"
+        tiempos+=("$MS")
+        memorias+=("$RSS")
+    done
+    printf '%-8s %14s %14s %14s\n' "$modo" \
+        "$(printf '%s\n' "${tiempos[@]}" | mediana)" \
+        "$(printf '%s\n' "${tiempos[@]}" | sort -n | head -1)" \
+        "$(( $(printf '%s\n' "${memorias[@]}" | mediana) / 1024 ))"
+done
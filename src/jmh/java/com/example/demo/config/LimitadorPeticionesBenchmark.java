@@ -0,0 +1,154 @@
+package com.example.demo.config;
+
+import com.example.demo.config.LimitadorPeticiones.Grupo;
+import com.example.demo.model.Usuario;
+import com.example.demo.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por petición del límite de peticiones con 1, 8 y 32 hilos: consumir un token de la misma
+ * cubeta (máxima contención sobre el compareAndSet), de una entre 100.000 cubetas, y el recorrido
+ * completo de LimitePeticionesFilter (grupo, usuario del token en caché y cubeta) con una cadena vacía.
+ * Los límites son altos para medir siempre la ruta en que la petición pasa.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LimitadorPeticionesBenchmark {
+    
+    private static final int CLAVES = 100_000;
+    
+    private static final FilterChain CADENA_VACIA = (request, response) -> { };
+    
+    private LimitadorPeticiones limitador;
+    
+    private LimitePeticionesFilter filtro;
+    
+    private String[] claves;
+    
+    private String token;
+    
+    @Setup
+    public void preparar() {
+        limitador = new LimitadorPeticiones();
+        for (String grupo : new String[]{"Login", "Escritura", "Lectura"}) {
+            ReflectionTestUtils.setField(limitador, "capacidad" + grupo, 1_000_000_000L);
+            ReflectionTestUtils.setField(limitador, "porSegundo" + grupo, 1e12);
+        }
+        ReflectionTestUtils.setField(limitador, "maximoClaves", 2L * CLAVES);
+        limitador.inicializar();
+        
+        claves = new String[CLAVES];
+        for (int i = 0; i < CLAVES; i++) {
+            claves[i] = "usuario" + i + "@email.com";
+            limitador.consumir(Grupo.LECTURA, claves[i]);
+        }
+        
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", "benchmark-secret");
+        ReflectionTestUtils.setField(tokenService, "tamanoCacheVerificados", 10_000L);
+        ReflectionTestUtils.invokeMethod(tokenService, "inicializar");
+        Usuario usuario = new Usuario();
+        usuario.setCorreoElectronico("benchmark@email.com");
+        token = "Bearer " + tokenService.generateToken(usuario);
+        
+        filtro = new LimitePeticionesFilter();
+        ReflectionTestUtils.setField(filtro, "habilitado", true);
+        ReflectionTestUtils.setField(filtro, "limitador", limitador);
+        ReflectionTestUtils.setField(filtro, "tokenService", tokenService);
+        ReflectionTestUtils.setField(filtro, "meterRegistry", new SimpleMeterRegistry());
+    }
+    
+    // Cada hilo reutiliza su petición; el filtro no la modifica salvo el atributo de OncePerRequestFilter
+    @State(Scope.Thread)
+    public static class Peticion {
+        
+        private MockHttpServletRequest request;
+        
+        private MockHttpServletResponse response;
+        
+        @Setup
+        public void preparar(LimitadorPeticionesBenchmark benchmark) {
+            request = new MockHttpServletRequest("GET", "/topicos");
+            request.addHeader("Authorization", benchmark.token);
+            request.setRemoteAddr("10.0.0.1");
+            response = new MockHttpServletResponse();
+        }
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public long mismaCubeta_01hilo() {
+        return limitador.consumir(Grupo.LECTURA, "benchmark@email.com");
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public long mismaCubeta_08hilos() {
+        return limitador.consumir(Grupo.LECTURA, "benchmark@email.com");
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public long mismaCubeta_32hilos() {
+        return limitador.consumir(Grupo.LECTURA, "benchmark@email.com");
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public long muchasCubetas_01hilo() {
+        return limitador.consumir(Grupo.LECTURA, claves[ThreadLocalRandom.current().nextInt(CLAVES)]);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public long muchasCubetas_08hilos() {
+        return limitador.consumir(Grupo.LECTURA, claves[ThreadLocalRandom.current().nextInt(CLAVES)]);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public long muchasCubetas_32hilos() {
+        return limitador.consumir(Grupo.LECTURA, claves[ThreadLocalRandom.current().nextInt(CLAVES)]);
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public int filtro_01hilo(Peticion peticion) throws ServletException, IOException {
+        return filtrar(peticion);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public int filtro_08hilos(Peticion peticion) throws ServletException, IOException {
+        return filtrar(peticion);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public int filtro_32hilos(Peticion peticion) throws ServletException, IOException {
+        return filtrar(peticion);
+    }
+    
+    private int filtrar(Peticion peticion) throws ServletException, IOException {
+        filtro.doFilter(peticion.request, peticion.response, CADENA_VACIA);
+        return peticion.response.getStatus();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.controller;
+
+import com.example.demo.ApihubApplication;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prueba de carga sobre el servidor HTTP real (Tomcat en un puerto libre, H2 en modo MySQL):
+ * latencia de GET /topicos mientras otros clientes envían POST /auth/login sin pausa.
+ * Con BCrypt en su propio pool acotado, la latencia del listado debe quedar cerca de la de
+ * clientesLogin=0. Los logins que no entran en la cola reciben 429 y, como un cliente bien
+ * portado, esperan lo que indica Retry-After antes de reintentar.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class InundacionLoginBenchmark {
+    
+    private static final String CORREO = "inundacion@email.com";
+    
+    private static final String CONTRASENA = "password123";
+    
+    @Param({"0", "64"})
+    private int clientesLogin;
+    
+    private ConfigurableApplicationContext contexto;
+    
+    private HttpClient cliente;
+    
+    private ExecutorService inundacion;
+    
+    private final AtomicBoolean activa = new AtomicBoolean(true);
+    
+    private HttpRequest listado;
+    
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ApihubApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=false");
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+        
+        Usuario usuario = contexto.getBean(UsuarioRepository.class).save(new Usuario(null, "Inundación", CORREO,
+                contexto.getBean(PasswordEncoder.class).encode(CONTRASENA), null));
+        poblar(contexto.getBean(JdbcTemplate.class), usuario.getId());
+        
+        cliente = HttpClient.newHttpClient();
+        listado = HttpRequest.newBuilder(URI.create(base + "/topicos?size=10"))
+                .header("Authorization", "Bearer " + contexto.getBean(TokenService.class).generateToken(usuario))
+                .build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"correoElectronico\":\"" + CORREO + "\",\"contrasena\":\"" + CONTRASENA + "\"}"))
+                .build();
+        
+        inundacion = Executors.newFixedThreadPool(Math.max(1, clientesLogin));
+        for (int i = 0; i < clientesLogin; i++) {
+            inundacion.execute(() -> {
+                while (activa.get()) {
+                    try {
+                        HttpResponse<Void> respuesta = cliente.send(login, HttpResponse.BodyHandlers.discarding());
+                        if (respuesta.statusCode() == 429) {
+                            Thread.sleep(TimeUnit.SECONDS.toMillis(
+                                    respuesta.headers().firstValueAsLong("Retry-After").orElse(1)));
+                        }
+                    } catch (IOException e) {
+                        // El servidor se está cerrando
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+    }
+    
+    @TearDown
+    public void cerrar() throws InterruptedException {
+        activa.set(false);
+        inundacion.shutdownNow();
+        inundacion.awaitTermination(10, TimeUnit.SECONDS);
+        contexto.close();
+    }
+    
+    @Benchmark
+    public int listarTopicos() throws IOException, InterruptedException {
+        return cliente.send(listado, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+    
+    private static void poblar(JdbcTemplate jdbcTemplate, Long autorId) {
+        jdbcTemplate.update("INSERT INTO curso (nombre, categoria) VALUES ('Spring Boot Avanzado', 'Programación')");
+        Long cursoId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM curso", Long.class);
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                    + "VALUES (?, ?, CURRENT_TIMESTAMP, 'ABIERTO', ?, ?)", "Tópico " + i, "Mensaje del tópico " + i, autorId, cursoId);
+        }
+    }
+}
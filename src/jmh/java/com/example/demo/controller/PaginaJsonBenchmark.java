@@ -0,0 +1,112 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CampoTopico;
+import com.example.demo.dto.TopicoPaginaResponseDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.service.EscritorTopicosJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización de una página de GET /topicos: Page&lt;TopicoResponseDTO&gt; con Jackson (formato anterior)
+ * frente al sobre compacto de EscritorTopicosJson, con todos los campos y sin mensaje, y el costo de gzip.
+ * Al preparar cada tamaño se imprimen los bytes de cada variante, sin comprimir y con gzip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PaginaJsonBenchmark {
+    
+    private static final Set<CampoTopico> TODOS = EnumSet.allOf(CampoTopico.class);
+    
+    private static final Set<CampoTopico> SIN_MENSAJE = EnumSet.complementOf(EnumSet.of(CampoTopico.MENSAJE));
+    
+    @Param({"10", "50", "100"})
+    private int tamano;
+    
+    private ObjectMapper objectMapper;
+    
+    private Page<TopicoResponseDTO> pagina;
+    
+    private EscritorTopicosJson escritor;
+    
+    private TopicoPaginaResponseDTO paginaCompacta;
+    
+    private byte[] jsonCompacto;
+    
+    @Setup
+    public void preparar() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        String mensaje = "Necesito ayuda para configurar la autenticación en mi proyecto Spring Boot. ".repeat(8);
+        List<TopicoResponseDTO> topicos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            topicos.add(new TopicoResponseDTO((long) i, "Tópico " + i, mensaje, LocalDateTime.now(),
+                    StatusTopico.ABIERTO, "Juan Pérez", "Spring Boot Avanzado", 12, LocalDateTime.now(), 3L));
+        }
+        pagina = new PageImpl<>(topicos, PageRequest.of(0, tamano, Sort.by("fechaCreacion")), 10_000);
+        escritor = new EscritorTopicosJson();
+        paginaCompacta = new TopicoPaginaResponseDTO(topicos, 10_000, 1);
+        jsonCompacto = escritor.escribirPagina(paginaCompacta, TODOS);
+        
+        System.out.printf("%n%d tópicos: Page %s, compacta %s, sin mensaje %s (bytes sin comprimir / gzip)%n", tamano,
+                tamanos(serializarPagina()), tamanos(jsonCompacto), tamanos(serializarPaginaSinMensaje()));
+    }
+    
+    @Benchmark
+    public byte[] serializarPagina() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+    
+    @Benchmark
+    public byte[] serializarPaginaCompacta() {
+        return escritor.escribirPagina(paginaCompacta, TODOS);
+    }
+    
+    @Benchmark
+    public byte[] serializarPaginaSinMensaje() {
+        return escritor.escribirPagina(paginaCompacta, SIN_MENSAJE);
+    }
+    
+    // Lo que agrega el servidor al comprimir la página compacta (nivel por defecto de Tomcat)
+    @Benchmark
+    public byte[] comprimirPaginaCompacta() throws IOException {
+        return gzip(jsonCompacto);
+    }
+    
+    private static String tamanos(byte[] json) throws IOException {
+        return json.length + " / " + gzip(json).length;
+    }
+    
+    private static byte[] gzip(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+}
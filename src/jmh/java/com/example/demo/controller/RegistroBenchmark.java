@@ -0,0 +1,58 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RegisterDTO;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.EjecutorContrasenas;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * AuthenticationController.register con el repositorio simulado: el costo medido es el
+ * hash BCrypt de la contraseña (en el pool de EjecutorContrasenas) más el armado del usuario.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RegistroBenchmark {
+    
+    private AuthenticationController controller;
+    
+    private RegisterDTO registro;
+    
+    @Setup
+    public void preparar() {
+        UsuarioRepository repositorio = Mockito.mock(UsuarioRepository.class, Mockito.withSettings().stubOnly());
+        when(repositorio.save(any(Usuario.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        
+        EjecutorContrasenas ejecutor = new EjecutorContrasenas();
+        ReflectionTestUtils.setField(ejecutor, "hilos", 2);
+        ReflectionTestUtils.setField(ejecutor, "cola", 50);
+        ReflectionTestUtils.invokeMethod(ejecutor, "inicializar");
+        
+        controller = new AuthenticationController();
+        ReflectionTestUtils.setField(controller, "repository", repositorio);
+        ReflectionTestUtils.setField(controller, "passwordEncoder", new BCryptPasswordEncoder());
+        ReflectionTestUtils.setField(controller, "ejecutorContrasenas", ejecutor);
+        registro = new RegisterDTO("Juan Pérez", "juan.perez@email.com", "password123");
+    }
+    
+    @Benchmark
+    public ResponseEntity<?> register() {
+        return controller.register(registro).join();
+    }
+}
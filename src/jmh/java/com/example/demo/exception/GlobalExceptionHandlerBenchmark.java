@@ -0,0 +1,61 @@
+package com.example.demo.exception;
+
+import com.example.demo.controller.TopicoController;
+import com.example.demo.dto.TopicoRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armado de las respuestas de error de GlobalExceptionHandler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+    
+    private GlobalExceptionHandler handler;
+    
+    private MethodArgumentNotValidException errorValidacion;
+    
+    private IllegalArgumentException errorArgumento;
+    
+    @Setup
+    public void preparar() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        
+        BeanPropertyBindingResult resultado = new BeanPropertyBindingResult(
+                new TopicoRequestDTO(null, null, null, null), "topicoRequest");
+        resultado.addError(new FieldError("topicoRequest", "titulo", "El título es obligatorio"));
+        resultado.addError(new FieldError("topicoRequest", "mensaje", "El mensaje es obligatorio"));
+        resultado.addError(new FieldError("topicoRequest", "autorId", "El ID del autor es obligatorio"));
+        resultado.addError(new FieldError("topicoRequest", "cursoId", "El ID del curso es obligatorio"));
+        MethodParameter parametro = new MethodParameter(
+                TopicoController.class.getMethod("crearTopico", TopicoRequestDTO.class), 0);
+        errorValidacion = new MethodArgumentNotValidException(parametro, resultado);
+        
+        errorArgumento = new IllegalArgumentException("Ya existe un tópico con el mismo título y mensaje");
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> erroresDeValidacion() {
+        return handler.handleValidationExceptions(errorValidacion);
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, String>> argumentoInvalido() {
+        return handler.handleIllegalArgumentException(errorArgumento);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.ApihubApplication;
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+import com.example.demo.dto.TopicoIndiceDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de GET /topicos/search (primera página de 20 resultados, con resaltado) sobre un índice
+ * en disco con un millón de tópicos sintéticos. El vocabulario sigue una distribución sesgada,
+ * así hay términos muy frecuentes, intermedios y raros.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BusquedaTopicosBenchmark {
+    
+    private static final int TOPICOS = 1_000_000;
+    
+    private static final int TAMANO_LOTE = 50_000;
+    
+    private static final int TAMANO_PAGINA = 20;
+    
+    private static final String[] SILABAS = {"ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "zo", "cra", "tri"};
+    
+    // Palabras por posición en el vocabulario: cuanto más baja, más frecuente
+    @Param({"frecuente", "intermedio", "raro", "dosTerminos", "frase", "prefijo"})
+    private String tipoConsulta;
+    
+    private ConfigurableApplicationContext contexto;
+    
+    private BuscadorTopicos buscadorTopicos;
+    
+    private Path directorio;
+    
+    private String consulta;
+    
+    @Setup
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("indice-benchmark");
+        contexto = new SpringApplicationBuilder(ApihubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--api.busqueda.directorio=" + directorio);
+        BuscadorTopicosLucene buscador = contexto.getBean(BuscadorTopicosLucene.class);
+        buscadorTopicos = buscador;
+        
+        List<String> vocabulario = vocabulario();
+        Random random = new Random(42);
+        LocalDateTime inicio = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int desde = 0; desde < TOPICOS; desde += TAMANO_LOTE) {
+            List<TopicoIndiceDTO> lote = new ArrayList<>(TAMANO_LOTE);
+            for (int i = desde; i < desde + TAMANO_LOTE; i++) {
+                lote.add(new TopicoIndiceDTO((long) i + 1, texto(vocabulario, random, 6), texto(vocabulario, random, 40),
+                        inicio.plusMinutes(i)));
+            }
+            buscador.indexar(lote);
+        }
+        
+        consulta = switch (tipoConsulta) {
+            case "frecuente" -> vocabulario.get(0);
+            case "intermedio" -> vocabulario.get(200);
+            case "raro" -> vocabulario.get(vocabulario.size() - 1);
+            case "dosTerminos" -> vocabulario.get(1) + " " + vocabulario.get(50);
+            case "frase" -> "\"" + vocabulario.get(0) + " " + vocabulario.get(1) + "\"";
+            case "prefijo" -> vocabulario.get(10).substring(0, 4) + "*";
+            default -> throw new IllegalArgumentException(tipoConsulta);
+        };
+    }
+    
+    @TearDown
+    public void cerrar() throws IOException {
+        contexto.close();
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+    
+    @Benchmark
+    public BusquedaSliceResponseDTO buscar() {
+        return buscadorTopicos.buscar(consulta, "", TAMANO_PAGINA);
+    }
+    
+    // Todas las combinaciones de tres sílabas (4096 palabras), en un orden fijo
+    private static List<String> vocabulario() {
+        List<String> palabras = new ArrayList<>();
+        for (String primera : SILABAS) {
+            for (String segunda : SILABAS) {
+                for (String tercera : SILABAS) {
+                    palabras.add(primera + segunda + tercera);
+                }
+            }
+        }
+        Collections.shuffle(palabras, new Random(7));
+        return palabras;
+    }
+    
+    // Elevar al cubo concentra la mayoría de las apariciones en el principio del vocabulario
+    private static String texto(List<String> vocabulario, Random random, int palabras) {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < palabras; i++) {
+            double sesgo = Math.pow(random.nextDouble(), 3);
+            texto.append(i == 0 ? "" : " ").append(vocabulario.get((int) (sesgo * vocabulario.size())));
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.service;
+
+import com.example.demo.ApihubApplication;
+import com.example.demo.dto.ResultadoLoteDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creación de tópicos contra la base embebida (H2 en modo MySQL, configuración de los tests):
+ * uno por uno con crearTopico frente a un lote con crearTopicosEnLote.
+ * El resultado se expresa en filas por segundo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class CreacionTopicosBenchmark {
+    
+    private static final int FILAS = 1_000;
+    
+    private ConfigurableApplicationContext contexto;
+    
+    private TopicoService topicoService;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    // Cada invocación usa títulos nuevos para no chocar con la verificación de duplicados
+    private long secuencia;
+    
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ApihubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.properties.hibernate.generate_statistics=false");
+        topicoService = contexto.getBean(TopicoService.class);
+        
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO curso (nombre, categoria) VALUES ('Spring Boot Avanzado', 'Programación')");
+        jdbcTemplate.update("INSERT INTO usuario (nombre, correo_electronico, contrasena) VALUES ('Autor', 'benchmark@email.com', 'x')");
+        cursoId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM curso", Long.class);
+        autorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM usuario", Long.class);
+    }
+    
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void unoPorUno(Blackhole blackhole) {
+        for (TopicoRequestDTO topico : siguientesTopicos()) {
+            blackhole.consume(topicoService.crearTopico(topico));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public ResultadoLoteDTO enLote() {
+        return topicoService.crearTopicosEnLote(siguientesTopicos());
+    }
+    
+    private List<TopicoRequestDTO> siguientesTopicos() {
+        List<TopicoRequestDTO> topicos = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            long n = secuencia++;
+            topicos.add(new TopicoRequestDTO("Tópico importado " + n, "Mensaje del tópico importado " + n, autorId, cursoId));
+        }
+        return topicos;
+    }
+}
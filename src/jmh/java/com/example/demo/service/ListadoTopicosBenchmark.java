@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.ApihubApplication;
+import com.example.demo.dto.CursorTopico;
+import com.example.demo.dto.ModoBusquedaCurso;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.dto.TopicoSliceResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Listado de tópicos contra la base embebida (H2 en modo MySQL, configuración de los tests):
+ * paginación por offset frente a paginación por cursor a distintas profundidades.
+ * Con offset el costo crece con la página pedida; con cursor debe mantenerse plano.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ListadoTopicosBenchmark {
+    
+    private static final int TAMANO_PAGINA = 10;
+    
+    private static final int TOPICOS = 100_000;
+    
+    @Param({"1", "100", "10000"})
+    private int pagina;
+    
+    private ConfigurableApplicationContext contexto;
+    
+    private TopicoService topicoService;
+    
+    private String cursor;
+    
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ApihubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.properties.hibernate.generate_statistics=false");
+        topicoService = contexto.getBean(TopicoService.class);
+        
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        poblar(jdbcTemplate);
+        cursor = pagina == 1 ? "" : new CursorTopico(
+                jdbcTemplate.queryForObject("SELECT fecha_creacion FROM topico ORDER BY fecha_creacion, id LIMIT 1 OFFSET ?",
+                        LocalDateTime.class, (pagina - 1) * TAMANO_PAGINA - 1),
+                jdbcTemplate.queryForObject("SELECT id FROM topico ORDER BY fecha_creacion, id LIMIT 1 OFFSET ?",
+                        Long.class, (pagina - 1) * TAMANO_PAGINA - 1)).codificar();
+    }
+    
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    public Page<TopicoResponseDTO> paginaPorOffset() {
+        return topicoService.listarTopicos(PageRequest.of(pagina - 1, TAMANO_PAGINA, Sort.by("fechaCreacion")));
+    }
+    
+    @Benchmark
+    public TopicoSliceResponseDTO paginaPorCursor() {
+        return topicoService.listarTopicosPorCursor(cursor, TAMANO_PAGINA, null, ModoBusquedaCurso.CONTIENE, null);
+    }
+    
+    private static void poblar(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO curso (nombre, categoria) VALUES ('Spring Boot Avanzado', 'Programación')");
+        jdbcTemplate.update("INSERT INTO usuario (nombre, correo_electronico, contrasena) VALUES ('Autor', 'benchmark@email.com', 'x')");
+        Long cursoId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM curso", Long.class);
+        Long autorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM usuario", Long.class);
+        
+        LocalDateTime inicio = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int desde = 0; desde < TOPICOS; desde += 1_000) {
+            int base = desde;
+            jdbcTemplate.batchUpdate("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                            + "VALUES (?, ?, ?, 'ABIERTO', ?, ?)",
+                    IntStream.range(base, base + 1_000)
+                            .mapToObj(i -> new Object[]{"Tópico " + i, "Mensaje del tópico " + i,
+                                    Timestamp.valueOf(inicio.plusMinutes(i)), autorId, cursoId})
+                            .toList());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación y validación de JWT. Compara la validación original (Algorithm y verificador
+ * nuevos en cada llamada), un verificador reutilizado y la ruta actual de TokenService
+ * (verificador reutilizado + caché de tokens verificados) con 1, 8 y 32 hilos.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+    
+    private static final String SECRET = "benchmark-secret";
+    
+    private TokenService tokenService;
+    
+    private Usuario usuario;
+    
+    private String token;
+    
+    private JWTVerifier verificadorReutilizado;
+    
+    @Setup
+    public void preparar() {
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "tamanoCacheVerificados", 10_000L);
+        tokenService.inicializar();
+        
+        usuario = new Usuario();
+        usuario.setCorreoElectronico("benchmark@email.com");
+        token = tokenService.generateToken(usuario);
+        verificadorReutilizado = JWT.require(Algorithm.HMAC256(SECRET)).withIssuer("forohub-api").build();
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(usuario);
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public String validarOriginal_01hilo() {
+        return validarComoAntes(token);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String validarOriginal_08hilos() {
+        return validarComoAntes(token);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public String validarOriginal_32hilos() {
+        return validarComoAntes(token);
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public String validarVerificadorReutilizado_01hilo() {
+        return verificadorReutilizado.verify(token).getSubject();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String validarVerificadorReutilizado_08hilos() {
+        return verificadorReutilizado.verify(token).getSubject();
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public String validarVerificadorReutilizado_32hilos() {
+        return verificadorReutilizado.verify(token).getSubject();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public String validateToken_01hilo() {
+        return tokenService.validateToken(token);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String validateToken_08hilos() {
+        return tokenService.validateToken(token);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public String validateToken_32hilos() {
+        return tokenService.validateToken(token);
+    }
+    
+    // Implementación previa de TokenService.validateToken, como referencia
+    private static String validarComoAntes(String token) {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.require(algorithm)
+                .withIssuer("forohub-api")
+                .build()
+                .verify(token)
+                .getSubject();
+    }
+}
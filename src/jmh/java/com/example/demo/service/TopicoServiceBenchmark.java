@@ -0,0 +1,45 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de la entidad Topico (con autor y curso ya cargados) al DTO de respuesta.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TopicoServiceBenchmark {
+    
+    private TopicoService topicoService;
+    
+    private Topico topico;
+    
+    @Setup
+    public void preparar() {
+        topicoService = new TopicoService();
+        
+        topico = new Topico();
+        topico.setId(1L);
+        topico.setTitulo("¿Cómo configurar Spring Security?");
+        topico.setMensaje("Necesito ayuda para configurar la autenticación en mi proyecto Spring Boot");
+        topico.setAutor(new Usuario(1L, "Juan Pérez", "juan.perez@email.com", "secreto", null));
+        topico.setCurso(new Curso(1L, "Spring Boot Avanzado", "Programación"));
+    }
+    
+    @Benchmark
+    public TopicoResponseDTO convertirATopicoResponseDTO() {
+        return topicoService.convertirATopicoResponseDTO(topico);
+    }
+}
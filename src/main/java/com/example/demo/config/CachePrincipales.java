@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de los usuarios autenticados, indexada por el subject del token
+ * (correo electrónico). Evita consultar la base en cada petición que pasa por SecurityFilter.
+ */
+@Component
+public class CachePrincipales implements MeterBinder {
+    
+    @Value("${api.security.principal-cache.enabled:true}")
+    private boolean habilitada;
+    
+    @Value("${api.security.principal-cache.ttl:5m}")
+    private Duration ttl;
+    
+    @Value("${api.security.principal-cache.max-size:10000}")
+    private long tamanoMaximo;
+    
+    private Cache<String, UserDetails> cache;
+    
+    @PostConstruct
+    void inicializar() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principales");
+    }
+    
+    // Devuelve el usuario en caché o lo carga; los resultados nulos no se guardan
+    public UserDetails obtener(String correoElectronico, Function<String, UserDetails> cargador) {
+        if (!habilitada) {
+            return cargador.apply(correoElectronico);
+        }
+        return cache.get(correoElectronico, cargador);
+    }
+    
+    // Se invalida de inmediato y otra vez al confirmar la transacción, para que una petición
+    // concurrente no vuelva a cachear el estado anterior antes del commit
+    public void invalidarUsuario(Long usuarioId) {
+        eliminarUsuario(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eliminarUsuario(usuarioId);
+                }
+            });
+        }
+    }
+    
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+    
+    public long tamano() {
+        return cache.estimatedSize();
+    }
+    
+    public CacheStats estadisticas() {
+        return cache.stats();
+    }
+    
+    // La clave es el correo, que puede haber cambiado: se busca por ID del usuario
+    private void eliminarUsuario(Long usuarioId) {
+        cache.asMap().values().removeIf(usuario ->
+                usuario instanceof Usuario u && usuarioId.equals(u.getId()));
+    }
+}
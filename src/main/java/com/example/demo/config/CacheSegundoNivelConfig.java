@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Curso;
+import com.example.demo.model.Perfil;
+import com.example.demo.model.Usuario;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Caché de segundo nivel de Hibernate: JCache sobre Caffeine, en la memoria del proceso.
+ * Las regiones se crean aquí con tamaño y expiración acotados; la expiración limita cuánto
+ * puede durar un dato cambiado por fuera de Hibernate (SQL manual, otra instancia).
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+    
+    // Los nombres los declara cada entidad en su @Cache; aquí solo se crean las regiones
+    public static final String REGION_CURSOS = Curso.REGION_CACHE;
+    public static final String REGION_PERFILES = Perfil.REGION_CACHE;
+    public static final String REGION_USUARIOS = Usuario.REGION_CACHE;
+    
+    // Regiones propias de Hibernate para el caché de consultas
+    private static final String REGION_CONSULTAS = "default-query-results-region";
+    private static final String REGION_MARCAS_DE_TIEMPO = "default-update-timestamps-region";
+    
+    @Value("${api.cache.hibernate.ttl:10m}")
+    private Duration ttl;
+    
+    @Value("${api.cache.hibernate.consultas.ttl:1m}")
+    private Duration ttlConsultas;
+    
+    @Value("${api.cache.hibernate.usuarios.max-size:10000}")
+    private long maximoUsuarios;
+    
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        crearRegion(cacheManager, REGION_CURSOS, 1_000L, ttl);
+        crearRegion(cacheManager, REGION_PERFILES, 100L, ttl);
+        crearRegion(cacheManager, REGION_USUARIOS, maximoUsuarios, ttl);
+        crearRegion(cacheManager, REGION_CONSULTAS, 100L, ttlConsultas);
+        // Una entrada por tabla; no debe expirar antes que los resultados que valida
+        crearRegion(cacheManager, REGION_MARCAS_DE_TIEMPO, null, null);
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+    
+    // El CacheManager por defecto es único por class loader; si otro contexto (p. ej. en los tests)
+    // ya creó la región sobre la misma base, se reutiliza
+    private static void crearRegion(CacheManager cacheManager, String nombre, Long tamanoMaximo, Duration expiracion) {
+        if (cacheManager.getCache(nombre) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        // Hibernate ya guarda entradas desensambladas; copiarlas en cada lectura no aporta nada
+        configuracion.setStoreByValue(false);
+        if (tamanoMaximo != null) {
+            configuracion.setMaximumSize(OptionalLong.of(tamanoMaximo));
+        }
+        if (expiracion != null) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(expiracion.toNanos()));
+        }
+        cacheManager.createCache(nombre, configuracion);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate en el hilo actual mientras hay una petición HTTP
+ * en curso (ver MetricasConfig). Fuera de una petición (tareas programadas, arranque) no cuenta nada.
+ */
+public class ContadorSentencias implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> SENTENCIAS = new ThreadLocal<>();
+    
+    @Override
+    public String inspect(String sql) {
+        int[] contador = SENTENCIAS.get();
+        if (contador != null) {
+            contador[0]++;
+        }
+        return sql;
+    }
+    
+    public static void iniciar() {
+        SENTENCIAS.set(new int[1]);
+    }
+    
+    // -1 si el hilo no está contando (p. ej. el despacho asíncrono de una exportación)
+    public static int actual() {
+        int[] contador = SENTENCIAS.get();
+        return contador != null ? contador[0] : -1;
+    }
+    
+    public static void terminar() {
+        SENTENCIAS.remove();
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexiones de las transacciones de solo lectura: se reparten entre las réplicas sanas y, si no hay
+ * ninguna, salen del primario. Un proceso periódico verifica cada réplica y saca del reparto las que no
+ * responden. Durante una ventana corta después de confirmar una escritura, las lecturas del mismo usuario
+ * van al primario para que vea lo que escribió aunque la réplica esté atrasada. Todas las lecturas de
+ * una petición usan la misma réplica: la versión de la ETag y los datos salen de la misma copia.
+ */
+@Component
+@ConditionalOnProperty(name = "api.replicas.urls")
+public class DataSourceReplicas extends AbstractDataSource {
+    
+    private static final Logger log = LoggerFactory.getLogger(DataSourceReplicas.class);
+    
+    private static final String ATRIBUTO_REPLICA = DataSourceReplicas.class.getName() + ".replica";
+    
+    private static final String PRIMARIO = "primario";
+    
+    @Value("${api.replicas.urls}")
+    private List<String> urls;
+    
+    @Value("${api.replicas.username:${spring.datasource.username:}}")
+    private String usuario;
+    
+    @Value("${api.replicas.password:${spring.datasource.password:}}")
+    private String contrasena;
+    
+    @Value("${api.replicas.pool-size:10}")
+    private int tamanoPool;
+    
+    @Value("${api.replicas.connection-timeout:2s}")
+    private Duration tiempoEspera;
+    
+    @Value("${api.replicas.balanceo:MENOS_CONEXIONES}")
+    private BalanceoReplicas balanceo;
+    
+    @Value("${api.replicas.ventana-escritura:5s}")
+    private Duration ventanaEscritura;
+    
+    @Autowired
+    @Qualifier("dataSourcePrimario")
+    private DataSource primario;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final List<Replica> replicas = new ArrayList<>();
+    
+    private final AtomicInteger turno = new AtomicInteger();
+    
+    // Usuarios con una escritura confirmada dentro de la ventana
+    private Cache<String, Boolean> escriturasRecientes;
+    
+    public enum BalanceoReplicas {
+        ROUND_ROBIN,
+        // La réplica con menos conexiones en uso; los empates se reparten por turno
+        MENOS_CONEXIONES
+    }
+    
+    private static final class Replica {
+        
+        private final String nombre;
+        
+        private final HikariDataSource pool;
+        
+        private volatile boolean sana = true;
+        
+        private Replica(String nombre, HikariDataSource pool) {
+            this.nombre = nombre;
+            this.pool = pool;
+        }
+        
+        private int conexionesActivas() {
+            return pool.getHikariPoolMXBean() != null ? pool.getHikariPoolMXBean().getActiveConnections() : 0;
+        }
+    }
+    
+    @PostConstruct
+    void inicializar() {
+        escriturasRecientes = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(ventanaEscritura)
+                .build();
+        
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(usuario);
+            pool.setPassword(contrasena);
+            pool.setMaximumPoolSize(tamanoPool);
+            pool.setConnectionTimeout(tiempoEspera.toMillis());
+            pool.setReadOnly(true);
+            // Una réplica caída al arrancar no impide levantar la aplicación; queda fuera hasta que responda
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        
+        Gauge.builder("forohub.replicas.sanas", this, fuente -> fuente.replicas.stream().filter(replica -> replica.sana).count())
+                .description("Réplicas de lectura que respondieron a la última verificación")
+                .register(meterRegistry);
+        verificar();
+    }
+    
+    @PreDestroy
+    void cerrar() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+    
+    @Scheduled(fixedDelayString = "${api.replicas.intervalo-verificacion:5s}")
+    public void verificar() {
+        for (Replica replica : replicas) {
+            boolean sana;
+            try (Connection conexion = replica.pool.getConnection()) {
+                sana = conexion.isValid((int) Math.max(1, tiempoEspera.toSeconds()));
+            } catch (SQLException e) {
+                sana = false;
+            }
+            if (sana != replica.sana) {
+                log.warn("La réplica {} {}", replica.nombre, sana ? "vuelve al reparto de lecturas" : "no responde; sus lecturas van a otra réplica o al primario");
+            }
+            replica.sana = sana;
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        String usuarioActual = usuarioActual();
+        if (usuarioActual != null && escriturasRecientes.getIfPresent(usuarioActual) != null) {
+            return conexionDe(PRIMARIO, primario);
+        }
+        
+        Replica asignada = replicaDeLaPeticion();
+        if (asignada != null && asignada.sana) {
+            try {
+                return conexionDe(asignada.nombre, asignada.pool);
+            } catch (SQLException e) {
+                marcarCaida(asignada, e);
+            }
+        }
+        
+        // Si la elegida falla se prueba con las demás sanas antes de caer al primario
+        for (int intento = 0; intento < replicas.size(); intento++) {
+            Replica replica = elegir();
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection conexion = conexionDe(replica.nombre, replica.pool);
+                recordarReplica(replica);
+                return conexion;
+            } catch (SQLException e) {
+                marcarCaida(replica, e);
+            }
+        }
+        return conexionDe(PRIMARIO, primario);
+    }
+    
+    // Con las credenciales de las réplicas se enruta igual que getConnection(). Con otras va al primario: los
+    // pools de Hikari no abren conexiones con credenciales por llamada, y sin réplicas configuradas esta misma
+    // llamada también llegaría al primario, que decide si la acepta
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (Objects.equals(username, usuario) && Objects.equals(password, contrasena)) {
+            return getConnection();
+        }
+        Connection conexion = primario.getConnection(username, password);
+        meterRegistry.counter("forohub.replicas.conexiones", "destino", PRIMARIO).increment();
+        return conexion;
+    }
+    
+    // Se llama al pedir una conexión de escritura: al confirmar, el usuario queda fijado al primario
+    public void registrarEscritura() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String usuarioActual = usuarioActual();
+        if (usuarioActual == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            escriturasRecientes.put(usuarioActual, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escriturasRecientes.put(usuarioActual, Boolean.TRUE);
+            }
+        });
+    }
+    
+    private Replica elegir() {
+        List<Replica> sanas = replicas.stream().filter(replica -> replica.sana).toList();
+        if (sanas.isEmpty()) {
+            return null;
+        }
+        int inicio = Math.floorMod(turno.getAndIncrement(), sanas.size());
+        if (balanceo == BalanceoReplicas.ROUND_ROBIN) {
+            return sanas.get(inicio);
+        }
+        Replica elegida = null;
+        for (int i = 0; i < sanas.size(); i++) {
+            Replica candidata = sanas.get((inicio + i) % sanas.size());
+            if (elegida == null || candidata.conexionesActivas() < elegida.conexionesActivas()) {
+                elegida = candidata;
+            }
+        }
+        return elegida;
+    }
+    
+    private Connection conexionDe(String destino, DataSource dataSource) throws SQLException {
+        Connection conexion = dataSource.getConnection();
+        meterRegistry.counter("forohub.replicas.conexiones", "destino", destino).increment();
+        return conexion;
+    }
+    
+    private void marcarCaida(Replica replica, SQLException e) {
+        if (replica.sana) {
+            log.warn("La réplica {} no entregó una conexión; queda fuera hasta la próxima verificación", replica.nombre, e);
+        }
+        replica.sana = false;
+    }
+    
+    private Replica replicaDeLaPeticion() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos != null ? (Replica) atributos.getAttribute(ATRIBUTO_REPLICA, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+    
+    private void recordarReplica(Replica replica) {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos != null) {
+            atributos.setAttribute(ATRIBUTO_REPLICA, replica, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    private static String usuarioActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion != null && autenticacion.isAuthenticated() ? autenticacion.getName() : null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Usuario;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA de Usuario: cualquier actualización o eliminación saca al usuario de la
+ * caché de principales. Hibernate lo instancia a través del contenedor de Spring.
+ */
+public class InvalidacionCachePrincipalesListener {
+    
+    @Autowired
+    private CachePrincipales cachePrincipales;
+    
+    @PostUpdate
+    @PostRemove
+    void invalidar(Usuario usuario) {
+        cachePrincipales.invalidarUsuario(usuario.getId());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de peticiones por cliente con una cubeta de tokens por clave y grupo de rutas.
+ * Cada cubeta es un solo AtomicLong con el algoritmo GCRA (el instante teórico en que la cubeta
+ * vuelve a estar llena), así consumir un token es una lectura y un compareAndSet, sin bloqueos.
+ * Una cubeta llena equivale a una inexistente, así que las cubetas viven en un caché de Caffeine que
+ * las expira cuando pasa sin usarse el tiempo de llenarse. Con el caché en su tamaño máximo Caffeine
+ * desaloja las de menos uso: una clave desalojada vuelve a empezar con la cubeta llena, pero ninguna
+ * clave comparte cubeta con otra.
+ */
+@Component
+public class LimitadorPeticiones {
+    
+    public enum Grupo { LOGIN, ESCRITURA, LECTURA }
+    
+    @Value("${api.limite.login.capacidad:10}")
+    private long capacidadLogin;
+    
+    @Value("${api.limite.login.por-segundo:0.2}")
+    private double porSegundoLogin;
+    
+    @Value("${api.limite.escritura.capacidad:30}")
+    private long capacidadEscritura;
+    
+    @Value("${api.limite.escritura.por-segundo:2}")
+    private double porSegundoEscritura;
+    
+    @Value("${api.limite.lectura.capacidad:100}")
+    private long capacidadLectura;
+    
+    @Value("${api.limite.lectura.por-segundo:20}")
+    private double porSegundoLectura;
+    
+    @Value("${api.limite.max-claves:100000}")
+    private long maximoClaves;
+    
+    private final Map<Grupo, Limite> limites = new EnumMap<>(Grupo.class);
+    
+    // Origen propio para que los instantes sean positivos (System.nanoTime puede ser negativo)
+    private final long origen = System.nanoTime();
+    
+    @PostConstruct
+    void inicializar() {
+        limites.put(Grupo.LOGIN, new Limite(capacidadLogin, porSegundoLogin, maximoClaves));
+        limites.put(Grupo.ESCRITURA, new Limite(capacidadEscritura, porSegundoEscritura, maximoClaves));
+        limites.put(Grupo.LECTURA, new Limite(capacidadLectura, porSegundoLectura, maximoClaves));
+    }
+    
+    // Consume un token de la cubeta de la clave. Devuelve 0 si la petición pasa, o los nanosegundos
+    // que faltan para que haya un token disponible
+    public long consumir(Grupo grupo, String clave) {
+        Limite limite = limites.get(grupo);
+        long ahora = ahora();
+        AtomicLong cubeta = limite.cubetas.get(clave, k -> new AtomicLong());
+        while (true) {
+            long llena = cubeta.get();
+            long exceso = llena - ahora - limite.tolerancia;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (cubeta.compareAndSet(llena, Math.max(llena, ahora) + limite.intervalo)) {
+                return 0;
+            }
+        }
+    }
+    
+    private long ahora() {
+        return System.nanoTime() - origen;
+    }
+    
+    private static final class Limite {
+        
+        // Nanosegundos que repone un token y margen de ráfaga (capacidad - 1 tokens)
+        private final long intervalo;
+        private final long tolerancia;
+        private final Cache<String, AtomicLong> cubetas;
+        
+        // Una petición que tomó la cubeta justo antes de que expirara consume de la copia descartada: a lo
+        // sumo deja pasar un token de más. Una espera más larga que la de llenado solo retiene más cubetas
+        private Limite(long capacidad, double porSegundo, long maximoClaves) {
+            intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+            tolerancia = (capacidad - 1) * intervalo;
+            cubetas = Caffeine.newBuilder()
+                    .maximumSize(maximoClaves)
+                    .expireAfterAccess(Duration.ofNanos(Math.max(capacidad * intervalo, TimeUnit.SECONDS.toNanos(1))))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.config;
+
+import com.example.demo.config.LimitadorPeticiones.Grupo;
+import com.example.demo.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica LimitadorPeticiones antes de SecurityFilter. La clave es el usuario del token si es válido
+ * y, si no, la IP del cliente; el login y el registro siempre se limitan por IP. El resultado de la
+ * verificación queda en la petición para que SecurityFilter no vuelva a verificar el token.
+ */
+@Component
+public class LimitePeticionesFilter extends OncePerRequestFilter {
+    
+    @Value("${api.limite.habilitado:true}")
+    private boolean habilitado;
+    
+    @Autowired
+    private LimitadorPeticiones limitador;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado || request.getRequestURI().startsWith("/actuator/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Grupo grupo = grupo(request);
+        long espera = limitador.consumir(grupo, clave(request, grupo));
+        if (espera > 0) {
+            rechazar(response, grupo, espera);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static Grupo grupo(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String metodo = request.getMethod();
+        if (uri.startsWith("/auth/")) {
+            return Grupo.LOGIN;
+        }
+        boolean lectura = HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo) || HttpMethod.OPTIONS.matches(metodo);
+        return !lectura && uri.startsWith("/topicos") ? Grupo.ESCRITURA : Grupo.LECTURA;
+    }
+    
+    // El token se valida una sola vez por petición: SecurityFilter toma el resultado del atributo
+    private String clave(HttpServletRequest request, Grupo grupo) {
+        if (grupo != Grupo.LOGIN) {
+            String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (autorizacion != null) {
+                String usuario = tokenService.validateToken(autorizacion.replace("Bearer ", ""));
+                request.setAttribute(SecurityFilter.ATRIBUTO_CORREO, usuario);
+                if (!usuario.isEmpty()) {
+                    return usuario;
+                }
+            }
+        }
+        // Prefijo para que una IP no coincida con el correo de un usuario. Detrás del balanceador Tomcat ya
+        // reemplazó la dirección remota por la de X-Forwarded-For (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private void rechazar(HttpServletResponse response, Grupo grupo, long esperaNanos) throws IOException {
+        long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        meterRegistry.counter("forohub.limite.rechazos", "grupo", grupo.name().toLowerCase()).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Demasiadas solicitudes\",\"mensaje\":\"Límite de peticiones excedido; intente de nuevo en "
+                + segundos + " segundos\"}");
+    }
+}
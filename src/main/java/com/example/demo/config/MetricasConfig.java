@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import io.micrometer.common.KeyValues;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Métricas propias de la API que no vienen con Actuator: el conteo de sentencias SQL por petición.
+ * El resto (HTTP, HikariCP, Hibernate, JVM) lo registra Spring Boot y se expone en /actuator/prometheus.
+ */
+@Configuration
+public class MetricasConfig {
+    
+    @Bean
+    public HibernatePropertiesCustomizer contadorSentencias() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSentencias());
+    }
+    
+    // Agrega a http.server.requests la cantidad de sentencias de la petición, agrupada en rangos
+    // para no multiplicar las series; un N+1 hace que un endpoint salte de rango en los tableros
+    @Bean
+    public ServerRequestObservationConvention convencionPeticionesHttp() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and("sql.sentencias", rango(ContadorSentencias.actual()));
+            }
+        };
+    }
+    
+    private static String rango(int sentencias) {
+        if (sentencias < 0) {
+            return "desconocido";
+        }
+        if (sentencias <= 1) {
+            return String.valueOf(sentencias);
+        }
+        if (sentencias <= 5) {
+            return "2-5";
+        }
+        if (sentencias <= 20) {
+            return "6-20";
+        }
+        return "21+";
+    }
+}
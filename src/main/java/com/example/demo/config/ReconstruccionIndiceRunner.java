@@ -0,0 +1,27 @@
+package com.example.demo.config;
+
+import com.example.demo.service.BuscadorTopicos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruye el índice de búsqueda al arrancar si no existía, o siempre que se inicie con --reindexar
+ * (por ejemplo tras restaurar la base o si el proceso terminó sin confirmar los últimos cambios del índice).
+ */
+@Component
+public class ReconstruccionIndiceRunner implements ApplicationRunner {
+    
+    public static final String OPCION_REINDEXAR = "reindexar";
+    
+    @Autowired
+    private BuscadorTopicos buscadorTopicos;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPCION_REINDEXAR) || buscadorTopicos.requiereReconstruccion()) {
+            buscadorTopicos.reconstruir();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource de la aplicación cuando hay réplicas de lectura (api.replicas.urls). La conexión física se
+ * pide recién en la primera sentencia, cuando ya se sabe si la transacción es de solo lectura: las de
+ * solo lectura van a DataSourceReplicas y el resto al primario. Sin réplicas configuradas no se define
+ * nada y queda el pool de Spring Boot sobre spring.datasource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.replicas.urls")
+public class ReplicasConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario, DataSourceReplicas replicas) {
+        // Las conexiones de escritura avisan a las réplicas para fijar al usuario al primario tras el commit
+        DataSource escritura = new DelegatingDataSource(primario) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                replicas.registrarEscritura();
+                return super.getConnection();
+            }
+        };
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(escritura);
+        proxy.setReadOnlyDataSource(replicas);
+        return proxy;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -21,19 +23,29 @@ public class SecurityConfigurations {
     @Autowired
     private SecurityFilter securityFilter;
     
+    @Autowired
+    private LimitePeticionesFilter limitePeticionesFilter;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
         return httpSecurity
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        // El despacho asíncrono (p. ej. al terminar GET /topicos/export) continúa una petición ya
+                        // autorizada; SecurityFilter no se vuelve a ejecutar en él, así que no hay que exigir el token otra vez
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
                         .requestMatchers(HttpMethod.POST, "/test/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/test/**").permitAll()
+                        // Para el scraping de Prometheus y los health checks; en producción conviene
+                        // publicar Actuator en un puerto interno (MANAGEMENT_SERVER_PORT)
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(limitePeticionesFilter, SecurityFilter.class)
                 .build();
     }
     
@@ -42,8 +54,9 @@ public class SecurityConfigurations {
         return authenticationConfiguration.getAuthenticationManager();
     }
     
+    // Al subir el costo, los hashes existentes se recalculan en el siguiente login (AuthorizationService.updatePassword)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${api.security.bcrypt.costo:10}") int costo) {
+        return new BCryptPasswordEncoder(costo);
     }
 }
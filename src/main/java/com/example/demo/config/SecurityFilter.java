@@ -2,6 +2,8 @@ package com.example.demo.config;
 
 import com.example.demo.repository.UsuarioRepository;
 import com.example.demo.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,23 +20,49 @@ import java.io.IOException;
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
     
+    // Correo del token ("" si no es válido) cuando LimitePeticionesFilter ya lo verificó en la misma petición
+    public static final String ATRIBUTO_CORREO = SecurityFilter.class.getName() + ".correo";
+    
     @Autowired
     private TokenService tokenService;
     
     @Autowired
     private UsuarioRepository usuarioRepository;
     
+    @Autowired
+    private CachePrincipales cachePrincipales;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = autenticar(request);
+        muestra.stop(meterRegistry.timer("forohub.seguridad.autenticacion", "resultado", resultado));
+        filterChain.doFilter(request, response);
+    }
+    
+    // Devuelve el resultado para la etiqueta de la métrica: sin_token, token_invalido, usuario_inexistente o autenticado
+    private String autenticar(HttpServletRequest request) {
         var token = this.recoverToken(request);
-        if (token != null) {
-            var correoElectronico = tokenService.validateToken(token);
-            UserDetails user = usuarioRepository.findByCorreoElectronico(correoElectronico);
-            
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (token == null) {
+            return "sin_token";
         }
-        filterChain.doFilter(request, response);
+        var correoElectronico = (String) request.getAttribute(ATRIBUTO_CORREO);
+        if (correoElectronico == null) {
+            correoElectronico = tokenService.validateToken(token);
+        }
+        if (correoElectronico.isEmpty()) {
+            return "token_invalido";
+        }
+        UserDetails user = cachePrincipales.obtener(correoElectronico, usuarioRepository::findByCorreoElectronico);
+        if (user == null) {
+            return "usuario_inexistente";
+        }
+        var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return "autenticado";
     }
     
     private String recoverToken(HttpServletRequest request) {
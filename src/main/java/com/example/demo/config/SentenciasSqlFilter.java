@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Cuenta las sentencias SQL de cada petición y las registra en forohub.sql.sentencias por método y URI.
+ * Va antes del filtro de observación de Spring MVC, así el conteo ya está completo cuando este
+ * agrega la etiqueta sql.sentencias a http.server.requests (ver MetricasConfig).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SentenciasSqlFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContadorSentencias.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int sentencias = ContadorSentencias.actual();
+            ContadorSentencias.terminar();
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("forohub.sql.sentencias")
+                    .description("Sentencias SQL preparadas por Hibernate en cada petición")
+                    .tag("method", request.getMethod())
+                    .tag("uri", patron != null ? patron.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(sentencias);
+        }
+    }
+}
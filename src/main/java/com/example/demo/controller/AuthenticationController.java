@@ -5,18 +5,23 @@ import com.example.demo.dto.LoginResponseDTO;
 import com.example.demo.dto.RegisterDTO;
 import com.example.demo.model.Usuario;
 import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.EjecutorContrasenas;
 import com.example.demo.service.TokenService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthenticationController {
@@ -30,30 +35,45 @@ public class AuthenticationController {
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private EjecutorContrasenas ejecutorContrasenas;
+    
+    // El de Spring Boot, el mismo que usa MVC para las peticiones asíncronas
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor ejecutorAplicacion;
+    
+    // BCrypt corre en el pool de EjecutorContrasenas y la petición se completa de forma asíncrona,
+    // así el hilo del servidor queda libre para el resto de la API mientras se verifica la contraseña
+    
     @PostMapping("/login")
-    public ResponseEntity login(@RequestBody @Valid AuthenticationDTO data) {
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> login(@RequestBody @Valid AuthenticationDTO data) {
         var usernamePassword = new UsernamePasswordAuthenticationToken(data.correoElectronico(), data.contrasena());
-        var auth = this.authenticationManager.authenticate(usernamePassword);
-        
-        var token = tokenService.generateToken((Usuario) auth.getPrincipal());
-        
-        return ResponseEntity.ok(new LoginResponseDTO(token));
+        return ejecutorContrasenas.ejecutar(() -> this.authenticationManager.authenticate(usernamePassword))
+                .thenApply(auth -> ResponseEntity.ok(new LoginResponseDTO(tokenService.generateToken((Usuario) auth.getPrincipal()))));
     }
     
     @PostMapping("/register")
-    public ResponseEntity register(@RequestBody @Valid RegisterDTO data) {
+    public CompletableFuture<ResponseEntity<Void>> register(@RequestBody @Valid RegisterDTO data) {
         if (this.repository.findByCorreoElectronico(data.correoElectronico()) != null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
         
-        String encryptedPassword = new BCryptPasswordEncoder().encode(data.contrasena());
-        Usuario newUser = new Usuario();
-        newUser.setNombre(data.nombre());
-        newUser.setCorreoElectronico(data.correoElectronico());
-        newUser.setContrasena(encryptedPassword);
-        
-        this.repository.save(newUser);
-        
-        return ResponseEntity.ok().build();
+        // El pool de BCrypt solo calcula el hash; el INSERT va en otro ejecutor, así una base lenta
+        // no ocupa los hilos de hash ni llena su cola (429) con trabajo que no es de CPU
+        return ejecutorContrasenas.ejecutar(() -> passwordEncoder.encode(data.contrasena()))
+                .thenApplyAsync(encryptedPassword -> {
+                    Usuario newUser = new Usuario();
+                    newUser.setNombre(data.nombre());
+                    newUser.setCorreoElectronico(data.correoElectronico());
+                    newUser.setContrasena(encryptedPassword);
+                    
+                    this.repository.save(newUser);
+                    
+                    return ResponseEntity.<Void>ok().build();
+                }, ejecutorAplicacion);
     }
 }
@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.RespuestaResponseDTO;
+import com.example.demo.dto.RespuestaSliceResponseDTO;
+import com.example.demo.service.RespuestaService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/topicos/{topicoId}/respuestas")
+public class RespuestaController {
+    
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+    
+    @Autowired
+    private RespuestaService respuestaService;
+    
+    @PostMapping
+    public ResponseEntity<RespuestaResponseDTO> crearRespuesta(
+            @PathVariable Long topicoId,
+            @Valid @RequestBody RespuestaRequestDTO respuestaRequest) {
+        RespuestaResponseDTO respuestaCreada = respuestaService.crearRespuesta(topicoId, respuestaRequest);
+        return ResponseEntity.status(HttpStatus.CREATED).body(respuestaCreada);
+    }
+    
+    // Paginación por cursor: "cursor" vacío u omitido para la primera página
+    @GetMapping
+    public ResponseEntity<RespuestaSliceResponseDTO> listarRespuestas(
+            @PathVariable Long topicoId,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (size < 1 || size > TAMANO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO_PAGINA);
+        }
+        
+        RespuestaSliceResponseDTO respuestas = respuestaService.listarRespuestas(topicoId, cursor, size);
+        return ResponseEntity.ok(respuestas);
+    }
+    
+    @PutMapping("/{id}/solucion")
+    public ResponseEntity<RespuestaResponseDTO> marcarSolucion(@PathVariable Long topicoId, @PathVariable Long id) {
+        RespuestaResponseDTO respuesta = respuestaService.marcarSolucion(topicoId, id);
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    @DeleteMapping("/{id}/solucion")
+    public ResponseEntity<RespuestaResponseDTO> desmarcarSolucion(@PathVariable Long topicoId, @PathVariable Long id) {
+        RespuestaResponseDTO respuesta = respuestaService.desmarcarSolucion(topicoId, id);
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarRespuesta(@PathVariable Long topicoId, @PathVariable Long id) {
+        respuestaService.eliminarRespuesta(topicoId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.CachePrincipales;
 import com.example.demo.model.Curso;
 import com.example.demo.model.Perfil;
 import com.example.demo.model.Usuario;
 import com.example.demo.repository.CursoRepository;
 import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.config.CacheSegundoNivelConfig;
+import com.example.demo.service.TopicoService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Endpoints de soporte fuera de la ruta caliente: el bean se crea con la primera petición a /test, no al arrancar
+@Lazy
 @RestController
 @RequestMapping("/test")
 public class TestController {
@@ -19,15 +33,31 @@ public class TestController {
     @Autowired
     private CursoRepository cursoRepository;
     
+    @Autowired
+    private CachePrincipales cachePrincipales;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
     @PostMapping("/usuario")
     public ResponseEntity<Usuario> crearUsuario(@RequestBody Usuario usuario) {
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        // Con ID es una actualización, y el nombre puede aparecer en los listados de tópicos
+        if (usuario.getId() != null) {
+            topicoService.referenciasModificadas();
+        }
         return ResponseEntity.ok(usuarioGuardado);
     }
     
     @PostMapping("/curso")
     public ResponseEntity<Curso> crearCurso(@RequestBody Curso curso) {
         Curso cursoGuardado = cursoRepository.save(curso);
+        if (curso.getId() != null) {
+            topicoService.referenciasModificadas();
+        }
         return ResponseEntity.ok(cursoGuardado);
     }
     
@@ -40,4 +70,47 @@ public class TestController {
     public ResponseEntity<?> listarCursos() {
         return ResponseEntity.ok(cursoRepository.findAll());
     }
+    
+    @GetMapping("/cache/principales")
+    public ResponseEntity<Map<String, Object>> estadisticasCachePrincipales() {
+        CacheStats estadisticas = cachePrincipales.estadisticas();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("habilitada", cachePrincipales.isHabilitada());
+        response.put("tamano", cachePrincipales.tamano());
+        response.put("aciertos", estadisticas.hitCount());
+        response.put("fallos", estadisticas.missCount());
+        response.put("desalojos", estadisticas.evictionCount());
+        response.put("tasaAciertos", estadisticas.hitRate());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/cache/hibernate")
+    public ResponseEntity<Map<String, Object>> estadisticasCacheHibernate() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regiones = new LinkedHashMap<>();
+        regiones.put(CacheSegundoNivelConfig.REGION_CURSOS,
+                resumirRegion(estadisticas.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGION_CURSOS)));
+        regiones.put(CacheSegundoNivelConfig.REGION_PERFILES,
+                resumirRegion(estadisticas.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGION_PERFILES)));
+        regiones.put(CacheSegundoNivelConfig.REGION_USUARIOS,
+                resumirRegion(estadisticas.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGION_USUARIOS)));
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("habilitada", estadisticas.isStatisticsEnabled());
+        response.put("regiones", regiones);
+        response.put("consultasAciertos", estadisticas.getQueryCacheHitCount());
+        response.put("consultasFallos", estadisticas.getQueryCacheMissCount());
+        response.put("sentenciasPreparadas", estadisticas.getPrepareStatementCount());
+        return ResponseEntity.ok(response);
+    }
+    
+    private static Map<String, Object> resumirRegion(CacheRegionStatistics region) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        if (region != null) {
+            resumen.put("aciertos", region.getHitCount());
+            resumen.put("fallos", region.getMissCount());
+            resumen.put("escrituras", region.getPutCount());
+        }
+        return resumen;
+    }
 }
@@ -1,72 +1,221 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+import com.example.demo.dto.CampoTopico;
+import com.example.demo.dto.EstadisticaTopicosDTO;
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.dto.ListaTopicos;
+import com.example.demo.dto.ModoBusquedaCurso;
+import com.example.demo.dto.ResultadoLoteDTO;
+import com.example.demo.dto.TopicoPaginaResponseDTO;
+import com.example.demo.dto.TopicoParcialDTO;
 import com.example.demo.dto.TopicoRequestDTO;
 import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.dto.TopicoSliceResponseDTO;
+import com.example.demo.exception.PrecondicionFallidaException;
+import com.example.demo.service.EscritorTopicosJson;
+import com.example.demo.service.ListasTopicos;
 import com.example.demo.service.TopicoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/topicos")
 public class TopicoController {
     
+    private static final int TAMANO_MAXIMO_CURSOR = 100;
+    
+    private static final int TAMANO_MAXIMO_LOTE = 5000;
+    
+    private static final int LONGITUD_MAXIMA_BUSQUEDA = 200;
+    
     @Autowired
     private TopicoService topicoService;
     
+    @Autowired
+    private EscritorTopicosJson escritorTopicosJson;
+    
     @PostMapping
     public ResponseEntity<TopicoResponseDTO> crearTopico(@Valid @RequestBody TopicoRequestDTO topicoRequest) {
         TopicoResponseDTO topicoCreado = topicoService.crearTopico(topicoRequest);
         return ResponseEntity.status(HttpStatus.CREATED).body(topicoCreado);
     }
     
+    // Creación en lote para importaciones: responde con el resultado de cada elemento
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLoteDTO> crearTopicosEnLote(@RequestBody List<TopicoRequestDTO> topicos) {
+        if (topicos.isEmpty() || topicos.size() > TAMANO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("El lote debe tener entre 1 y " + TAMANO_MAXIMO_LOTE + " tópicos");
+        }
+        
+        ResultadoLoteDTO resultado = topicoService.crearTopicosEnLote(topicos);
+        return ResponseEntity.ok(resultado);
+    }
+    
+    // Los listados llevan la ETag de la versión de la colección: con If-None-Match vigente
+    // se responde 304 leyendo solo esa versión, sin consultar los tópicos.
+    // Con fields solo se escriben esos campos de cada tópico (p. ej. fields=id,titulo,fechaCreacion)
     @GetMapping
-    public ResponseEntity<Page<TopicoResponseDTO>> listarTopicos(
+    public ResponseEntity<byte[]> listarTopicos(
             @PageableDefault(size = 10, sort = "fechaCreacion") Pageable pageable,
             @RequestParam(required = false) String curso,
-            @RequestParam(required = false) Integer anio) {
+            @RequestParam(defaultValue = "CONTIENE") ModoBusquedaCurso cursoModo,
+            @RequestParam(required = false) Integer anio,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        
+        Set<CampoTopico> campos = CampoTopico.parsear(fields);
+        if (request.checkNotModified(etagDeColeccion())) {
+            return null;
+        }
         
         Page<TopicoResponseDTO> topicos;
         
         // Aplicar filtros según los parámetros recibidos
         if (curso != null && anio != null) {
-            topicos = topicoService.buscarPorCursoYAnio(curso, anio, pageable);
+            topicos = topicoService.buscarPorCursoYAnio(curso, cursoModo, anio, pageable);
         } else if (curso != null) {
-            topicos = topicoService.buscarPorCurso(curso, pageable);
+            topicos = topicoService.buscarPorCurso(curso, cursoModo, pageable);
         } else if (anio != null) {
             topicos = topicoService.buscarPorAnio(anio, pageable);
         } else {
             topicos = topicoService.listarTopicos(pageable);
         }
         
-        return ResponseEntity.ok(topicos);
+        Integer siguientePagina = topicos.hasNext() ? topicos.getNumber() + 1 : null;
+        TopicoPaginaResponseDTO pagina = new TopicoPaginaResponseDTO(topicos.getContent(), topicos.getTotalElements(), siguientePagina);
+        return responderJson(escritorTopicosJson.escribirPagina(pagina, campos));
+    }
+    
+    // Paginación por cursor: se activa enviando el parámetro "cursor" (vacío para la primera página)
+    @GetMapping(params = "cursor")
+    public ResponseEntity<byte[]> listarTopicosPorCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String curso,
+            @RequestParam(defaultValue = "CONTIENE") ModoBusquedaCurso cursoModo,
+            @RequestParam(required = false) Integer anio,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        
+        if (size < 1 || size > TAMANO_MAXIMO_CURSOR) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO_CURSOR);
+        }
+        Set<CampoTopico> campos = CampoTopico.parsear(fields);
+        
+        if (request.checkNotModified(etagDeColeccion())) {
+            return null;
+        }
+        
+        TopicoSliceResponseDTO topicos = topicoService.listarTopicosPorCursor(cursor, size, curso, cursoModo, anio);
+        return responderJson(escritorTopicosJson.escribirSlice(topicos, campos));
     }
     
+    // Exportación completa: las filas se escriben en la respuesta a medida que se leen de la base
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarTopicos(
+            @RequestParam(defaultValue = "NDJSON") FormatoExportacion formato,
+            @RequestParam(required = false) String curso,
+            @RequestParam(defaultValue = "CONTIENE") ModoBusquedaCurso cursoModo,
+            @RequestParam(required = false) Integer anio) {
+        
+        StreamingResponseBody cuerpo = salida -> topicoService.exportarTopicos(curso, cursoModo, anio, formato, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getTipoContenido()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"topicos." + formato.getExtension() + "\"")
+                .body(cuerpo);
+    }
+    
+    // Búsqueda de texto completo en título y mensaje, por relevancia y paginada por cursor
+    @GetMapping("/search")
+    public ResponseEntity<BusquedaSliceResponseDTO> buscarTopicos(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        if (q.isBlank() || q.length() > LONGITUD_MAXIMA_BUSQUEDA) {
+            throw new IllegalArgumentException("La búsqueda debe tener entre 1 y " + LONGITUD_MAXIMA_BUSQUEDA + " caracteres");
+        }
+        if (size < 1 || size > TAMANO_MAXIMO_CURSOR) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO_CURSOR);
+        }
+        
+        BusquedaSliceResponseDTO resultados = topicoService.buscarTopicos(q, cursor, size);
+        return ResponseEntity.ok(resultados);
+    }
+    
+    // Tópicos por curso y año, en total y por estado, desde las estadísticas materializadas
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticaTopicosDTO>> obtenerEstadisticas(
+            @RequestParam(required = false) String curso,
+            @RequestParam(defaultValue = "CONTIENE") ModoBusquedaCurso cursoModo,
+            @RequestParam(required = false) Integer anio) {
+        
+        List<EstadisticaTopicosDTO> estadisticas = topicoService.obtenerEstadisticas(curso, cursoModo, anio);
+        return ResponseEntity.ok(estadisticas);
+    }
+    
+    // Las listas cortas salen de memoria ya serializadas, con una ETag del contenido
     @GetMapping("/primeros10")
-    public ResponseEntity<List<TopicoResponseDTO>> listarPrimeros10Topicos() {
-        List<TopicoResponseDTO> topicos = topicoService.listarPrimeros10Topicos();
-        return ResponseEntity.ok(topicos);
+    public ResponseEntity<byte[]> listarPrimeros10Topicos(WebRequest request) {
+        return responderLista(ListaTopicos.PRIMEROS, request);
+    }
+    
+    // Los últimos tópicos creados
+    @GetMapping("/recientes")
+    public ResponseEntity<byte[]> listarTopicosRecientes(WebRequest request) {
+        return responderLista(ListaTopicos.RECIENTES, request);
     }
     
+    // Los tópicos con la respuesta más reciente
+    @GetMapping("/activos")
+    public ResponseEntity<byte[]> listarTopicosActivos(WebRequest request) {
+        return responderLista(ListaTopicos.ACTIVOS, request);
+    }
+    
+    // El detalle lleva la ETag de la versión del tópico; la revalidación solo lee esa columna
     @GetMapping("/{id}")
-    public ResponseEntity<TopicoResponseDTO> obtenerTopicoPorId(@PathVariable Long id) {
+    public ResponseEntity<TopicoResponseDTO> obtenerTopicoPorId(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(etagDeTopico(topicoService.obtenerVersion(id)))) {
+            return null;
+        }
+        
         TopicoResponseDTO topico = topicoService.obtenerTopicoPorId(id);
-        return ResponseEntity.ok(topico);
+        return ResponseEntity.ok().eTag(etagDeTopico(topico.version())).body(topico);
     }
     
+    // Con If-Match solo se actualiza si el tópico sigue en esa versión (412 si no)
     @PutMapping("/{id}")
     public ResponseEntity<TopicoResponseDTO> actualizarTopico(
             @PathVariable Long id, 
-            @Valid @RequestBody TopicoRequestDTO topicoRequest) {
-        TopicoResponseDTO topicoActualizado = topicoService.actualizarTopico(id, topicoRequest);
-        return ResponseEntity.ok(topicoActualizado);
+            @Valid @RequestBody TopicoRequestDTO topicoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TopicoResponseDTO topicoActualizado = topicoService.actualizarTopico(id, topicoRequest, versionEsperada(ifMatch));
+        return ResponseEntity.ok().eTag(etagDeTopico(topicoActualizado.version())).body(topicoActualizado);
+    }
+    
+    // Actualización parcial: solo cambian los campos enviados, con el mismo If-Match que PUT
+    @PatchMapping("/{id}")
+    public ResponseEntity<TopicoResponseDTO> actualizarTopicoParcialmente(
+            @PathVariable Long id,
+            @Valid @RequestBody TopicoParcialDTO cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TopicoResponseDTO topicoActualizado = topicoService.actualizarTopicoParcialmente(id, cambios, versionEsperada(ifMatch));
+        return ResponseEntity.ok().eTag(etagDeTopico(topicoActualizado.version())).body(topicoActualizado);
     }
     
     @DeleteMapping("/{id}")
@@ -74,4 +223,45 @@ public class TopicoController {
         topicoService.eliminarTopico(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private ResponseEntity<byte[]> responderLista(ListaTopicos lista, WebRequest request) {
+        ListasTopicos.Instantanea instantanea = topicoService.obtenerLista(lista);
+        if (request.checkNotModified(instantanea.etag())) {
+            return null;
+        }
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(instantanea.etag())
+                .body(instantanea.json());
+    }
+    
+    // JSON ya escrito por EscritorTopicosJson; la ETag la agrega checkNotModified
+    private static ResponseEntity<byte[]> responderJson(byte[] json) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+    
+    // Débil: cambia con la colección, no con los bytes (fields, gzip); con una ETag fuerte Tomcat no comprime
+    private String etagDeColeccion() {
+        return "W/\"c" + topicoService.obtenerVersionDeTopicos() + "\"";
+    }
+    
+    private static String etagDeTopico(long version) {
+        return "\"" + version + "\"";
+    }
+    
+    // If-Match usa comparación fuerte: solo se acepta "*" o la ETag de detalle del tópico
+    private static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<ETag> etags = ETag.parse(ifMatch);
+        if (etags.size() == 1 && etags.get(0).isWildcard()) {
+            return null;
+        }
+        if (etags.size() == 1 && !etags.get(0).weak() && etags.get(0).tag().matches("\\d{1,18}")) {
+            return Long.valueOf(etags.get(0).tag());
+        }
+        throw new PrecondicionFallidaException("If-Match debe contener la ETag de detalle del tópico");
+    }
 }
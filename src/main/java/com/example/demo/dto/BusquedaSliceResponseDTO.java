@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public record BusquedaSliceResponseDTO(
+        List<ResultadoBusquedaDTO> content,
+        String siguienteCursor,
+        boolean haySiguiente
+) {}
@@ -0,0 +1,52 @@
+package com.example.demo.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Campos de TopicoResponseDTO que se pueden pedir con el parámetro fields de los listados.
+ * Sin fields la respuesta lleva todos; los listados suelen omitir mensaje, el campo más largo.
+ */
+public enum CampoTopico {
+    ID("id"),
+    TITULO("titulo"),
+    MENSAJE("mensaje"),
+    FECHA_CREACION("fechaCreacion"),
+    STATUS("status"),
+    AUTOR_NOMBRE("autorNombre"),
+    CURSO_NOMBRE("cursoNombre"),
+    RESPUESTAS_COUNT("respuestasCount"),
+    ULTIMA_RESPUESTA("ultimaRespuesta"),
+    VERSION("version");
+    
+    private final String nombre;
+    
+    CampoTopico(String nombre) {
+        this.nombre = nombre;
+    }
+    
+    public String getNombre() {
+        return nombre;
+    }
+    
+    // Lista separada por comas con los nombres del JSON, p. ej. "id,titulo,fechaCreacion"
+    public static Set<CampoTopico> parsear(String campos) {
+        if (campos == null || campos.isBlank()) {
+            return EnumSet.allOf(CampoTopico.class);
+        }
+        Set<CampoTopico> seleccionados = EnumSet.noneOf(CampoTopico.class);
+        for (String nombre : campos.split(",")) {
+            seleccionados.add(porNombre(nombre.trim()));
+        }
+        return seleccionados;
+    }
+    
+    private static CampoTopico porNombre(String nombre) {
+        for (CampoTopico campo : values()) {
+            if (campo.nombre.equals(nombre)) {
+                return campo;
+            }
+        }
+        throw new IllegalArgumentException("Campo desconocido en fields: " + nombre);
+    }
+}
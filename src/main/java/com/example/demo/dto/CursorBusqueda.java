@@ -0,0 +1,40 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición dentro de los resultados de una búsqueda, ordenados por puntaje descendente y luego por id.
+ * Viaja al cliente como un token opaco en Base64 URL-safe, igual que CursorTopico.
+ */
+public record CursorBusqueda(float puntaje, long id) {
+    
+    // Posición anterior a cualquier resultado: ningún puntaje llega a infinito
+    public static final CursorBusqueda INICIO = new CursorBusqueda(Float.POSITIVE_INFINITY, 0L);
+    
+    private static final String SEPARADOR = "|";
+    
+    public static CursorBusqueda decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorBusqueda(
+                    Float.parseFloat(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+    
+    public String codificar() {
+        // Float.toString conserva el valor exacto al volver a leerlo
+        String valor = puntaje + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición dentro del listado de tópicos, o de las respuestas de un tópico, ordenado por (fechaCreacion, id).
+ * Viaja al cliente como un token opaco en Base64 URL-safe.
+ */
+public record CursorTopico(LocalDateTime fechaCreacion, Long id) {
+    
+    // Posición anterior a cualquier tópico (DATETIME de MySQL empieza en el año 1000)
+    public static final CursorTopico INICIO = new CursorTopico(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+    
+    private static final String SEPARADOR = "|";
+    
+    public static CursorTopico desde(TopicoResponseDTO topico) {
+        return new CursorTopico(topico.fechaCreacion(), topico.id());
+    }
+    
+    public static CursorTopico desde(RespuestaResponseDTO respuesta) {
+        return new CursorTopico(respuesta.fechaCreacion(), respuesta.id());
+    }
+    
+    public static CursorTopico decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorTopico(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+    
+    public String codificar() {
+        String valor = fechaCreacion + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+// Tópicos de un curso creados en un año, en total y por estado
+public record EstadisticaTopicosDTO(
+        String curso,
+        int anio,
+        long total,
+        long abiertos,
+        long cerrados,
+        long enRevision
+) {}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.StatusTopico;
+
+import java.time.LocalDateTime;
+
+// Lo que determina la fila de un tópico en las estadísticas: curso, fecha de creación (año) y estado
+public record EstadoTopicoDTO(
+        Long cursoId,
+        LocalDateTime fechaCreacion,
+        StatusTopico status
+) {}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.TipoEventoTopico;
+
+import java.time.LocalDateTime;
+
+// Cambio de un tópico publicado por la bandeja de salida. El id crece en orden de escritura y sirve
+// para descartar duplicados (la entrega es al menos una vez); topico es null en las eliminaciones
+public record EventoTopicoDTO(
+        Long id,
+        TipoEventoTopico tipo,
+        Long topicoId,
+        LocalDateTime fecha,
+        TopicoEventoDTO topico
+) {}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+/**
+ * Formatos de salida de la exportación de tópicos (GET /topicos/export).
+ */
+public enum FormatoExportacion {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv;charset=UTF-8", "csv");
+    
+    private final String tipoContenido;
+    private final String extension;
+    
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+    
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Listas cortas de tópicos que se sirven desde memoria (ListasTopicos). El orden es el mismo que el
+ * de su consulta, con NULL primero en orden ascendente como en MySQL, para que aplicar un cambio en
+ * memoria y volver a consultar den la misma lista.
+ */
+public enum ListaTopicos {
+    // Los más antiguos (GET /topicos/primeros10)
+    PRIMEROS(porFechaDeCreacion()),
+    // Los más nuevos (GET /topicos/recientes)
+    RECIENTES(porFechaDeCreacion().reversed()),
+    // Los de respuesta más reciente; solo los que tienen respuestas (GET /topicos/activos)
+    ACTIVOS(Comparator.comparing(TopicoResponseDTO::ultimaRespuesta).thenComparing(TopicoResponseDTO::id).reversed());
+    
+    private final Comparator<TopicoResponseDTO> orden;
+    
+    ListaTopicos(Comparator<TopicoResponseDTO> orden) {
+        this.orden = orden;
+    }
+    
+    public Comparator<TopicoResponseDTO> getOrden() {
+        return orden;
+    }
+    
+    public boolean incluye(TopicoResponseDTO topico) {
+        return this != ACTIVOS || topico.ultimaRespuesta() != null;
+    }
+    
+    private static Comparator<TopicoResponseDTO> porFechaDeCreacion() {
+        return Comparator.comparing(TopicoResponseDTO::fechaCreacion, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(TopicoResponseDTO::id);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+/**
+ * Forma de comparar el nombre del curso al filtrar tópicos.
+ * EXACTO y PREFIJO pueden resolverse con el índice sobre Curso.nombre.
+ */
+public enum ModoBusquedaCurso {
+    CONTIENE,
+    EXACTO,
+    PREFIJO
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Tópicos eliminados que la purga todavía no borró; masAntiguo es null si no queda ninguno
+public record PendientesPurgaDTO(
+        long topicos,
+        LocalDateTime masAntiguo
+) {}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record RespuestaRequestDTO(
+        @NotBlank(message = "El mensaje es obligatorio")
+        String mensaje,
+        
+        @NotNull(message = "El ID del autor es obligatorio")
+        Long autorId
+) {}
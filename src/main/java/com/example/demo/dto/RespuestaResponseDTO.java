@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public record RespuestaResponseDTO(
+        Long id,
+        String mensaje,
+        LocalDateTime fechaCreacion,
+        Boolean solucion,
+        String autorNombre,
+        Long topicoId
+) {}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// tituloResaltado y fragmento vienen escapados como HTML, con los términos encontrados entre <mark> y </mark>
+public record ResultadoBusquedaDTO(
+        Long id,
+        String titulo,
+        LocalDateTime fechaCreacion,
+        float puntaje,
+        String tituloResaltado,
+        String fragmento
+) {}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+// Resultado de un elemento de POST /topicos/batch; indice es la posición en la lista enviada
+public record ResultadoItemLoteDTO(
+        int indice,
+        EstadoItemLote estado,
+        Long id,
+        String error
+) {
+    public enum EstadoItemLote {
+        CREADO,
+        RECHAZADO
+    }
+    
+    public static ResultadoItemLoteDTO creado(int indice, Long id) {
+        return new ResultadoItemLoteDTO(indice, EstadoItemLote.CREADO, id, null);
+    }
+    
+    public static ResultadoItemLoteDTO rechazado(int indice, String error) {
+        return new ResultadoItemLoteDTO(indice, EstadoItemLote.RECHAZADO, null, error);
+    }
+}
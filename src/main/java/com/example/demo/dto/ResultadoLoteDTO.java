@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public record ResultadoLoteDTO(
+        int total,
+        int creados,
+        int rechazados,
+        List<ResultadoItemLoteDTO> resultados
+) {}
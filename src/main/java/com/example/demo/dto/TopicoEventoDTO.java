@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.StatusTopico;
+
+import java.time.LocalDateTime;
+
+// Estado de un tópico después del cambio, tal como viaja en un evento. Lleva los IDs de autor y curso
+// en lugar de sus nombres: así se arma sin consultas extra, también para los lotes
+public record TopicoEventoDTO(
+        String titulo,
+        String mensaje,
+        StatusTopico status,
+        Long autorId,
+        Long cursoId,
+        LocalDateTime fechaCreacion,
+        Long version
+) {}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Campos de un tópico que se indexan para la búsqueda de texto completo
+public record TopicoIndiceDTO(
+        Long id,
+        String titulo,
+        String mensaje,
+        LocalDateTime fechaCreacion
+) {}
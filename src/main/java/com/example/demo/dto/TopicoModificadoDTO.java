@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Tópico insertado o actualizado, con la fecha que puso la base; sirve al índice de búsqueda para sincronizarse
+public record TopicoModificadoDTO(
+        Long id,
+        LocalDateTime fechaModificacion
+) {}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// Página de GET /topicos: los tópicos, el total y el número de la página siguiente (null en la última)
+public record TopicoPaginaResponseDTO(
+        List<TopicoResponseDTO> content,
+        long totalElements,
+        Integer siguientePagina
+) {}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Pattern;
+
+// Actualización parcial (PATCH): los campos nulos no se modifican
+public record TopicoParcialDTO(
+        @Pattern(regexp = "(?s).*\\S.*", message = "El título no puede estar vacío")
+        String titulo,
+        
+        @Pattern(regexp = "(?s).*\\S.*", message = "El mensaje no puede estar vacío")
+        String mensaje,
+        
+        Long autorId,
+        
+        Long cursoId
+) {}
@@ -10,5 +10,8 @@ public record TopicoResponseDTO(
         LocalDateTime fechaCreacion,
         StatusTopico status,
         String autorNombre,
-        String cursoNombre
+        String cursoNombre,
+        int respuestasCount,
+        LocalDateTime ultimaRespuesta,
+        Long version
 ) {}
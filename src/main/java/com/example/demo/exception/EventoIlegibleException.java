@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+// La carga de un evento de la bandeja de salida no se puede leer; el relay lo descarta para no bloquearse
+public class EventoIlegibleException extends RuntimeException {
+    
+    private final Long eventoId;
+    
+    public EventoIlegibleException(Long eventoId, String mensaje, Throwable causa) {
+        super(mensaje, causa);
+        this.eventoId = eventoId;
+    }
+    
+    public Long getEventoId() {
+        return eventoId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.exception;
+
+// La versión enviada por el cliente (If-Match) ya no es la actual del recurso
+public class PrecondicionFallidaException extends RuntimeException {
+    
+    public PrecondicionFallidaException(String mensaje) {
+        super(mensaje);
+    }
+}
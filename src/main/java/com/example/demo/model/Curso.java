@@ -4,14 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "Curso")
+@Table(name = "Curso", indexes = @Index(name = "idx_curso_nombre", columnList = "nombre"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Curso.REGION_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Curso {
     
+    public static final String REGION_CACHE = "curso";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Cantidad de tópicos de un curso creados en un año y con un estado. Solo la modifican las consultas
+// nativas de EstadisticaTopicosRepository (suma atómica y reconciliación)
+@Entity
+@Table(name = "estadistica_topicos")
+@IdClass(EstadisticaTopicos.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaTopicos {
+    
+    @Id
+    private Long cursoId;
+    
+    @Id
+    private Integer anio;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "ENUM('ABIERTO', 'CERRADO', 'EN_REVISION')")
+    private StatusTopico status;
+    
+    @Column(nullable = false)
+    private Long total;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        
+        private Long cursoId;
+        
+        private Integer anio;
+        
+        private StatusTopico status;
+    }
+}
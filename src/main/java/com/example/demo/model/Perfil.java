@@ -4,14 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "Perfil")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Perfil.REGION_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Perfil {
     
+    public static final String REGION_CACHE = "perfil";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
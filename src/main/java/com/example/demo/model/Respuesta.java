@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Respuesta")
+@Table(name = "Respuesta", indexes = @Index(name = "idx_respuesta_topico_fecha", columnList = "topico_id, fechaCreacion, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,8 +20,8 @@ public class Respuesta {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String mensaje;
     
-    @Column(name = "fechaCreacion")
-    private LocalDateTime fechaCreacion = LocalDateTime.now();
+    @Column(name = "fechaCreacion", nullable = false)
+    private LocalDateTime fechaCreacion;
     
     @Column(columnDefinition = "BOOLEAN DEFAULT FALSE")
     private Boolean solucion = false;
@@ -36,6 +36,9 @@ public class Respuesta {
     
     @PrePersist
     protected void onCreate() {
-        fechaCreacion = LocalDateTime.now();
+        // RespuestaService la fija antes de guardar para que coincida con Topico.ultimaRespuesta
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
     }
 }
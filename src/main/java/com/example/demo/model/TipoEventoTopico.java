@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+public enum TipoEventoTopico {
+    CREADO,
+    ACTUALIZADO,
+    ELIMINADO
+}
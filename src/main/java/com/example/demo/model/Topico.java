@@ -4,15 +4,35 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 @Entity
-@Table(name = "Topico")
+@Table(name = "Topico", indexes = {
+        @Index(name = "idx_topico_curso_fecha", columnList = "curso_id, fechaCreacion, id"),
+        @Index(name = "idx_topico_fecha", columnList = "fechaCreacion, id"),
+        @Index(name = "idx_topico_ultima_respuesta", columnList = "ultimaRespuesta, id"),
+        @Index(name = "idx_topico_fecha_eliminacion", columnList = "fechaEliminacion, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_topico_huella", columnNames = "huella"))
+// El UPDATE lleva solo las columnas que cambiaron: cambiar el curso no reescribe el mensaje (TEXT)
+@DynamicUpdate
+// Los tópicos eliminados siguen en la tabla hasta la purga; ninguna consulta de Topico los ve
+@SQLRestriction("fecha_eliminacion IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Topico {
     
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,13 +43,33 @@ public class Topico {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String mensaje;
     
-    @Column(name = "fechaCreacion")
+    // SHA-256 (hex) del título y mensaje normalizados; detecta duplicados por índice único
+    @Column(length = 64)
+    private String huella;
+    
+    @Column(name = "fechaCreacion", nullable = false)
     private LocalDateTime fechaCreacion = LocalDateTime.now();
     
     @Enumerated(EnumType.STRING)
     @Column(columnDefinition = "ENUM('ABIERTO', 'CERRADO', 'EN_REVISION') DEFAULT 'ABIERTO'")
     private StatusTopico status = StatusTopico.ABIERTO;
     
+    // Contadores desnormalizados de respuestas. Solo los modifican los UPDATE atómicos de TopicoRepository,
+    // así guardar la entidad nunca pisa un incremento hecho por otra transacción
+    @Column(insertable = false, updatable = false)
+    private int respuestasCount;
+    
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime ultimaRespuesta;
+    
+    // Bloqueo optimista y ETag del tópico. Los UPDATE atómicos de TopicoRepository también la incrementan
+    @Version
+    private Long version;
+    
+    // Eliminación lógica: la marca TopicoRepository.marcarEliminado y PurgaTopicosEliminados borra la fila después
+    @Column(name = "fechaEliminacion")
+    private LocalDateTime fechaEliminacion;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "autor_id", nullable = false)
     private Usuario autor;
@@ -41,5 +81,26 @@ public class Topico {
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
+        huella = calcularHuella(titulo, mensaje);
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        huella = calcularHuella(titulo, mensaje);
+    }
+    
+    // Normaliza espacios y mayúsculas para que variaciones triviales cuenten como el mismo contenido
+    public static String calcularHuella(String titulo, String mensaje) {
+        String contenido = normalizar(titulo) + '\u0000' + normalizar(mensaje);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contenido.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    private static String normalizar(String texto) {
+        return ESPACIOS.matcher(texto.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
 }
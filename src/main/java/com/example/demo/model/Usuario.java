@@ -1,9 +1,12 @@
 package com.example.demo.model;
 
+import com.example.demo.config.InvalidacionCachePrincipalesListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,11 +16,15 @@ import java.util.List;
 
 @Entity
 @Table(name = "Usuario")
+@EntityListeners(InvalidacionCachePrincipalesListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Usuario.REGION_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Usuario implements UserDetails {
     
+    public static final String REGION_CACHE = "usuario";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Contador de cambios de una colección completa, repartido en PARTICIONES filas; la ETag de los listados
+// se deriva de la suma. Solo lo modifica el UPDATE atómico de VersionColeccionRepository
+@Entity
+@Table(name = "version_coleccion")
+@IdClass(VersionColeccion.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionColeccion {
+    
+    public static final String TOPICOS = "topicos";
+    
+    // Filas por colección creadas por V12
+    public static final int PARTICIONES = 32;
+    
+    @Id
+    @Column(length = 50)
+    private String nombre;
+    
+    @Id
+    private Integer particion;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        
+        private String nombre;
+        
+        private Integer particion;
+    }
+}
@@ -1,9 +1,34 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Curso;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CursoRepository extends JpaRepository<Curso, Long> {
+    
+    // Resolución de nombres de curso a IDs, para filtrar tópicos por curso_id indexado
+    
+    @Query("SELECT c.id FROM Curso c WHERE c.nombre = :nombre")
+    List<Long> buscarIdsPorNombre(@Param("nombre") String nombre);
+    
+    @Query("SELECT c.id FROM Curso c WHERE c.nombre LIKE :prefijo%")
+    List<Long> buscarIdsPorNombreQueEmpiezaCon(@Param("prefijo") String prefijo);
+    
+    @Query("SELECT c.id FROM Curso c WHERE c.nombre LIKE %:nombre%")
+    List<Long> buscarIdsPorNombreQueContiene(@Param("nombre") String nombre);
+    
+    // Cuáles de los IDs dados existen, en una sola consulta (validación de lotes)
+    @Query("SELECT c.id FROM Curso c WHERE c.id IN :ids")
+    List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
+    
+    // Recorrido por lotes de ID (keyset), p. ej. para reconciliar las estadísticas
+    @Query("SELECT c.id FROM Curso c WHERE c.id > :id ORDER BY c.id")
+    List<Long> listarIdsDespuesDe(@Param("id") Long id, Limit limit);
 }
@@ -0,0 +1,60 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.EstadisticaTopicosDTO;
+import com.example.demo.model.EstadisticaTopicos;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface EstadisticaTopicosRepository extends JpaRepository<EstadisticaTopicos, EstadisticaTopicos.Clave> {
+    
+    // Una fila por curso y año, con el total y el desglose por estado. Lee tantas filas como combinaciones
+    // de curso, año y estado haya, sin importar cuántos tópicos existan
+    String PROYECCION_DTO = "SELECT new com.example.demo.dto.EstadisticaTopicosDTO(c.nombre, e.anio, SUM(e.total), "
+            + "SUM(CASE WHEN e.status = com.example.demo.model.StatusTopico.ABIERTO THEN e.total ELSE 0L END), "
+            + "SUM(CASE WHEN e.status = com.example.demo.model.StatusTopico.CERRADO THEN e.total ELSE 0L END), "
+            + "SUM(CASE WHEN e.status = com.example.demo.model.StatusTopico.EN_REVISION THEN e.total ELSE 0L END)) "
+            + "FROM EstadisticaTopicos e JOIN Curso c ON c.id = e.cursoId ";
+    
+    String AGRUPADO = "GROUP BY c.id, c.nombre, e.anio HAVING SUM(e.total) > 0 ORDER BY c.nombre, c.id, e.anio";
+    
+    // Las consultas nativas declaran la tabla que modifican: sin esa declaración Hibernate descartaría
+    // todo el caché de segundo nivel (cursos, usuarios, consultas) en cada escritura de tópicos
+    String TABLA = "estadistica_topicos";
+    
+    @Query(PROYECCION_DTO + AGRUPADO)
+    List<EstadisticaTopicosDTO> listar();
+    
+    @Query(PROYECCION_DTO + "WHERE e.cursoId IN :cursoIds " + AGRUPADO)
+    List<EstadisticaTopicosDTO> listarPorCursos(@Param("cursoIds") Collection<Long> cursoIds);
+    
+    @Query(PROYECCION_DTO + "WHERE e.anio = :anio " + AGRUPADO)
+    List<EstadisticaTopicosDTO> listarPorAnio(@Param("anio") int anio);
+    
+    @Query(PROYECCION_DTO + "WHERE e.cursoId IN :cursoIds AND e.anio = :anio " + AGRUPADO)
+    List<EstadisticaTopicosDTO> listarPorCursosYAnio(@Param("cursoIds") Collection<Long> cursoIds, @Param("anio") int anio);
+    
+    // Suma atómica (cantidad negativa para restar); crea la fila si no existe. Bloquea la fila hasta el commit
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = TABLA))
+    @Query(value = "INSERT INTO estadistica_topicos (curso_id, anio, status, total) VALUES (:cursoId, :anio, :status, :cantidad) "
+            + "ON DUPLICATE KEY UPDATE total = total + :cantidad", nativeQuery = true)
+    int sumar(@Param("cursoId") Long cursoId, @Param("anio") int anio, @Param("status") String status,
+              @Param("cantidad") long cantidad);
+    
+    // Reconciliación: borra las filas de los cursos con ID en (desde, hasta] antes de volver a insertarlas
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = TABLA))
+    @Query(value = "DELETE FROM estadistica_topicos WHERE curso_id > :desde AND curso_id <= :hasta", nativeQuery = true)
+    int eliminarEntreCursos(@Param("desde") long desde, @Param("hasta") long hasta);
+}
@@ -0,0 +1,174 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.EventoTopicoDTO;
+import com.example.demo.dto.TopicoEventoDTO;
+import com.example.demo.exception.EventoIlegibleException;
+import com.example.demo.model.TipoEventoTopico;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bandeja de salida de eventos de tópicos, con JDBC.
+ * El INSERT va en la transacción de la escritura del tópico y cuesta una sentencia (un batch en los lotes)
+ * sin importar cuántos destinos haya; el relay lee los pendientes de cada destino en orden de id, anota lo
+ * que cada uno recibió y borra lo que ya recibieron todos. Anotar cada entrega en lugar de avanzar solo un
+ * cursor evita perder eventos: con varias transacciones concurrentes un id menor puede confirmarse después
+ * que uno mayor ya publicado. Las entregas contiguas se resumen en una marca por destino, que avanza solo
+ * sobre eventos anteriores al corte que indica el relay, cuando ya no puede aparecer un id menor.
+ */
+@Repository
+public class EventoTopicoRepository {
+    
+    private static final String INSERTAR = "INSERT INTO evento_topico (topico_id, tipo, carga, fecha_creacion) VALUES (?, ?, ?, ?)";
+    
+    private static final String INSERTAR_ENTREGA = "INSERT INTO evento_topico_entrega (evento_id, destino) VALUES (?, ?)";
+    
+    // Idempotente: si el relay se detuvo entre la copia y el borrado, la copia no se repite
+    private static final String COPIAR_DESCARTADO = "INSERT INTO evento_topico_descartado "
+            + "(id, topico_id, tipo, carga, fecha_creacion, motivo, fecha_descarte) "
+            + "SELECT id, topico_id, tipo, carga, fecha_creacion, ?, ? FROM evento_topico t WHERE id = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM evento_topico_descartado d WHERE d.id = t.id)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final RowMapper<EventoTopicoDTO> fila = (rs, numero) -> {
+        long id = rs.getLong("id");
+        String carga = rs.getString("carga");
+        return new EventoTopicoDTO(
+                id,
+                TipoEventoTopico.valueOf(rs.getString("tipo")),
+                rs.getLong("topico_id"),
+                rs.getTimestamp("fecha_creacion").toLocalDateTime(),
+                carga != null ? leer(id, carga) : null);
+    };
+    
+    // Los eventos llegan sin id; la base los numera en el orden recibido
+    public void insertar(List<EventoTopicoDTO> eventos) {
+        jdbcTemplate.batchUpdate(INSERTAR, eventos, eventos.size(), (ps, evento) -> {
+            ps.setLong(1, evento.topicoId());
+            ps.setString(2, evento.tipo().name());
+            ps.setString(3, evento.topico() != null ? escribir(evento.topico()) : null);
+            ps.setTimestamp(4, Timestamp.valueOf(evento.fecha()));
+        });
+    }
+    
+    // Marca de cada destino; un destino nuevo empieza en 0 y recibe toda la bandeja
+    public Map<String, Long> marcas(Collection<String> destinos) {
+        Map<String, Long> marcas = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT destino, hasta_id FROM evento_topico_marca WHERE destino IN (:destinos)",
+                Map.of("destinos", destinos), rs -> {
+                    marcas.put(rs.getString("destino"), rs.getLong("hasta_id"));
+                });
+        for (String destino : destinos) {
+            if (!marcas.containsKey(destino)) {
+                jdbcTemplate.update("INSERT INTO evento_topico_marca (destino, hasta_id) VALUES (?, 0)", destino);
+                marcas.put(destino, 0L);
+            }
+        }
+        return marcas;
+    }
+    
+    // Los que el destino todavía no recibió después del id dado (su marca o el último publicado en la pasada);
+    // una carga ilegible corta la lectura con EventoIlegibleException
+    public List<EventoTopicoDTO> listarPendientes(String destino, long despuesDe, int limite) {
+        return jdbcTemplate.query("SELECT t.id, t.topico_id, t.tipo, t.carga, t.fecha_creacion FROM evento_topico t "
+                + "WHERE t.id > ? AND NOT EXISTS (SELECT 1 FROM evento_topico_entrega e WHERE e.evento_id = t.id AND e.destino = ?) "
+                + "ORDER BY t.id LIMIT ?", fila, despuesDe, destino, limite);
+    }
+    
+    public void registrarEntrega(String destino, Collection<Long> ids) {
+        jdbcTemplate.batchUpdate(INSERTAR_ENTREGA, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setString(2, destino);
+        });
+    }
+    
+    // Lleva la marca hasta antes del primer evento que el destino no recibió o que se creó desde el corte, y
+    // borra las entregas que la marca pasa a cubrir. Sin eventos así, hasta el último de la bandeja
+    public void avanzarMarca(String destino, long marca, LocalDateTime corte) {
+        List<Long> siguiente = jdbcTemplate.queryForList("SELECT t.id FROM evento_topico t WHERE t.id > ? AND (t.fecha_creacion >= ? "
+                        + "OR NOT EXISTS (SELECT 1 FROM evento_topico_entrega e WHERE e.evento_id = t.id AND e.destino = ?)) ORDER BY t.id LIMIT 1",
+                Long.class, marca, Timestamp.valueOf(corte), destino);
+        Long hasta = siguiente.isEmpty()
+                ? jdbcTemplate.queryForObject("SELECT MAX(id) FROM evento_topico", Long.class)
+                : siguiente.get(0) - 1;
+        if (hasta == null || hasta <= marca) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE evento_topico_marca SET hasta_id = ? WHERE destino = ?", hasta, destino);
+        jdbcTemplate.update("DELETE FROM evento_topico_entrega WHERE destino = ? AND evento_id <= ?", destino, hasta);
+    }
+    
+    // Borra hasta el límite los eventos que recibieron todos los destinos dados, con sus entregas; las
+    // entregas a destinos que ya no existen no cuentan. Hasta la menor marca los recibieron todos; por encima
+    // solo son candidatos los que anotó el destino de esa marca, el más atrasado
+    public int eliminarEntregados(Collection<String> destinos, int limite) {
+        Map<String, Long> marcas = marcas(destinos);
+        Map.Entry<String, Long> menor = marcas.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList("SELECT id FROM evento_topico WHERE id <= ? ORDER BY id LIMIT ?",
+                Long.class, menor.getValue(), limite));
+        if (ids.size() < limite) {
+            ids.addAll(namedParameterJdbcTemplate.queryForList("SELECT e.evento_id FROM evento_topico_entrega e "
+                            + "WHERE e.destino = :menor AND e.evento_id > :marca AND NOT EXISTS (SELECT 1 FROM evento_topico_marca m "
+                            + "WHERE m.destino IN (:destinos) AND m.hasta_id < e.evento_id AND NOT EXISTS (SELECT 1 FROM evento_topico_entrega o "
+                            + "WHERE o.evento_id = e.evento_id AND o.destino = m.destino)) ORDER BY e.evento_id LIMIT :limite",
+                    Map.of("menor", menor.getKey(), "marca", menor.getValue(), "destinos", destinos, "limite", limite - ids.size()),
+                    Long.class));
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        namedParameterJdbcTemplate.update("DELETE FROM evento_topico_entrega WHERE evento_id IN (:ids)", Map.of("ids", ids));
+        return namedParameterJdbcTemplate.update("DELETE FROM evento_topico WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+    
+    // Mueve el evento a evento_topico_descartado con el motivo y lo quita de la bandeja
+    public void descartar(Long id, String motivo) {
+        jdbcTemplate.update(COPIAR_DESCARTADO, motivo.length() > 500 ? motivo.substring(0, 500) : motivo,
+                Timestamp.valueOf(LocalDateTime.now()), id);
+        jdbcTemplate.update("DELETE FROM evento_topico_entrega WHERE evento_id = ?", id);
+        jdbcTemplate.update("DELETE FROM evento_topico WHERE id = ?", id);
+    }
+    
+    // Fecha del evento más antiguo que falta entregar a algún destino; null si la bandeja está vacía
+    public LocalDateTime fechaPendienteMasAntiguo() {
+        List<Timestamp> fechas = jdbcTemplate.queryForList("SELECT fecha_creacion FROM evento_topico ORDER BY id LIMIT 1", Timestamp.class);
+        return fechas.isEmpty() ? null : fechas.get(0).toLocalDateTime();
+    }
+    
+    private String escribir(TopicoEventoDTO topico) {
+        try {
+            return objectMapper.writeValueAsString(topico);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del tópico", e);
+        }
+    }
+    
+    private TopicoEventoDTO leer(long id, String carga) {
+        try {
+            return objectMapper.readValue(carga, TopicoEventoDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new EventoIlegibleException(id, "Evento de tópico ilegible: " + carga, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TopicoIndiceDTO;
+import com.example.demo.dto.TopicoModificadoDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecturas del índice de búsqueda, con JDBC. Las hace el hilo indexador fuera de cualquier petición: cada
+ * consulta toma una conexión del primario solo mientras dura, sin transacción ni contexto de persistencia.
+ * Los tópicos eliminados no se devuelven, igual que en las consultas de Topico (@SQLRestriction), salvo en
+ * los modificados: una eliminación lógica también es un cambio que el índice tiene que recoger.
+ */
+@Repository
+public class IndiceTopicosRepository {
+    
+    private static final String SELECCION = "SELECT id, titulo, mensaje, fecha_creacion FROM topico WHERE fecha_eliminacion IS NULL ";
+    
+    private static final RowMapper<TopicoIndiceDTO> FILA = (rs, fila) -> {
+        Timestamp fechaCreacion = rs.getTimestamp("fecha_creacion");
+        return new TopicoIndiceDTO(rs.getLong("id"), rs.getString("titulo"), rs.getString("mensaje"),
+                fechaCreacion != null ? fechaCreacion.toLocalDateTime() : null);
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    public List<TopicoIndiceDTO> buscar(Collection<Long> ids) {
+        return namedParameterJdbcTemplate.query(SELECCION + "AND id IN (:ids)", Map.of("ids", ids), FILA);
+    }
+    
+    public List<TopicoIndiceDTO> listarDespuesDe(Long id, int limite) {
+        return jdbcTemplate.query(SELECCION + "AND id > ? ORDER BY id LIMIT ?", FILA, id, limite);
+    }
+    
+    // Siguientes a (fecha, id) en orden de (fecha_modificacion, id); la primera condición acota el rango del índice
+    public List<TopicoModificadoDTO> listarModificadosDespuesDe(LocalDateTime fecha, Long id, int limite) {
+        Timestamp desde = Timestamp.valueOf(fecha);
+        return jdbcTemplate.query("SELECT id, fecha_modificacion FROM topico "
+                        + "WHERE fecha_modificacion >= ? AND (fecha_modificacion > ? OR id > ?) "
+                        + "ORDER BY fecha_modificacion, id LIMIT ?",
+                (rs, fila) -> new TopicoModificadoDTO(rs.getLong("id"), rs.getTimestamp("fecha_modificacion").toLocalDateTime()),
+                desde, desde, id, limite);
+    }
+    
+    // null si la tabla está vacía
+    public LocalDateTime ultimaModificacion() {
+        Timestamp ultima = jdbcTemplate.queryForObject("SELECT MAX(fecha_modificacion) FROM topico", Timestamp.class);
+        return ultima != null ? ultima.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.PendientesPurgaDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Borrado físico de los tópicos eliminados y sus respuestas, con JDBC. Las consultas de Topico no ven los
+ * eliminados (@SQLRestriction), por eso la purga no pasa por TopicoRepository. Cada sentencia se confirma
+ * sola y toca a lo sumo el límite pedido: ningún bloqueo dura más que un lote.
+ */
+@Repository
+public class PurgaTopicosRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    // Los eliminados hace más tiempo primero, recorriendo idx_topico_fecha_eliminacion
+    public List<Long> listarEliminados(int limite) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM topico WHERE fecha_eliminacion IS NOT NULL ORDER BY fecha_eliminacion, id LIMIT ?",
+                Long.class, limite);
+    }
+    
+    public PendientesPurgaDTO contarPendientes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), MIN(fecha_eliminacion) FROM topico WHERE fecha_eliminacion IS NOT NULL",
+                (rs, fila) -> {
+                    Timestamp masAntiguo = rs.getTimestamp(2);
+                    return new PendientesPurgaDTO(rs.getLong(1), masAntiguo != null ? masAntiguo.toLocalDateTime() : null);
+                });
+    }
+    
+    // MySQL no admite LIMIT en un DELETE con IN (subconsulta): se leen los IDs del lote y se borran por clave
+    public int eliminarRespuestas(Collection<Long> topicoIds, int limite) {
+        List<Long> ids = namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM respuesta WHERE topico_id IN (:topicoIds) LIMIT :limite",
+                Map.of("topicoIds", topicoIds, "limite", limite), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update("DELETE FROM respuesta WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+    
+    // Solo tópicos eliminados: un ID que no lo esté no se borra aunque llegue en la lista
+    public int eliminarTopicos(Collection<Long> ids) {
+        return namedParameterJdbcTemplate.update("DELETE FROM topico WHERE id IN (:ids) AND fecha_eliminacion IS NOT NULL",
+                Map.of("ids", ids));
+    }
+}
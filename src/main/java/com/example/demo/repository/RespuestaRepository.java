@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.RespuestaResponseDTO;
+import com.example.demo.model.Respuesta;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RespuestaRepository extends JpaRepository<Respuesta, Long> {
+    
+    // Proyección de lectura con el nombre del autor en la misma consulta
+    String PROYECCION_DTO = "SELECT new com.example.demo.dto.RespuestaResponseDTO("
+            + "r.id, r.mensaje, r.fechaCreacion, r.solucion, a.nombre, r.topico.id) "
+            + "FROM Respuesta r JOIN r.autor a ";
+    
+    // Respuestas de un tópico por cursor (keyset) sobre (fechaCreacion, id), usando idx_respuesta_topico_fecha.
+    // Las de un tópico eliminado no se listan aunque sigan en la tabla hasta la purga
+    @Query(PROYECCION_DTO + "JOIN r.topico t WHERE r.topico.id = :topicoId AND t.fechaEliminacion IS NULL "
+            + "AND (r.fechaCreacion > :fecha OR (r.fechaCreacion = :fecha AND r.id > :id)) "
+            + "ORDER BY r.fechaCreacion ASC, r.id ASC")
+    List<RespuestaResponseDTO> listarPorTopicoDespuesDe(@Param("topicoId") Long topicoId, @Param("fecha") LocalDateTime fecha,
+                                                        @Param("id") Long id, Limit limit);
+    
+    // Al marcar una solución se desmarca la anterior: a lo sumo una respuesta es solución por tópico
+    @Modifying
+    @Query("UPDATE Respuesta r SET r.solucion = false WHERE r.topico.id = :topicoId AND r.solucion = true AND r.id <> :id")
+    int desmarcarOtrasSoluciones(@Param("topicoId") Long topicoId, @Param("id") Long id);
+}
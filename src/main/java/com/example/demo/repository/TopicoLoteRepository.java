@@ -0,0 +1,88 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.StatusTopico;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserción de tópicos en lote con JDBC.
+ * Topico usa IDENTITY, y con esa estrategia Hibernate no agrupa los INSERT (necesita el ID de cada fila
+ * al persistirla); aquí se envían todos en un solo batch y con rewriteBatchedStatements=true el driver
+ * de MySQL los reescribe como INSERT de varias filas. Las validaciones deben hacerse antes de llamar.
+ * Como Hibernate no ve estos INSERT, el caché de consultas se descarta explícitamente al confirmar.
+ */
+@Repository
+public class TopicoLoteRepository {
+    
+    private static final String INSERTAR = "INSERT INTO topico (titulo, mensaje, huella, fecha_creacion, status, autor_id, curso_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    // Devuelve los IDs generados en el mismo orden que las filas recibidas
+    public List<Long> insertar(List<FilaTopico> filas, LocalDateTime fechaCreacion) {
+        Timestamp fecha = Timestamp.valueOf(fechaCreacion);
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(conexion -> conexion.prepareStatement(INSERTAR, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        FilaTopico fila = filas.get(i);
+                        ps.setString(1, fila.titulo());
+                        ps.setString(2, fila.mensaje());
+                        ps.setString(3, fila.huella());
+                        ps.setTimestamp(4, fecha);
+                        ps.setString(5, StatusTopico.ABIERTO.name());
+                        ps.setLong(6, fila.autorId());
+                        ps.setLong(7, fila.cursoId());
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return filas.size();
+                    }
+                }, claves);
+        invalidarConsultasCacheadas();
+        return claves.getKeyList().stream()
+                .map(Map::values)
+                .map(valores -> ((Number) valores.iterator().next()).longValue())
+                .toList();
+    }
+    
+    // Después del commit: antes, otra transacción podría volver a cachear el listado sin las filas nuevas
+    private void invalidarConsultasCacheadas() {
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictQueryRegions();
+                }
+            });
+        } else {
+            cache.evictQueryRegions();
+        }
+    }
+    
+    public record FilaTopico(String titulo, String mensaje, String huella, Long autorId, Long cursoId) {}
+}
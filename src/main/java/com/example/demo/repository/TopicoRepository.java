@@ -1,37 +1,182 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EstadoTopicoDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.EstadisticaTopicos;
+import com.example.demo.model.StatusTopico;
 import com.example.demo.model.Topico;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TopicoRepository extends JpaRepository<Topico, Long> {
     
-    @Query("SELECT COUNT(t) > 0 FROM Topico t WHERE t.titulo = :titulo AND t.mensaje = :mensaje")
-    boolean existsByTituloAndMensaje(@Param("titulo") String titulo, @Param("mensaje") String mensaje);
+    // Proyección de lectura: construye el DTO en la misma consulta uniendo autor y curso,
+    // así los listados no cargan entidades ni disparan un SELECT LAZY por fila
+    String PROYECCION_DTO = "SELECT new com.example.demo.dto.TopicoResponseDTO("
+            + "t.id, t.titulo, t.mensaje, t.fechaCreacion, t.status, a.nombre, c.nombre, t.respuestasCount, t.ultimaRespuesta, t.version) "
+            + "FROM Topico t JOIN t.autor a JOIN t.curso c ";
+    
+    // Condición y orden para paginación por cursor (keyset) sobre (fechaCreacion, id)
+    String DESPUES_DEL_CURSOR = "(t.fechaCreacion > :fecha OR (t.fechaCreacion = :fecha AND t.id > :id)) ";
+    String ORDEN_CURSOR = "ORDER BY t.fechaCreacion ASC, t.id ASC";
+    
+    // Rango semiabierto sobre la columna, para que el filtro por año pueda usar los índices de fechaCreacion
+    String EN_RANGO_DE_FECHAS = "t.fechaCreacion >= :desde AND t.fechaCreacion < :hasta ";
+    
+    // Filas que pide el driver por viaje al recorrer una exportación (con useCursorFetch=true en MySQL)
+    String TAMANO_LOTE_EXPORTACION = "500";
+    
+    // Cuáles de las huellas dadas ya existen, en una sola consulta (validación de lotes)
+    @Query("SELECT t.huella FROM Topico t WHERE t.huella IN :huellas")
+    List<String> buscarHuellasExistentes(@Param("huellas") Collection<String> huellas);
+    
+    // Solo la versión, para responder 304 sin construir el DTO
+    @Query("SELECT t.version FROM Topico t WHERE t.id = :id")
+    Optional<Long> buscarVersion(@Param("id") Long id);
+    
+    // Contadores de respuestas: UPDATE atómicos sobre la fila del tópico (sin leer y reescribir la entidad).
+    // Incrementan la versión porque cambian el DTO del tópico. Devuelven 0 si el tópico no existe o está eliminado:
+    // @SQLRestriction de Topico también se aplica a los UPDATE y DELETE en JPQL
+    
+    @Modifying
+    @Query("UPDATE Topico t SET t.respuestasCount = t.respuestasCount + 1, t.version = t.version + 1, "
+            + "t.ultimaRespuesta = CASE WHEN t.ultimaRespuesta IS NULL OR t.ultimaRespuesta < :fecha THEN :fecha "
+            + "ELSE t.ultimaRespuesta END WHERE t.id = :id")
+    int registrarRespuesta(@Param("id") Long id, @Param("fecha") LocalDateTime fecha);
+    
+    // Se ejecuta después de borrar la respuesta, así MAX() ya no la incluye
+    @Modifying
+    @Query("UPDATE Topico t SET t.respuestasCount = t.respuestasCount - 1, t.version = t.version + 1, "
+            + "t.ultimaRespuesta = (SELECT MAX(r.fechaCreacion) FROM Respuesta r WHERE r.topico.id = :id) WHERE t.id = :id")
+    int descontarRespuesta(@Param("id") Long id);
+    
+    // Curso, fecha y estado con la fila bloqueada hasta el commit, para aplicar un cambio de estado
+    // a las estadísticas sin que otra transacción cambie el estado entre la lectura y el UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.demo.dto.EstadoTopicoDTO(t.curso.id, t.fechaCreacion, t.status) FROM Topico t WHERE t.id = :id")
+    Optional<EstadoTopicoDTO> bloquearEstado(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Topico t SET t.status = :status, t.version = t.version + 1 WHERE t.id = :id")
+    int actualizarStatus(@Param("id") Long id, @Param("status") StatusTopico status);
+    
+    // Eliminación lógica sin cargar la entidad: se lee el estado y el UPDATE exige que curso y estado sigan iguales,
+    // así las estadísticas descuentan la fila que se marcó. Devuelve 0 si el tópico ya no existe o cambió.
+    // La huella se libera para que el mismo contenido pueda publicarse de nuevo antes de la purga
+    
+    @Query("SELECT new com.example.demo.dto.EstadoTopicoDTO(t.curso.id, t.fechaCreacion, t.status) FROM Topico t WHERE t.id = :id")
+    Optional<EstadoTopicoDTO> buscarEstado(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Topico t SET t.fechaEliminacion = :fecha, t.huella = NULL, t.version = t.version + 1 "
+            + "WHERE t.id = :id AND t.curso.id = :cursoId AND t.status = :status AND t.fechaEliminacion IS NULL")
+    int marcarEliminado(@Param("id") Long id, @Param("cursoId") Long cursoId, @Param("status") StatusTopico status,
+                        @Param("fecha") LocalDateTime fecha);
+    
+    // Método para listar todos los tópicos con paginación
+    @Query(value = PROYECCION_DTO,
+            countQuery = "SELECT COUNT(t) FROM Topico t")
+    Page<TopicoResponseDTO> listarTopicos(Pageable pageable);
+    
+    // Listas que se sirven desde memoria (ListasTopicos): se consultan al construirlas y cuando una lista llena
+    // pierde un elemento. El orden es el de ListaTopicos
+    
+    @Query(PROYECCION_DTO + ORDEN_CURSOR)
+    List<TopicoResponseDTO> listarPrimeros(Limit limit);
+    
+    @Query(PROYECCION_DTO + "ORDER BY t.fechaCreacion DESC, t.id DESC")
+    List<TopicoResponseDTO> listarRecientes(Limit limit);
+    
+    @Query(PROYECCION_DTO + "WHERE t.ultimaRespuesta IS NOT NULL ORDER BY t.ultimaRespuesta DESC, t.id DESC")
+    List<TopicoResponseDTO> listarActivos(Limit limit);
+    
+    @Query(PROYECCION_DTO + "WHERE t.id IN :ids")
+    List<TopicoResponseDTO> buscarPorIds(@Param("ids") Collection<Long> ids);
+    
+    // Método para obtener el detalle de un tópico
+    @Query(PROYECCION_DTO + "WHERE t.id = :id")
+    Optional<TopicoResponseDTO> buscarPorId(@Param("id") Long id);
+    
+    // Método para buscar por cursos (IDs ya resueltos a partir del nombre)
+    @Query(value = PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds",
+            countQuery = "SELECT COUNT(t) FROM Topico t WHERE t.curso.id IN :cursoIds")
+    Page<TopicoResponseDTO> findByCursoIdIn(@Param("cursoIds") Collection<Long> cursoIds, Pageable pageable);
+    
+    // Método para buscar por rango de fecha de creación [desde, hasta), p. ej. un año completo
+    @Query(value = PROYECCION_DTO + "WHERE " + EN_RANGO_DE_FECHAS,
+            countQuery = "SELECT COUNT(t) FROM Topico t WHERE " + EN_RANGO_DE_FECHAS)
+    Page<TopicoResponseDTO> findByFechaCreacionEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                                                     Pageable pageable);
+    
+    // Método para buscar por cursos y rango de fecha de creación
+    @Query(value = PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds AND " + EN_RANGO_DE_FECHAS,
+            countQuery = "SELECT COUNT(t) FROM Topico t WHERE t.curso.id IN :cursoIds AND " + EN_RANGO_DE_FECHAS)
+    Page<TopicoResponseDTO> findByCursoIdInAndFechaCreacionEntre(@Param("cursoIds") Collection<Long> cursoIds,
+                                                                 @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                                                                 Pageable pageable);
+    
+    // Variantes por cursor: sin OFFSET ni COUNT, el costo no crece con la profundidad de la página
+    
+    @Query(PROYECCION_DTO + "WHERE " + DESPUES_DEL_CURSOR + ORDEN_CURSOR)
+    List<TopicoResponseDTO> listarDespuesDe(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Limit limit);
+    
+    @Query(PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds AND " + DESPUES_DEL_CURSOR + ORDEN_CURSOR)
+    List<TopicoResponseDTO> buscarPorCursosDespuesDe(@Param("cursoIds") Collection<Long> cursoIds,
+                                                     @Param("fecha") LocalDateTime fecha, @Param("id") Long id, Limit limit);
+    
+    @Query(PROYECCION_DTO + "WHERE " + EN_RANGO_DE_FECHAS + "AND " + DESPUES_DEL_CURSOR + ORDEN_CURSOR)
+    List<TopicoResponseDTO> buscarPorFechasDespuesDe(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                                                     @Param("fecha") LocalDateTime fecha, @Param("id") Long id, Limit limit);
+    
+    @Query(PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds AND " + EN_RANGO_DE_FECHAS + "AND "
+            + DESPUES_DEL_CURSOR + ORDEN_CURSOR)
+    List<TopicoResponseDTO> buscarPorCursosYFechasDespuesDe(@Param("cursoIds") Collection<Long> cursoIds,
+                                                            @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                                                            @Param("fecha") LocalDateTime fecha, @Param("id") Long id, Limit limit);
+    
+    // Reconciliación de estadísticas: conteo por curso, año y estado de los cursos con ID en (desde, hasta]
+    @Query("SELECT new com.example.demo.model.EstadisticaTopicos(t.curso.id, year(t.fechaCreacion), t.status, COUNT(t)) "
+            + "FROM Topico t WHERE t.curso.id > :desde AND t.curso.id <= :hasta AND t.fechaCreacion IS NOT NULL AND t.status IS NOT NULL "
+            + "GROUP BY t.curso.id, year(t.fechaCreacion), t.status")
+    List<EstadisticaTopicos> contarPorCursoAnioYStatus(@Param("desde") long desde, @Param("hasta") long hasta);
     
-    @Query("SELECT COUNT(t) > 0 FROM Topico t WHERE t.titulo = :titulo AND t.mensaje = :mensaje AND t.id != :id")
-    boolean existsByTituloAndMensajeAndIdNot(@Param("titulo") String titulo, @Param("mensaje") String mensaje, @Param("id") Long id);
+    // Variantes para exportación: devuelven un Stream que se recorre con un cursor de solo avance,
+    // deben consumirse dentro de una transacción y cerrarse al terminar
     
-    // Método para obtener los primeros 10 tópicos ordenados por fecha de creación ASC
-    List<Topico> findTop10ByOrderByFechaCreacionAsc();
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = TAMANO_LOTE_EXPORTACION), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(PROYECCION_DTO + ORDEN_CURSOR)
+    Stream<TopicoResponseDTO> exportarTodos();
     
-    // Método para buscar por nombre de curso
-    @Query("SELECT t FROM Topico t WHERE t.curso.nombre LIKE %:nombreCurso%")
-    Page<Topico> findByCursoNombreContaining(@Param("nombreCurso") String nombreCurso, Pageable pageable);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = TAMANO_LOTE_EXPORTACION), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds " + ORDEN_CURSOR)
+    Stream<TopicoResponseDTO> exportarPorCursos(@Param("cursoIds") Collection<Long> cursoIds);
     
-    // Método para buscar por año específico
-    @Query("SELECT t FROM Topico t WHERE YEAR(t.fechaCreacion) = :anio")
-    Page<Topico> findByAnio(@Param("anio") int anio, Pageable pageable);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = TAMANO_LOTE_EXPORTACION), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(PROYECCION_DTO + "WHERE " + EN_RANGO_DE_FECHAS + ORDEN_CURSOR)
+    Stream<TopicoResponseDTO> exportarPorFechas(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
     
-    // Método para buscar por nombre de curso y año
-    @Query("SELECT t FROM Topico t WHERE t.curso.nombre LIKE %:nombreCurso% AND YEAR(t.fechaCreacion) = :anio")
-    Page<Topico> findByCursoNombreContainingAndAnio(@Param("nombreCurso") String nombreCurso, @Param("anio") int anio, Pageable pageable);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = TAMANO_LOTE_EXPORTACION), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(PROYECCION_DTO + "WHERE t.curso.id IN :cursoIds AND " + EN_RANGO_DE_FECHAS + ORDEN_CURSOR)
+    Stream<TopicoResponseDTO> exportarPorCursosYFechas(@Param("cursoIds") Collection<Long> cursoIds,
+                                                       @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
 }
@@ -2,10 +2,19 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     UserDetails findByCorreoElectronico(String correoElectronico);
+    
+    // Cuáles de los IDs dados existen, en una sola consulta (validación de lotes)
+    @Query("SELECT u.id FROM Usuario u WHERE u.id IN :ids")
+    List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
 }
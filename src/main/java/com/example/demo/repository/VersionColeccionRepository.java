@@ -0,0 +1,27 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.VersionColeccion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+public interface VersionColeccionRepository extends JpaRepository<VersionColeccion, VersionColeccion.Clave> {
+    
+    @Query("SELECT SUM(v.version) FROM VersionColeccion v WHERE v.nombre = :nombre")
+    Long buscarVersion(@Param("nombre") String nombre);
+    
+    // Bloquea la fila de la partición hasta el commit: conviene llamarlo al final de la transacción de escritura
+    @Modifying
+    @Query("UPDATE VersionColeccion v SET v.version = v.version + 1 WHERE v.nombre = :nombre AND v.particion = :particion")
+    int incrementar(@Param("nombre") String nombre, @Param("particion") int particion);
+    
+    // Partición al azar: las escrituras concurrentes rara vez esperan la misma fila
+    default int incrementar(String nombre) {
+        return incrementar(nombre, ThreadLocalRandom.current().nextInt(VersionColeccion.PARTICIONES));
+    }
+}
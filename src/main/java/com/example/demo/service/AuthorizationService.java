@@ -1,14 +1,17 @@
 package com.example.demo.service;
 
+import com.example.demo.model.Usuario;
 import com.example.demo.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class AuthorizationService implements UserDetailsService {
+public class AuthorizationService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     UsuarioRepository repository;
@@ -17,4 +20,14 @@ public class AuthorizationService implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return repository.findByCorreoElectronico(username);
     }
+    
+    // Spring Security lo llama tras un login correcto cuando el hash guardado usa un costo
+    // menor que el configurado (api.security.bcrypt.costo): se guarda el hash recalculado
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = repository.findById(((Usuario) user).getId()).orElseThrow();
+        usuario.setContrasena(newPassword);
+        return usuario;
+    }
 }
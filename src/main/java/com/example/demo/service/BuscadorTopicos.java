@@ -0,0 +1,35 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+
+import java.util.Collection;
+
+/**
+ * Motor de búsqueda de texto completo sobre el título y el mensaje de los tópicos.
+ * La implementación se elige con api.busqueda.motor (por ahora solo "lucene").
+ */
+public interface BuscadorTopicos {
+    
+    // Resultados ordenados por relevancia, paginados por cursor (vacío para la primera página)
+    BusquedaSliceResponseDTO buscar(String consulta, String cursor, int tamano);
+    
+    // Anota los tópicos para reindexarlos en segundo plano; no consulta la base ni el índice
+    void encolar(Collection<Long> ids);
+    
+    // Reindexa en el hilo que llama lo encolado, esperando el lote que el indexador tenga en curso
+    void indexarPendientes();
+    
+    // Vuelve a leer de la base los tópicos indicados y actualiza el índice; los que ya no existen se quitan
+    void actualizar(Collection<Long> ids);
+    
+    // Reindexa la tabla completa por lotes sin dejar de atender búsquedas; devuelve los tópicos indexados
+    long reconstruir();
+    
+    // Recoge lo que escribieron otras instancias o el SQL manual: reindexa los tópicos modificados desde la
+    // última pasada
+    void sincronizar();
+    
+    // true si el índice no existía al arrancar (primer despliegue o índice en memoria) o no sabe desde
+    // cuándo sincronizarse
+    boolean requiereReconstruccion();
+}
@@ -0,0 +1,544 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+import com.example.demo.dto.CursorBusqueda;
+import com.example.demo.dto.ResultadoBusquedaDTO;
+import com.example.demo.dto.TopicoIndiceDTO;
+import com.example.demo.dto.TopicoModificadoDTO;
+import com.example.demo.repository.IndiceTopicosRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Búsqueda de texto completo con un índice Lucene embebido (en disco o, sin directorio configurado, en memoria).
+ * <p>
+ * El índice guarda título, mensaje y fecha de cada tópico, así una búsqueda no consulta la base. Cada escritura
+ * confirmada solo encola los IDs afectados; un hilo indexador los vuelve a leer del primario por lotes, fuera de
+ * cualquier petición y sin pasar por JPA, y los reemplaza en el índice con un refresco por lote. Como la lectura y la escritura en
+ * el índice ocurren bajo el mismo candado, el índice termina con el último estado confirmado aunque los IDs
+ * lleguen desordenados. Los cambios se ven en las búsquedas al terminar el lote (lector NRT) y se persisten
+ * en disco cada api.busqueda.intervalo-commit.
+ * <p>
+ * Con varias instancias cada una tiene su índice. Lo escrito en otra instancia se recoge con {@link #sincronizar()},
+ * que cada api.busqueda.sincronizacion.intervalo encola los tópicos cuya fecha_modificacion avanzó; hasta entonces
+ * las búsquedas de esta instancia pueden devolver su versión anterior.
+ */
+@Service
+@ConditionalOnProperty(name = "api.busqueda.motor", havingValue = "lucene", matchIfMissing = true)
+public class BuscadorTopicosLucene implements BuscadorTopicos {
+    
+    private static final Logger log = LoggerFactory.getLogger(BuscadorTopicosLucene.class);
+    
+    private static final String CAMPO_ID = "id";
+    private static final String CAMPO_ORDEN_ID = "idOrden";
+    private static final String CAMPO_TITULO = "titulo";
+    private static final String CAMPO_MENSAJE = "mensaje";
+    private static final String CAMPO_FECHA = "fechaCreacion";
+    private static final String CAMPO_GENERACION = "generacion";
+    
+    // Clave en los datos del commit con la generación de la última reconstrucción
+    private static final String DATO_GENERACION = "generacion";
+    
+    // Clave en los datos del commit con la última fecha_modificacion recogida
+    private static final String DATO_SINCRONIZACION = "sincronizacion";
+    
+    // Relevancia descendente y, a igual puntaje, id ascendente: el orden es total y sirve de cursor
+    private static final Sort ORDEN = new Sort(SortField.FIELD_SCORE, new SortField(CAMPO_ORDEN_ID, SortField.Type.LONG));
+    
+    // El título pesa el doble que el mensaje
+    private static final Map<String, Float> PESOS = Map.of(CAMPO_TITULO, 2f, CAMPO_MENSAJE, 1f);
+    
+    private static final String[] CAMPOS_RESALTADOS = {CAMPO_TITULO, CAMPO_MENSAJE};
+    
+    private static final int[] PASAJES_RESALTADOS = {1, 2};
+    
+    private static final int TAMANO_LOTE = 1_000;
+    
+    @Value("${api.busqueda.directorio:}")
+    private String directorio;
+    
+    @Value("${api.busqueda.sincronizacion.habilitada:true}")
+    private boolean sincronizacionHabilitada;
+    
+    // Cuánto se relee hacia atrás: una transacción larga confirma con la fecha de su UPDATE, que puede ser
+    // anterior a la de otras ya recogidas. Tiene que superar la transacción de escritura más larga
+    @Value("${api.busqueda.sincronizacion.margen:1m}")
+    private Duration margenSincronizacion;
+    
+    @Autowired
+    private IndiceTopicosRepository indiceTopicosRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Analyzer analizador;
+    
+    private Directory directorioIndice;
+    
+    private IndexWriter writer;
+    
+    private SearcherManager searcherManager;
+    
+    private boolean indiceNuevo;
+    
+    // Serializa "leer de la base y escribir en el índice" entre actualizaciones y lotes de reconstrucción
+    private final ReentrantLock escritura = new ReentrantLock();
+    
+    // Los documentos de generaciones anteriores a la última reconstrucción completa se descartan al terminarla
+    private final AtomicLong generacion = new AtomicLong();
+    
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+    
+    // Mayor fecha_modificacion recogida; null hasta la primera reconstrucción si el índice no la tenía guardada
+    private volatile LocalDateTime marcaSincronizacion;
+    
+    // Fecha con la que se encoló cada tópico dentro del margen, para no reindexarlo en cada pasada
+    private final Map<Long, LocalDateTime> sincronizados = new HashMap<>();
+    
+    // IDs escritos y todavía no reindexados; un mismo tópico escrito varias veces se lee una sola vez
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    
+    // Un solo hilo indexa: las peticiones nunca esperan el candado del índice ni una conexión para leer
+    private ExecutorService indexador;
+    
+    private final AtomicBoolean indexacionProgramada = new AtomicBoolean();
+    
+    // Lo toma quien vacía la cola, así indexarPendientes también espera un lote que el hilo ya tomó
+    private final ReentrantLock vaciado = new ReentrantLock();
+    
+    @PostConstruct
+    void abrir() throws IOException {
+        analizador = crearAnalizador();
+        
+        directorioIndice = directorio.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(directorio));
+        indiceNuevo = !DirectoryReader.indexExists(directorioIndice);
+        if (!indiceNuevo) {
+            Map<String, String> datos = SegmentInfos.readLatestCommit(directorioIndice).getUserData();
+            String guardada = datos.get(DATO_GENERACION);
+            generacion.set(guardada != null ? Long.parseLong(guardada) : 0);
+            String marca = datos.get(DATO_SINCRONIZACION);
+            marcaSincronizacion = marca != null ? LocalDateTime.parse(marca) : null;
+        }
+        
+        writer = new IndexWriter(directorioIndice, new IndexWriterConfig(analizador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        
+        indexador = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "indexador-busqueda");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Gauge.builder("forohub.busqueda.pendientes", pendientes, Set::size)
+                .description("Tópicos escritos que todavía no se reindexaron")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void cerrar() throws IOException, InterruptedException {
+        indexador.shutdown();
+        indexador.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            indexarPendientes();
+        } catch (RuntimeException e) {
+            log.warn("Quedaron {} tópicos sin reindexar al cerrar; se corrigen con --reindexar", pendientes.size(), e);
+        }
+        searcherManager.close();
+        confirmar();
+        writer.close();
+        directorioIndice.close();
+    }
+    
+    @Override
+    public BusquedaSliceResponseDTO buscar(String consulta, String cursor, int tamano) {
+        CursorBusqueda posicion = CursorBusqueda.decodificar(cursor);
+        Query query = interpretar(consulta);
+        if (query == null) {
+            return new BusquedaSliceResponseDTO(List.of(), null, false);
+        }
+        
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Se pide un elemento extra para saber si existe una página siguiente sin contar resultados.
+                // El doc del cursor es el último del lector: a igual puntaje e id (solo el propio resultado
+                // del cursor) Lucene desempata por doc y lo excluye
+                int ultimoDoc = searcher.getIndexReader().maxDoc() - 1;
+                TopFieldDocs encontrados;
+                if (posicion.equals(CursorBusqueda.INICIO) || ultimoDoc < 0) {
+                    encontrados = searcher.search(query, tamano + 1, ORDEN, true);
+                } else {
+                    FieldDoc despues = new FieldDoc(ultimoDoc, posicion.puntaje(), new Object[]{posicion.puntaje(), posicion.id()});
+                    encontrados = searcher.searchAfter(despues, query, tamano + 1, ORDEN, true);
+                }
+                
+                boolean haySiguiente = encontrados.scoreDocs.length > tamano;
+                ScoreDoc[] pagina = Arrays.copyOf(encontrados.scoreDocs, Math.min(tamano, encontrados.scoreDocs.length));
+                Map<String, String[]> resaltados = resaltador(searcher).highlightFields(
+                        CAMPOS_RESALTADOS, query, new TopDocs(encontrados.totalHits, pagina), PASAJES_RESALTADOS);
+                
+                StoredFields almacenados = searcher.storedFields();
+                List<ResultadoBusquedaDTO> resultados = new ArrayList<>(pagina.length);
+                for (int i = 0; i < pagina.length; i++) {
+                    Document documento = almacenados.document(pagina[i].doc);
+                    String fecha = documento.get(CAMPO_FECHA);
+                    resultados.add(new ResultadoBusquedaDTO(
+                            Long.valueOf(documento.get(CAMPO_ID)),
+                            documento.get(CAMPO_TITULO),
+                            fecha != null ? LocalDateTime.parse(fecha) : null,
+                            pagina[i].score,
+                            resaltados.get(CAMPO_TITULO)[i],
+                            resaltados.get(CAMPO_MENSAJE)[i]));
+                }
+                
+                String siguienteCursor = null;
+                if (haySiguiente) {
+                    ResultadoBusquedaDTO ultimo = resultados.get(tamano - 1);
+                    siguienteCursor = new CursorBusqueda(ultimo.puntaje(), ultimo.id()).codificar();
+                }
+                return new BusquedaSliceResponseDTO(resultados, siguienteCursor, haySiguiente);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void encolar(Collection<Long> ids) {
+        pendientes.addAll(ids);
+        programarIndexacion();
+    }
+    
+    @Override
+    public void indexarPendientes() {
+        vaciado.lock();
+        try {
+            while (!pendientes.isEmpty()) {
+                List<Long> lote = tomarPendientes();
+                try {
+                    actualizar(lote);
+                } catch (RuntimeException e) {
+                    // Vuelven a la cola: los reintenta confirmarPendientes o la próxima escritura
+                    pendientes.addAll(lote);
+                    throw e;
+                }
+            }
+        } finally {
+            vaciado.unlock();
+        }
+    }
+    
+    @Override
+    public void actualizar(Collection<Long> ids) {
+        List<Long> pendientes = List.copyOf(new HashSet<>(ids));
+        escritura.lock();
+        try {
+            for (int desde = 0; desde < pendientes.size(); desde += TAMANO_LOTE) {
+                List<Long> lote = pendientes.subList(desde, Math.min(desde + TAMANO_LOTE, pendientes.size()));
+                List<TopicoIndiceDTO> topicos = indiceTopicosRepository.buscar(lote);
+                
+                Set<Long> eliminados = new HashSet<>(lote);
+                for (TopicoIndiceDTO topico : topicos) {
+                    eliminados.remove(topico.id());
+                    writer.updateDocument(terminoId(topico.id()), documento(topico, generacion.get()));
+                }
+                for (Long id : eliminados) {
+                    writer.deleteDocuments(terminoId(id));
+                }
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public long reconstruir() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una reconstrucción del índice en curso");
+        }
+        try {
+            // Cada lote reemplaza sus documentos; las búsquedas siguen viendo el índice anterior completo
+            // y lo que aún no se reindexó se descarta al final por pertenecer a una generación previa
+            long nueva = generacion.incrementAndGet();
+            // Lo modificado desde aquí lo vuelve a ver la sincronización, además de la reconstrucción
+            LocalDateTime ultima = indiceTopicosRepository.ultimaModificacion();
+            marcaSincronizacion = ultima != null ? ultima : LocalDateTime.now();
+            long total = 0;
+            Long ultimoId = 0L;
+            List<TopicoIndiceDTO> lote;
+            do {
+                escritura.lock();
+                try {
+                    lote = indiceTopicosRepository.listarDespuesDe(ultimoId, TAMANO_LOTE);
+                    for (TopicoIndiceDTO topico : lote) {
+                        writer.updateDocument(terminoId(topico.id()), documento(topico, nueva));
+                    }
+                } finally {
+                    escritura.unlock();
+                }
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1).id();
+                    total += lote.size();
+                }
+            } while (lote.size() == TAMANO_LOTE);
+            
+            escritura.lock();
+            try {
+                writer.deleteDocuments(LongPoint.newRangeQuery(CAMPO_GENERACION, Long.MIN_VALUE, nueva - 1));
+                confirmar();
+                searcherManager.maybeRefreshBlocking();
+            } finally {
+                escritura.unlock();
+            }
+            log.info("Índice de búsqueda reconstruido: {} tópicos", total);
+            return total;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+    
+    @Override
+    public boolean requiereReconstruccion() {
+        return indiceNuevo || marcaSincronizacion == null;
+    }
+    
+    @Scheduled(fixedDelayString = "${api.busqueda.sincronizacion.intervalo:5s}")
+    public void sincronizarProgramado() {
+        if (sincronizacionHabilitada) {
+            sincronizar();
+        }
+    }
+    
+    // Los tópicos ya encolados con la misma fecha se saltean; los demás pasan por la cola del indexador,
+    // que los lee del primario y quita del índice los eliminados
+    @Override
+    public synchronized void sincronizar() {
+        LocalDateTime marca = marcaSincronizacion;
+        if (marca == null) {
+            return;
+        }
+        LocalDateTime desde = marca.minus(margenSincronizacion);
+        sincronizados.values().removeIf(fecha -> fecha.isBefore(desde));
+        
+        List<Long> modificados = new ArrayList<>();
+        LocalDateTime fecha = desde;
+        Long id = 0L;
+        List<TopicoModificadoDTO> lote;
+        do {
+            lote = indiceTopicosRepository.listarModificadosDespuesDe(fecha, id, TAMANO_LOTE);
+            for (TopicoModificadoDTO topico : lote) {
+                if (!topico.fechaModificacion().equals(sincronizados.put(topico.id(), topico.fechaModificacion()))) {
+                    modificados.add(topico.id());
+                }
+                if (topico.fechaModificacion().isAfter(marca)) {
+                    marca = topico.fechaModificacion();
+                }
+            }
+            if (!lote.isEmpty()) {
+                fecha = lote.get(lote.size() - 1).fechaModificacion();
+                id = lote.get(lote.size() - 1).id();
+            }
+        } while (lote.size() == TAMANO_LOTE);
+        
+        marcaSincronizacion = marca;
+        if (!modificados.isEmpty()) {
+            encolar(modificados);
+        }
+    }
+    
+    // Persiste en disco lo indexado desde el último commit; las búsquedas no dependen de esto.
+    // También reprograma los IDs que quedaron en la cola por un fallo del indexador
+    @Scheduled(fixedDelayString = "${api.busqueda.intervalo-commit:5s}")
+    public void confirmarPendientes() throws IOException {
+        if (!pendientes.isEmpty()) {
+            programarIndexacion();
+        }
+        if (writer.isOpen() && writer.hasUncommittedChanges()) {
+            confirmar();
+        }
+    }
+    
+    // Visibilidad de paquete para cargar el índice desde los benchmarks (src/jmh) sin pasar por la base
+    void indexar(List<TopicoIndiceDTO> topicos) throws IOException {
+        for (TopicoIndiceDTO topico : topicos) {
+            writer.updateDocument(terminoId(topico.id()), documento(topico, generacion.get()));
+        }
+        confirmar();
+        searcherManager.maybeRefreshBlocking();
+    }
+    
+    private void programarIndexacion() {
+        if (!indexacionProgramada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            indexador.execute(() -> {
+                // Antes de vaciar: lo que llegue mientras tanto programa otra pasada
+                indexacionProgramada.set(false);
+                try {
+                    indexarPendientes();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo actualizar el índice de búsqueda; {} tópicos quedan pendientes", pendientes.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cerrando: cerrar() indexa lo que quede en la cola
+            indexacionProgramada.set(false);
+        }
+    }
+    
+    private List<Long> tomarPendientes() {
+        List<Long> lote = new ArrayList<>(TAMANO_LOTE);
+        for (Long id : pendientes) {
+            if (lote.size() == TAMANO_LOTE) {
+                break;
+            }
+            if (pendientes.remove(id)) {
+                lote.add(id);
+            }
+        }
+        return lote;
+    }
+    
+    private void confirmar() throws IOException {
+        Map<String, String> datos = new HashMap<>();
+        datos.put(DATO_GENERACION, String.valueOf(generacion.get()));
+        LocalDateTime marca = marcaSincronizacion;
+        if (marca != null) {
+            datos.put(DATO_SINCRONIZACION, marca.toString());
+        }
+        writer.setLiveCommitData(datos.entrySet());
+        writer.commit();
+    }
+    
+    // Sintaxis simple: términos obligatorios, "frases", -exclusión, prefijo* y | para alternativas.
+    // Nunca falla con la entrada del usuario; devuelve null si no queda ningún término buscable
+    private Query interpretar(String consulta) {
+        SimpleQueryParser parser = new SimpleQueryParser(analizador, PESOS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        return parser.parse(consulta);
+    }
+    
+    private UnifiedHighlighter resaltador(IndexSearcher searcher) {
+        return UnifiedHighlighter.builder(searcher, analizador)
+                .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "… ", true))
+                // Sin coincidencias en el campo se devuelve su comienzo, así siempre hay título y fragmento
+                .withMaxNoHighlightPassages(1)
+                .build();
+    }
+    
+    // Minúsculas, sin palabras vacías, sin tildes y con la raíz liviana del español:
+    // "configuración", "Configuracion" y "configuraciones" coinciden
+    private static Analyzer crearAnalizador() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String campo) {
+                StandardTokenizer tokenizer = new StandardTokenizer();
+                TokenStream flujo = new LowerCaseFilter(tokenizer);
+                flujo = new StopFilter(flujo, SpanishAnalyzer.getDefaultStopSet());
+                flujo = new ASCIIFoldingFilter(flujo);
+                flujo = new SpanishLightStemFilter(flujo);
+                return new TokenStreamComponents(tokenizer, flujo);
+            }
+            
+            // Para las consultas por prefijo, que no pasan por el análisis completo
+            @Override
+            protected TokenStream normalize(String campo, TokenStream entrada) {
+                return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+            }
+        };
+    }
+    
+    private static Term terminoId(Long id) {
+        return new Term(CAMPO_ID, String.valueOf(id));
+    }
+    
+    private static Document documento(TopicoIndiceDTO topico, long generacion) {
+        Document documento = new Document();
+        documento.add(new StringField(CAMPO_ID, String.valueOf(topico.id()), Field.Store.YES));
+        documento.add(new NumericDocValuesField(CAMPO_ORDEN_ID, topico.id()));
+        documento.add(new TextField(CAMPO_TITULO, topico.titulo(), Field.Store.YES));
+        documento.add(new TextField(CAMPO_MENSAJE, topico.mensaje(), Field.Store.YES));
+        // Sin fecha no se guarda el campo, y el resultado la devuelve nula
+        if (topico.fechaCreacion() != null) {
+            documento.add(new StoredField(CAMPO_FECHA, topico.fechaCreacion().toString()));
+        }
+        documento.add(new LongPoint(CAMPO_GENERACION, generacion));
+        return documento;
+    }
+}
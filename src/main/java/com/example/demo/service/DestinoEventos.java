@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoTopicoDTO;
+
+import java.util.List;
+
+/**
+ * Destino al que RelayEventosTopicos entrega los eventos de tópicos, en lotes y en orden de id.
+ * Si el destino lanza una excepción se le reintenta el lote completo (los demás destinos no se ven
+ * afectados), así que puede recibir el mismo evento más de una vez y debe descartar duplicados por id.
+ * El nombre identifica las entregas guardadas: cambiarlo hace que el destino reciba todo lo pendiente.
+ */
+public interface DestinoEventos {
+    
+    // Etiqueta "destino" de las métricas
+    String nombre();
+    
+    void publicar(List<EventoTopicoDTO> eventos);
+}
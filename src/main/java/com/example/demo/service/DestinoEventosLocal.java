@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoTopicoDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Entrega cada evento a los @EventListener de EventoTopicoDTO de la aplicación, en el hilo del relay:
+// una excepción del listener hace que se le reintente el lote a este destino
+@Component
+@Order(1)
+public class DestinoEventosLocal implements DestinoEventos {
+    
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    @Override
+    public String nombre() {
+        return "local";
+    }
+    
+    @Override
+    public void publicar(List<EventoTopicoDTO> eventos) {
+        eventos.forEach(applicationEventPublisher::publishEvent);
+    }
+}
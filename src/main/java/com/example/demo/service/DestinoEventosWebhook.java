@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoTopicoDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+// Envía cada lote como un arreglo JSON en un POST a api.eventos.webhook.url. Cualquier respuesta que no
+// sea 2xx, o un timeout, cuenta como fallo y se le reintenta el lote. Solo existe si la URL está configurada
+@Component
+@Order(2)
+@ConditionalOnProperty("api.eventos.webhook.url")
+public class DestinoEventosWebhook implements DestinoEventos {
+    
+    @Value("${api.eventos.webhook.url}")
+    private String url;
+    
+    @Value("${api.eventos.webhook.timeout:5s}")
+    private Duration timeout;
+    
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+    
+    private RestClient restClient;
+    
+    @PostConstruct
+    void inicializar() {
+        JdkClientHttpRequestFactory fabrica = new JdkClientHttpRequestFactory(HttpClient.newBuilder().connectTimeout(timeout).build());
+        fabrica.setReadTimeout(timeout);
+        restClient = restClientBuilder.requestFactory(fabrica).baseUrl(url).build();
+    }
+    
+    @Override
+    public String nombre() {
+        return "webhook";
+    }
+    
+    @Override
+    public void publicar(List<EventoTopicoDTO> eventos) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(eventos)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
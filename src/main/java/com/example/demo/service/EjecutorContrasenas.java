@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para el trabajo con BCrypt (hash al registrar, verificación al iniciar sesión).
+ * Limita cuántos núcleos puede ocupar una ráfaga de registros o de intentos de login, y con la
+ * cola llena rechaza la tarea (RejectedExecutionException, 429) en lugar de acumular espera.
+ */
+@Component
+public class EjecutorContrasenas implements MeterBinder {
+    
+    // 0: la mitad de los núcleos, para que el resto de la API conserve CPU durante una ráfaga
+    @Value("${api.security.hash.hilos:0}")
+    private int hilos;
+    
+    @Value("${api.security.hash.cola:50}")
+    private int cola;
+    
+    private ThreadPoolExecutor ejecutor;
+    
+    @PostConstruct
+    void inicializar() {
+        if (hilos <= 0) {
+            hilos = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        BlockingQueue<Runnable> pendientes = cola > 0 ? new ArrayBlockingQueue<>(cola) : new SynchronousQueue<>();
+        ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, pendientes,
+                new CustomizableThreadFactory("hash-contrasenas-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    // Lanza RejectedExecutionException en el hilo que llama si no hay lugar en la cola
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        return CompletableFuture.supplyAsync(tarea, ejecutor);
+    }
+    
+    public int hilos() {
+        return hilos;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(ejecutor, "hash-contrasenas", List.of()).bindTo(registry);
+    }
+    
+    @PreDestroy
+    void cerrar() {
+        ejecutor.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Escribe los tópicos de una exportación fila por fila sobre la salida, sin acumularlos:
+ * cada DTO queda libre para el GC en cuanto se serializa.
+ */
+@Component
+public class EscritorExportacion {
+    
+    private static final String CABECERA_CSV = "id,titulo,mensaje,fechaCreacion,status,autorNombre,cursoNombre,respuestasCount,ultimaRespuesta,version";
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public long escribir(Stream<TopicoResponseDTO> topicos, FormatoExportacion formato, OutputStream salida) throws IOException {
+        return switch (formato) {
+            case NDJSON -> escribirNdjson(topicos, salida);
+            case CSV -> escribirCsv(topicos, salida);
+        };
+    }
+    
+    private long escribirNdjson(Stream<TopicoResponseDTO> topicos, OutputStream salida) throws IOException {
+        // Sin vaciar tras cada valor: el búfer del generador y el de la respuesta marcan el ritmo de escritura
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long filas = 0;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (TopicoResponseDTO topico : (Iterable<TopicoResponseDTO>) topicos::iterator) {
+                writer.writeValue(generador, topico);
+                generador.writeRaw('\n');
+                filas++;
+            }
+        }
+        return filas;
+    }
+    
+    private long escribirCsv(Stream<TopicoResponseDTO> topicos, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(CABECERA_CSV);
+        writer.write("\r\n");
+        long filas = 0;
+        for (TopicoResponseDTO topico : (Iterable<TopicoResponseDTO>) topicos::iterator) {
+            writer.write(String.valueOf(topico.id()));
+            writer.write(',');
+            escribirCampoCsv(writer, topico.titulo());
+            writer.write(',');
+            escribirCampoCsv(writer, topico.mensaje());
+            writer.write(',');
+            writer.write(String.valueOf(topico.fechaCreacion()));
+            writer.write(',');
+            writer.write(String.valueOf(topico.status()));
+            writer.write(',');
+            escribirCampoCsv(writer, topico.autorNombre());
+            writer.write(',');
+            escribirCampoCsv(writer, topico.cursoNombre());
+            writer.write(',');
+            writer.write(String.valueOf(topico.respuestasCount()));
+            writer.write(',');
+            if (topico.ultimaRespuesta() != null) {
+                writer.write(topico.ultimaRespuesta().toString());
+            }
+            writer.write(',');
+            writer.write(String.valueOf(topico.version()));
+            writer.write("\r\n");
+            filas++;
+        }
+        writer.flush();
+        return filas;
+    }
+    
+    // RFC 4180: entre comillas solo si hace falta, duplicando las comillas internas
+    private static void escribirCampoCsv(Writer writer, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
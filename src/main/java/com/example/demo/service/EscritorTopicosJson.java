@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CampoTopico;
+import com.example.demo.dto.TopicoPaginaResponseDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.dto.TopicoSliceResponseDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serializa los listados de tópicos campo por campo con un JsonGenerator, sin introspección de Jackson,
+ * y solo con los campos pedidos. El JSON sale igual que con el ObjectMapper de la aplicación (fechas ISO,
+ * nulos incluidos). Se escribe sobre un búfer dimensionado según el contenido: la respuesta sale con
+ * Content-Length y el servidor decide con él si la comprime.
+ */
+@Component
+public class EscritorTopicosJson {
+    
+    private static final JsonFactory FABRICA = new JsonFactory();
+    
+    // Nombres de los campos ya codificados, como los guarda el serializador de Jackson
+    private static final SerializedString[] NOMBRES = Arrays.stream(CampoTopico.values())
+            .map(campo -> new SerializedString(campo.getNombre()))
+            .toArray(SerializedString[]::new);
+    
+    // Llaves, nombres de campos, números y fechas de un tópico; el texto se suma aparte
+    private static final int BYTES_FIJOS_POR_TOPICO = 256;
+    
+    private static final int BYTES_ENVOLTORIO = 96;
+    
+    public byte[] escribirPagina(TopicoPaginaResponseDTO pagina, Set<CampoTopico> campos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(estimarBytes(pagina.content(), campos));
+        try (JsonGenerator generador = FABRICA.createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.writeStartObject();
+            escribirTopicos(generador, pagina.content(), campos);
+            generador.writeNumberField("totalElements", pagina.totalElements());
+            if (pagina.siguientePagina() != null) {
+                generador.writeNumberField("siguientePagina", pagina.siguientePagina());
+            } else {
+                generador.writeNullField("siguientePagina");
+            }
+            generador.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+    
+    public byte[] escribirSlice(TopicoSliceResponseDTO slice, Set<CampoTopico> campos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(estimarBytes(slice.content(), campos));
+        try (JsonGenerator generador = FABRICA.createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.writeStartObject();
+            escribirTopicos(generador, slice.content(), campos);
+            generador.writeStringField("siguienteCursor", slice.siguienteCursor());
+            generador.writeBooleanField("haySiguiente", slice.haySiguiente());
+            generador.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+    
+    private static void escribirTopicos(JsonGenerator generador, List<TopicoResponseDTO> topicos,
+                                        Set<CampoTopico> campos) throws IOException {
+        generador.writeArrayFieldStart("content");
+        for (TopicoResponseDTO topico : topicos) {
+            generador.writeStartObject();
+            for (CampoTopico campo : campos) {
+                generador.writeFieldName(NOMBRES[campo.ordinal()]);
+                escribirCampo(generador, topico, campo);
+            }
+            generador.writeEndObject();
+        }
+        generador.writeEndArray();
+    }
+    
+    private static void escribirCampo(JsonGenerator generador, TopicoResponseDTO topico, CampoTopico campo) throws IOException {
+        switch (campo) {
+            case ID -> escribirNumero(generador, topico.id());
+            case TITULO -> generador.writeString(topico.titulo());
+            case MENSAJE -> generador.writeString(topico.mensaje());
+            case FECHA_CREACION -> escribirFecha(generador, topico.fechaCreacion());
+            case STATUS -> generador.writeString(topico.status() != null ? topico.status().name() : null);
+            case AUTOR_NOMBRE -> generador.writeString(topico.autorNombre());
+            case CURSO_NOMBRE -> generador.writeString(topico.cursoNombre());
+            case RESPUESTAS_COUNT -> generador.writeNumber(topico.respuestasCount());
+            case ULTIMA_RESPUESTA -> escribirFecha(generador, topico.ultimaRespuesta());
+            case VERSION -> escribirNumero(generador, topico.version());
+        }
+    }
+    
+    private static void escribirNumero(JsonGenerator generador, Long valor) throws IOException {
+        if (valor != null) {
+            generador.writeNumber(valor);
+        } else {
+            generador.writeNull();
+        }
+    }
+    
+    // Mismo formato que LocalDateTimeSerializer con WRITE_DATES_AS_TIMESTAMPS deshabilitado (default de Spring Boot)
+    private static void escribirFecha(JsonGenerator generador, LocalDateTime fecha) throws IOException {
+        generador.writeString(fecha != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(fecha) : null);
+    }
+    
+    // Un byte por carácter más un margen: el búfer casi nunca crece ni queda muy grande
+    private static int estimarBytes(List<TopicoResponseDTO> topicos, Set<CampoTopico> campos) {
+        long bytes = BYTES_ENVOLTORIO;
+        for (TopicoResponseDTO topico : topicos) {
+            bytes += BYTES_FIJOS_POR_TOPICO;
+            if (campos.contains(CampoTopico.TITULO) && topico.titulo() != null) {
+                bytes += topico.titulo().length();
+            }
+            if (campos.contains(CampoTopico.MENSAJE) && topico.mensaje() != null) {
+                bytes += topico.mensaje().length();
+            }
+            if (campos.contains(CampoTopico.AUTOR_NOMBRE) && topico.autorNombre() != null) {
+                bytes += topico.autorNombre().length();
+            }
+            if (campos.contains(CampoTopico.CURSO_NOMBRE) && topico.cursoNombre() != null) {
+                bytes += topico.cursoNombre().length();
+            }
+        }
+        return (int) Math.min(bytes + bytes / 8, Integer.MAX_VALUE - 8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EstadisticaTopicosDTO;
+import com.example.demo.dto.EstadoTopicoDTO;
+import com.example.demo.model.EstadisticaTopicos;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.EstadisticaTopicosRepository;
+import com.example.demo.repository.TopicoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estadísticas de tópicos por curso, año y estado, leídas de la tabla estadistica_topicos en lugar de
+ * contar filas de topico. Cada escritura de tópicos aplica su diferencia dentro de su transacción
+ * (sumar / moverStatus); la reconciliación periódica recalcula la tabla por lotes de cursos y corrige
+ * lo que no pasó por la aplicación (SQL manual, fallos entre la escritura y el ajuste).
+ */
+@Service
+public class EstadisticasService {
+    
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasService.class);
+    
+    @Autowired
+    private EstadisticaTopicosRepository estadisticaTopicosRepository;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${api.estadisticas.cursos-por-lote:100}")
+    private int cursosPorLote;
+    
+    private TransactionTemplate transaccionPorLote;
+    
+    @PostConstruct
+    void inicializar() {
+        transaccionPorLote = new TransactionTemplate(transactionManager);
+        transaccionPorLote.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    public List<EstadisticaTopicosDTO> listar(Collection<Long> cursoIds, Integer anio) {
+        if (cursoIds != null && anio != null) {
+            return estadisticaTopicosRepository.listarPorCursosYAnio(cursoIds, anio);
+        } else if (cursoIds != null) {
+            return estadisticaTopicosRepository.listarPorCursos(cursoIds);
+        } else if (anio != null) {
+            return estadisticaTopicosRepository.listarPorAnio(anio);
+        }
+        return estadisticaTopicosRepository.listar();
+    }
+    
+    // Deben llamarse dentro de la transacción de la escritura. Cuando un cambio ajusta dos filas de
+    // estadistica_topicos, moverStatus y moverCurso las toman en el orden de la clave primaria (curso,
+    // año, estado): dos transacciones que mueven en sentidos opuestos esperan la misma fila primero en
+    // lugar de bloquearse mutuamente. Los lotes suman por curso en orden de ID por el mismo motivo
+    
+    public void sumar(Long cursoId, LocalDateTime fechaCreacion, StatusTopico status, long cantidad) {
+        estadisticaTopicosRepository.sumar(cursoId, fechaCreacion.getYear(), status.name(), cantidad);
+    }
+    
+    public void moverStatus(EstadoTopicoDTO anterior, StatusTopico nuevo) {
+        if (anterior.status() == nuevo) {
+            return;
+        }
+        // El ENUM de MySQL ordena por posición, igual que el ordinal de StatusTopico
+        if (anterior.status().compareTo(nuevo) < 0) {
+            sumar(anterior.cursoId(), anterior.fechaCreacion(), anterior.status(), -1);
+            sumar(anterior.cursoId(), anterior.fechaCreacion(), nuevo, 1);
+        } else {
+            sumar(anterior.cursoId(), anterior.fechaCreacion(), nuevo, 1);
+            sumar(anterior.cursoId(), anterior.fechaCreacion(), anterior.status(), -1);
+        }
+    }
+    
+    public void moverCurso(Long cursoAnterior, Long cursoNuevo, LocalDateTime fechaCreacion, StatusTopico status) {
+        if (cursoAnterior.equals(cursoNuevo)) {
+            return;
+        }
+        if (cursoAnterior < cursoNuevo) {
+            sumar(cursoAnterior, fechaCreacion, status, -1);
+            sumar(cursoNuevo, fechaCreacion, status, 1);
+        } else {
+            sumar(cursoNuevo, fechaCreacion, status, 1);
+            sumar(cursoAnterior, fechaCreacion, status, -1);
+        }
+    }
+    
+    // Recalcula todas las estadísticas, un lote de cursos por transacción
+    @Scheduled(fixedDelayString = "${api.estadisticas.intervalo-reconciliacion:1h}",
+            initialDelayString = "${api.estadisticas.intervalo-reconciliacion:1h}")
+    public void reconciliar() {
+        long inicio = System.nanoTime();
+        long desde = 0;
+        int cursos = 0;
+        while (true) {
+            List<Long> ids = cursoRepository.listarIdsDespuesDe(desde, Limit.of(cursosPorLote));
+            // El último lote llega hasta el final, así también se quitan filas de cursos eliminados
+            boolean ultimo = ids.size() < cursosPorLote;
+            long hasta = ultimo ? Long.MAX_VALUE : ids.get(ids.size() - 1);
+            reconciliarLote(desde, hasta);
+            cursos += ids.size();
+            if (ultimo) {
+                break;
+            }
+            desde = hasta;
+        }
+        log.info("Estadísticas de tópicos reconciliadas: {} cursos en {} ms", cursos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+    
+    // El DELETE va primero: bloquea las filas del lote, así una escritura que ajusta estadísticas termina
+    // antes (y el conteo la incluye) o espera al commit y aplica su diferencia sobre el conteo nuevo.
+    // El conteo es una lectura sin bloqueos sobre topico, para no frenar las escrituras de tópicos
+    private void reconciliarLote(long desde, long hasta) {
+        transaccionPorLote.executeWithoutResult(estado -> {
+            estadisticaTopicosRepository.eliminarEntreCursos(desde, hasta);
+            for (EstadisticaTopicos conteo : topicoRepository.contarPorCursoAnioYStatus(desde, hasta)) {
+                estadisticaTopicosRepository.sumar(conteo.getCursoId(), conteo.getAnio(), conteo.getStatus().name(), conteo.getTotal());
+            }
+        });
+    }
+}
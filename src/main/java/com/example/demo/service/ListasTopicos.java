@@ -0,0 +1,247 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ListaTopicos;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.repository.TopicoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listas cortas de tópicos (primeros 10, recientes y activos) guardadas en memoria ya serializadas.
+ * La lectura toma la instantánea publicada, sin bloqueo, sin base de datos y sin Jackson. Las escrituras
+ * de tópicos y respuestas aplican su cambio al confirmarse: se copia la lista, se modifica y se publica
+ * la copia. Solo se vuelve a consultar cuando la lista llena pierde un elemento y no se sabe cuál sigue.
+ * El refresco periódico corrige lo que no pasó por esta instancia (otra instancia, SQL manual, cambios
+ * de nombre de autor o curso).
+ */
+@Component
+public class ListasTopicos {
+    
+    private static final Logger log = LoggerFactory.getLogger(ListasTopicos.class);
+    
+    private static final int TAMANO_PRIMEROS = 10;
+    
+    @Value("${api.listas.tamano:10}")
+    private int tamano;
+    
+    @Value("${api.listas.refresco.habilitado:true}")
+    private boolean refrescoHabilitado;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Copia inmutable que se reemplaza entera; las escrituras se serializan con el monitor de esta clase
+    private volatile Map<ListaTopicos, Instantanea> instantaneas = new EnumMap<>(ListaTopicos.class);
+    
+    // Lista publicada: los tópicos (para aplicar cambios), su JSON y una ETag fuerte del contenido
+    public record Instantanea(List<TopicoResponseDTO> topicos, byte[] json, String etag) {}
+    
+    public Instantanea obtener(ListaTopicos lista) {
+        Instantanea instantanea = instantaneas.get(lista);
+        return instantanea != null ? instantanea : construirSiFalta(lista);
+    }
+    
+    // Tópicos creados o actualizados cuyo DTO ya se conoce
+    public void guardadosAlConfirmar(List<TopicoResponseDTO> topicos) {
+        alConfirmar(() -> aplicar(topicos));
+    }
+    
+    // Tópicos cambiados sin DTO a mano (lotes, respuestas): se leen después del commit, y solo si hay
+    // alguna lista en memoria a la que aplicarlos
+    public void modificadosAlConfirmar(List<Long> ids) {
+        alConfirmar(() -> {
+            if (!instantaneas.isEmpty()) {
+                aplicar(topicoRepository.buscarPorIds(candidatos(ids)));
+            }
+        });
+    }
+    
+    public void eliminadosAlConfirmar(Collection<Long> ids) {
+        alConfirmar(() -> quitar(ids));
+    }
+    
+    // Cambió un dato que llevan todos los DTO (nombre de autor o de curso)
+    public void invalidarAlConfirmar() {
+        alConfirmar(this::invalidar);
+    }
+    
+    // Descarta todas las listas; se vuelven a consultar en la próxima lectura
+    public synchronized void invalidar() {
+        instantaneas = new EnumMap<>(ListaTopicos.class);
+    }
+    
+    @Scheduled(fixedDelayString = "${api.listas.refresco.intervalo:1m}")
+    public void refrescar() {
+        if (!refrescoHabilitado) {
+            return;
+        }
+        for (ListaTopicos lista : instantaneas.keySet()) {
+            construir(lista);
+        }
+    }
+    
+    // Varias lecturas pueden encontrar la lista vacía a la vez; solo la primera la consulta
+    private synchronized Instantanea construirSiFalta(ListaTopicos lista) {
+        Instantanea instantanea = instantaneas.get(lista);
+        return instantanea != null ? instantanea : construir(lista);
+    }
+    
+    // La consulta va dentro del monitor: un cambio confirmado durante la consulta espera y se aplica sobre su resultado
+    private synchronized Instantanea construir(ListaTopicos lista) {
+        Limit limite = Limit.of(tamano(lista));
+        List<TopicoResponseDTO> topicos = switch (lista) {
+            case PRIMEROS -> topicoRepository.listarPrimeros(limite);
+            case RECIENTES -> topicoRepository.listarRecientes(limite);
+            case ACTIVOS -> topicoRepository.listarActivos(limite);
+        };
+        return publicar(lista, topicos);
+    }
+    
+    private synchronized void aplicar(List<TopicoResponseDTO> topicos) {
+        for (Map.Entry<ListaTopicos, Instantanea> entrada : instantaneas.entrySet()) {
+            ListaTopicos lista = entrada.getKey();
+            List<TopicoResponseDTO> actual = entrada.getValue().topicos();
+            List<TopicoResponseDTO> nueva = new ArrayList<>(actual);
+            boolean reconsultar = false;
+            for (TopicoResponseDTO topico : topicos) {
+                int posicion = posicion(nueva, topico.id());
+                // Un cambio atrasado (otro hilo ya aplicó una versión posterior) no se aplica
+                if (posicion >= 0 && nueva.get(posicion).version() >= topico.version()) {
+                    continue;
+                }
+                boolean estabaLlena = nueva.size() >= tamano(lista);
+                if (posicion >= 0) {
+                    nueva.remove(posicion);
+                }
+                // Con la lista llena, el tópico entra si ordena antes que el último; si salió de ella,
+                // el que ocupa su lugar puede ser uno que no está en memoria
+                boolean entra = lista.incluye(topico) && (!estabaLlena
+                        || (!nueva.isEmpty() && lista.getOrden().compare(topico, nueva.get(nueva.size() - 1)) < 0));
+                if (entra) {
+                    int insercion = 0;
+                    while (insercion < nueva.size() && lista.getOrden().compare(nueva.get(insercion), topico) < 0) {
+                        insercion++;
+                    }
+                    nueva.add(insercion, topico);
+                    if (nueva.size() > tamano(lista)) {
+                        nueva.remove(nueva.size() - 1);
+                    }
+                } else if (posicion >= 0 && estabaLlena) {
+                    reconsultar = true;
+                    break;
+                }
+            }
+            if (reconsultar) {
+                construir(lista);
+            } else if (!nueva.equals(actual)) {
+                publicar(lista, nueva);
+            }
+        }
+    }
+    
+    private synchronized void quitar(Collection<Long> ids) {
+        for (Map.Entry<ListaTopicos, Instantanea> entrada : instantaneas.entrySet()) {
+            ListaTopicos lista = entrada.getKey();
+            List<TopicoResponseDTO> actual = entrada.getValue().topicos();
+            List<TopicoResponseDTO> nueva = actual.stream().filter(topico -> !ids.contains(topico.id())).toList();
+            if (nueva.size() == actual.size()) {
+                continue;
+            }
+            if (actual.size() >= tamano(lista)) {
+                construir(lista);
+            } else {
+                publicar(lista, nueva);
+            }
+        }
+    }
+    
+    private Instantanea publicar(ListaTopicos lista, List<TopicoResponseDTO> topicos) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(topicos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la lista " + lista, e);
+        }
+        Instantanea instantanea = new Instantanea(List.copyOf(topicos), json, etag(json));
+        Map<ListaTopicos, Instantanea> copia = new EnumMap<>(ListaTopicos.class);
+        copia.putAll(instantaneas);
+        copia.put(lista, instantanea);
+        instantaneas = copia;
+        return instantanea;
+    }
+    
+    // Un lote puede crear miles de tópicos; solo los primeros y los últimos IDs pueden quedar en una lista
+    private List<Long> candidatos(List<Long> ids) {
+        int maximo = Math.max(TAMANO_PRIMEROS, tamano);
+        if (ids.size() <= 2 * maximo) {
+            return ids;
+        }
+        List<Long> candidatos = new ArrayList<>(ids.subList(0, maximo));
+        candidatos.addAll(ids.subList(ids.size() - maximo, ids.size()));
+        return candidatos;
+    }
+    
+    private int tamano(ListaTopicos lista) {
+        return lista == ListaTopicos.PRIMEROS ? TAMANO_PRIMEROS : tamano;
+    }
+    
+    private static int posicion(List<TopicoResponseDTO> topicos, Long id) {
+        for (int i = 0; i < topicos.size(); i++) {
+            if (topicos.get(i).id().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // Mismo contenido, misma ETag en todas las instancias. Débil para que el servidor pueda comprimir la respuesta
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "W/\"l" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    // Después del commit, como el índice de búsqueda: si la transacción se revierte las listas no cambian.
+    // Un fallo no deshace la escritura ya confirmada; la lista se descarta y se vuelve a consultar al leerla
+    private void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    cambio.run();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudieron actualizar las listas de tópicos; se volverán a consultar", e);
+                    invalidar();
+                }
+            }
+        });
+    }
+}
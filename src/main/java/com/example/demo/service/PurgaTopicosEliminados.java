@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PendientesPurgaDTO;
+import com.example.demo.repository.PurgaTopicosRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Borra físicamente los tópicos eliminados (fecha_eliminacion) y sus respuestas, por lotes pequeños y a
+ * un ritmo acotado. Primero las respuestas de los tópicos eliminados más antiguos, tamano-lote filas por
+ * sentencia; cuando no les quedan, los tópicos. Entre lotes se espera lo que indica lotes-por-segundo,
+ * así un tópico con miles de respuestas no bloquea la tabla ni satura la base. Repetir un lote no tiene
+ * efecto, pero con varias instancias basta habilitar la purga en una (api.purga.habilitado).
+ */
+@Component
+public class PurgaTopicosEliminados {
+    
+    private static final Logger log = LoggerFactory.getLogger(PurgaTopicosEliminados.class);
+    
+    @Value("${api.purga.habilitado:true}")
+    private boolean habilitado;
+    
+    @Value("${api.purga.tamano-lote:500}")
+    private int tamanoLote;
+    
+    @Value("${api.purga.lotes-por-segundo:5}")
+    private double lotesPorSegundo;
+    
+    @Autowired
+    private PurgaTopicosRepository purgaTopicosRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Resultado del último conteo; se actualiza al empezar y al terminar cada purga
+    private volatile PendientesPurgaDTO pendientes = new PendientesPurgaDTO(0, null);
+    
+    @PostConstruct
+    void inicializar() {
+        Gauge.builder("forohub.purga.pendientes", this, purga -> purga.pendientes.topicos())
+                .description("Tópicos eliminados que todavía no se borraron")
+                .register(meterRegistry);
+        Gauge.builder("forohub.purga.antiguedad", this, PurgaTopicosEliminados::antiguedadSegundos)
+                .description("Tiempo desde la eliminación del tópico pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${api.purga.intervalo:30s}")
+    public void purgarPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        purgar();
+    }
+    
+    // Lotes hasta vaciar la cola, con la pausa entre uno y otro. Devuelve las filas borradas
+    public long purgar() {
+        actualizarPendientes();
+        long pausa = (long) (1000 / lotesPorSegundo);
+        long borradas = 0;
+        int lote;
+        while ((lote = purgarLote()) > 0) {
+            borradas += lote;
+            try {
+                Thread.sleep(pausa);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        actualizarPendientes();
+        if (borradas > 0) {
+            log.info("Purga de tópicos eliminados: {} filas borradas, {} tópicos pendientes", borradas, pendientes.topicos());
+        }
+        return borradas;
+    }
+    
+    // Un lote: hasta tamanoLote respuestas de los tópicos eliminados más antiguos o, si ya no tienen, esos
+    // tópicos. Devuelve las filas borradas; 0 si no quedaba nada por purgar
+    public int purgarLote() {
+        List<Long> topicos = purgaTopicosRepository.listarEliminados(tamanoLote);
+        if (topicos.isEmpty()) {
+            return 0;
+        }
+        
+        int respuestas = purgaTopicosRepository.eliminarRespuestas(topicos, tamanoLote);
+        if (respuestas > 0) {
+            meterRegistry.counter("forohub.purga.borrados", "tabla", "respuesta").increment(respuestas);
+            return respuestas;
+        }
+        int borrados = purgaTopicosRepository.eliminarTopicos(topicos);
+        meterRegistry.counter("forohub.purga.borrados", "tabla", "topico").increment(borrados);
+        return borrados;
+    }
+    
+    public PendientesPurgaDTO actualizarPendientes() {
+        pendientes = purgaTopicosRepository.contarPendientes();
+        return pendientes;
+    }
+    
+    private double antiguedadSegundos() {
+        LocalDateTime masAntiguo = pendientes.masAntiguo();
+        return masAntiguo == null ? 0 : Duration.between(masAntiguo, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoTopicoDTO;
+import com.example.demo.exception.EventoIlegibleException;
+import com.example.demo.repository.EventoTopicoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publica los eventos de la bandeja de salida en todos los destinos, por lotes y en orden de id (entrega al
+ * menos una vez). Cada destino avanza por su cuenta: se anota qué eventos recibió cada uno, así un destino
+ * que falla reintenta solo lo suyo sin frenar ni duplicar a los demás, y un evento se borra cuando lo
+ * recibieron todos. Lo recibido de forma contigua se resume en una marca por destino, así un destino caído
+ * no encarece las pasadas de los demás aunque la bandeja crezca. Un solo hilo y el orden de id mantienen el orden de los eventos de cada tópico: sus
+ * escrituras se serializan por la fila del tópico, así que sus eventos se numeran y confirman en ese orden.
+ * Un evento ilegible se mueve a evento_topico_descartado para no bloquear la bandeja. Con varias instancias
+ * de la aplicación, el relay debe habilitarse en una sola (api.eventos.relay.habilitado).
+ */
+@Component
+public class RelayEventosTopicos {
+    
+    private static final Logger log = LoggerFactory.getLogger(RelayEventosTopicos.class);
+    
+    @Value("${api.eventos.relay.habilitado:true}")
+    private boolean habilitado;
+    
+    @Value("${api.eventos.tamano-lote:100}")
+    private int tamanoLote;
+    
+    // La marca de un destino no pasa de los eventos más nuevos que esto: tiene que superar la transacción de
+    // escritura más larga, que puede confirmar un id menor después de uno ya publicado
+    @Value("${api.eventos.margen-confirmacion:1m}")
+    private Duration margenConfirmacion;
+    
+    @Autowired
+    private EventoTopicoRepository eventoTopicoRepository;
+    
+    @Autowired
+    private List<DestinoEventos> destinos;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Fecha del evento pendiente más antiguo en la última pasada; null si no quedaba ninguno
+    private volatile LocalDateTime pendienteMasAntiguo;
+    
+    @PostConstruct
+    void inicializar() {
+        Gauge.builder("forohub.eventos.antiguedad", this, RelayEventosTopicos::antiguedadSegundos)
+                .description("Antigüedad del evento pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${api.eventos.intervalo:1s}")
+    public void publicarPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        Map<String, Long> marcas = eventoTopicoRepository.marcas(nombres());
+        for (DestinoEventos destino : destinos) {
+            long marca = marcas.get(destino.nombre());
+            // Un lote completo indica que puede haber más pendientes; el siguiente se lee desde el último
+            // publicado, sin volver a saltear lo ya entregado
+            long desde = marca;
+            List<EventoTopicoDTO> publicados;
+            do {
+                publicados = publicarEn(destino, desde);
+                if (!publicados.isEmpty()) {
+                    desde = publicados.get(publicados.size() - 1).id();
+                }
+            } while (publicados.size() == tamanoLote);
+            eventoTopicoRepository.avanzarMarca(destino.nombre(), marca, LocalDateTime.now().minus(margenConfirmacion));
+        }
+        eliminarEntregados();
+    }
+    
+    // Un lote por destino y el borrado de lo que recibieron todos; devuelve cuántos eventos se borraron
+    public int publicarLote() {
+        Map<String, Long> marcas = eventoTopicoRepository.marcas(nombres());
+        for (DestinoEventos destino : destinos) {
+            long marca = marcas.get(destino.nombre());
+            publicarEn(destino, marca);
+            eventoTopicoRepository.avanzarMarca(destino.nombre(), marca, LocalDateTime.now().minus(margenConfirmacion));
+        }
+        return eliminarEntregados();
+    }
+    
+    // Devuelve los eventos entregados al destino; ninguno si no tenía pendientes o si falló
+    private List<EventoTopicoDTO> publicarEn(DestinoEventos destino, long desde) {
+        List<EventoTopicoDTO> eventos = pendientes(destino, desde);
+        if (eventos.isEmpty()) {
+            return eventos;
+        }
+        try {
+            destino.publicar(eventos);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("forohub.eventos.fallos", "destino", destino.nombre()).increment();
+            log.warn("El destino {} rechazó {} eventos desde el id {}; se le reintentarán", destino.nombre(),
+                    eventos.size(), eventos.get(0).id(), e);
+            return List.of();
+        }
+        eventoTopicoRepository.registrarEntrega(destino.nombre(), eventos.stream().map(EventoTopicoDTO::id).toList());
+        registrarEntrega(destino, eventos);
+        return eventos;
+    }
+    
+    // Un evento ilegible no se puede entregar a ningún destino: se descarta y se vuelve a leer el lote
+    private List<EventoTopicoDTO> pendientes(DestinoEventos destino, long desde) {
+        while (true) {
+            try {
+                return eventoTopicoRepository.listarPendientes(destino.nombre(), desde, tamanoLote);
+            } catch (EventoIlegibleException e) {
+                eventoTopicoRepository.descartar(e.getEventoId(), e.getCause().getMessage());
+                meterRegistry.counter("forohub.eventos.descartados").increment();
+                log.error("El evento {} no se puede leer; se movió a evento_topico_descartado", e.getEventoId(), e);
+            }
+        }
+    }
+    
+    private int eliminarEntregados() {
+        List<String> nombres = nombres();
+        int eliminados = 0;
+        int lote;
+        do {
+            lote = eventoTopicoRepository.eliminarEntregados(nombres, tamanoLote);
+            eliminados += lote;
+        } while (lote == tamanoLote);
+        pendienteMasAntiguo = eventoTopicoRepository.fechaPendienteMasAntiguo();
+        return eliminados;
+    }
+    
+    private List<String> nombres() {
+        return destinos.stream().map(DestinoEventos::nombre).toList();
+    }
+    
+    private void registrarEntrega(DestinoEventos destino, List<EventoTopicoDTO> eventos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Timer demora = meterRegistry.timer("forohub.eventos.demora", "destino", destino.nombre());
+        for (EventoTopicoDTO evento : eventos) {
+            demora.record(Duration.between(evento.fecha(), ahora));
+        }
+        meterRegistry.counter("forohub.eventos.publicados", "destino", destino.nombre()).increment(eventos.size());
+    }
+    
+    private double antiguedadSegundos() {
+        LocalDateTime masAntiguo = pendienteMasAntiguo;
+        return masAntiguo == null ? 0 : Duration.between(masAntiguo, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CursorTopico;
+import com.example.demo.dto.EstadoTopicoDTO;
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.RespuestaResponseDTO;
+import com.example.demo.dto.RespuestaSliceResponseDTO;
+import com.example.demo.model.Respuesta;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.model.Usuario;
+import com.example.demo.model.VersionColeccion;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.VersionColeccionRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+public class RespuestaService {
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    // Los contadores y el estado forman parte de los listados de tópicos, así que cada cambio invalida su ETag
+    @Autowired
+    private VersionColeccionRepository versionColeccionRepository;
+    
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
+    // Contadores, última respuesta y estado también aparecen en las listas en memoria
+    @Autowired
+    private ListasTopicos listasTopicos;
+    
+    @Transactional
+    public RespuestaResponseDTO crearRespuesta(Long topicoId, RespuestaRequestDTO respuestaRequest) {
+        // Buscar el autor
+        Usuario autor = usuarioRepository.findById(respuestaRequest.autorId())
+                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + respuestaRequest.autorId()));
+        
+        // Actualizar los contadores del tópico primero: confirma que existe y bloquea su fila
+        // hasta el commit, así las respuestas concurrentes al mismo tópico no pierden incrementos
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (topicoRepository.registrarRespuesta(topicoId, ahora) == 0) {
+            throw new EntityNotFoundException("Tópico no encontrado con ID: " + topicoId);
+        }
+        
+        // Crear la respuesta
+        Respuesta respuesta = new Respuesta();
+        respuesta.setMensaje(respuestaRequest.mensaje());
+        respuesta.setAutor(autor);
+        respuesta.setTopico(topicoRepository.getReferenceById(topicoId));
+        respuesta.setFechaCreacion(ahora);
+        
+        Respuesta respuestaGuardada = respuestaRepository.save(respuesta);
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        listasTopicos.modificadosAlConfirmar(List.of(topicoId));
+        return convertirARespuestaResponseDTO(respuestaGuardada, topicoId);
+    }
+    
+    // Listar las respuestas de un tópico por cursor (keyset), en orden de creación
+    public RespuestaSliceResponseDTO listarRespuestas(Long topicoId, String cursor, int tamano) {
+        CursorTopico posicion = CursorTopico.decodificar(cursor);
+        
+        // Se pide un elemento extra para saber si existe una página siguiente sin contar filas
+        List<RespuestaResponseDTO> respuestas = respuestaRepository.listarPorTopicoDespuesDe(
+                topicoId, posicion.fechaCreacion(), posicion.id(), Limit.of(tamano + 1));
+        
+        // Solo una página vacía necesita confirmar que el tópico existe
+        if (respuestas.isEmpty() && !topicoRepository.existsById(topicoId)) {
+            throw new EntityNotFoundException("Tópico no encontrado con ID: " + topicoId);
+        }
+        
+        boolean haySiguiente = respuestas.size() > tamano;
+        if (haySiguiente) {
+            respuestas = respuestas.subList(0, tamano);
+        }
+        String siguienteCursor = haySiguiente ? CursorTopico.desde(respuestas.get(tamano - 1)).codificar() : null;
+        return new RespuestaSliceResponseDTO(respuestas, siguienteCursor, haySiguiente);
+    }
+    
+    // Marcar una respuesta como solución: el tópico pasa a CERRADO en la misma transacción
+    @Transactional
+    public RespuestaResponseDTO marcarSolucion(Long topicoId, Long respuestaId) {
+        Respuesta respuesta = buscarRespuestaDelTopico(topicoId, respuestaId);
+        
+        respuestaRepository.desmarcarOtrasSoluciones(topicoId, respuestaId);
+        respuesta.setSolucion(true);
+        EstadoTopicoDTO anterior = cambiarStatus(topicoId, StatusTopico.CERRADO);
+        estadisticasService.moverStatus(anterior, StatusTopico.CERRADO);
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        listasTopicos.modificadosAlConfirmar(List.of(topicoId));
+        
+        return convertirARespuestaResponseDTO(respuesta, topicoId);
+    }
+    
+    // Quitar la marca de solución: el tópico vuelve a ABIERTO
+    @Transactional
+    public RespuestaResponseDTO desmarcarSolucion(Long topicoId, Long respuestaId) {
+        Respuesta respuesta = buscarRespuestaDelTopico(topicoId, respuestaId);
+        
+        if (Boolean.TRUE.equals(respuesta.getSolucion())) {
+            respuesta.setSolucion(false);
+            EstadoTopicoDTO anterior = cambiarStatus(topicoId, StatusTopico.ABIERTO);
+            estadisticasService.moverStatus(anterior, StatusTopico.ABIERTO);
+            versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+            listasTopicos.modificadosAlConfirmar(List.of(topicoId));
+        }
+        
+        return convertirARespuestaResponseDTO(respuesta, topicoId);
+    }
+    
+    @Transactional
+    public void eliminarRespuesta(Long topicoId, Long respuestaId) {
+        Respuesta respuesta = buscarRespuestaDelTopico(topicoId, respuestaId);
+        
+        respuestaRepository.delete(respuesta);
+        respuestaRepository.flush();
+        // 0 si el tópico se eliminó: la transacción se revierte y la respuesta queda para la purga
+        if (topicoRepository.descontarRespuesta(topicoId) == 0) {
+            throw new EntityNotFoundException("Tópico no encontrado con ID: " + topicoId);
+        }
+        
+        // Si era la solución, el tópico deja de estar resuelto
+        EstadoTopicoDTO anterior = null;
+        if (Boolean.TRUE.equals(respuesta.getSolucion())) {
+            anterior = cambiarStatus(topicoId, StatusTopico.ABIERTO);
+        }
+        if (anterior != null) {
+            estadisticasService.moverStatus(anterior, StatusTopico.ABIERTO);
+        }
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        listasTopicos.modificadosAlConfirmar(List.of(topicoId));
+    }
+    
+    // Lee el estado con la fila bloqueada antes de cambiarlo, para que las estadísticas reciban
+    // el estado que realmente tenía el tópico
+    private EstadoTopicoDTO cambiarStatus(Long topicoId, StatusTopico status) {
+        EstadoTopicoDTO anterior = topicoRepository.bloquearEstado(topicoId)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + topicoId));
+        topicoRepository.actualizarStatus(topicoId, status);
+        return anterior;
+    }
+    
+    private Respuesta buscarRespuestaDelTopico(Long topicoId, Long respuestaId) {
+        // getTopico().getId() lee el ID del proxy LAZY sin cargar el tópico
+        return respuestaRepository.findById(respuestaId)
+                .filter(respuesta -> respuesta.getTopico().getId().equals(topicoId))
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Respuesta no encontrada con ID: " + respuestaId + " en el tópico: " + topicoId));
+    }
+    
+    private RespuestaResponseDTO convertirARespuestaResponseDTO(Respuesta respuesta, Long topicoId) {
+        return new RespuestaResponseDTO(
+                respuesta.getId(),
+                respuesta.getMensaje(),
+                respuesta.getFechaCreacion(),
+                respuesta.getSolucion(),
+                respuesta.getAutor().getNombre(),
+                topicoId
+        );
+    }
+}
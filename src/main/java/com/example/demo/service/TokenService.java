@@ -1,28 +1,71 @@
 package com.example.demo.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.demo.model.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Service
-public class TokenService {
+public class TokenService implements MeterBinder {
+    
+    private static final String ISSUER = "forohub-api";
     
     @Value("${api.security.token.secret}")
     private String secret;
     
+    @Value("${api.security.token.verified-cache.max-size:10000}")
+    private long tamanoCacheVerificados;
+    
+    // Algorithm y JWTVerifier son inmutables y seguros entre hilos: se crean una sola vez
+    private Algorithm algorithm;
+    
+    private JWTVerifier verifier;
+    
+    // Tokens ya verificados -> (subject, expiración); cada entrada vive hasta que expira su token
+    private Cache<String, TokenVerificado> tokensVerificados;
+    
+    @PostConstruct
+    void inicializar() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanoCacheVerificados)
+                .expireAfter(new ExpiracionDelToken())
+                .recordStats()
+                .build();
+    }
+    
+    // Aciertos, fallos y tamaño del caché de tokens verificados (cache="tokens-verificados")
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tokensVerificados, "tokens-verificados");
+    }
+    
+    @Timed("forohub.token.generacion")
     public String generateToken(Usuario usuario) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             String token = JWT.create()
-                    .withIssuer("forohub-api")
+                    .withIssuer(ISSUER)
                     .withSubject(usuario.getCorreoElectronico())
                     .withExpiresAt(genExpirationDate())
                     .sign(algorithm);
@@ -32,14 +75,16 @@ public class TokenService {
         }
     }
     
+    @Timed("forohub.token.validacion")
     public String validateToken(String token) {
+        TokenVerificado verificado = tokensVerificados.getIfPresent(token);
+        if (verificado != null) {
+            return verificado.subject();
+        }
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("forohub-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT jwt = verifier.verify(token);
+            tokensVerificados.put(token, new TokenVerificado(jwt.getSubject(), jwt.getExpiresAtAsInstant()));
+            return jwt.getSubject();
         } catch (JWTVerificationException exception) {
             return "";
         }
@@ -48,4 +93,27 @@ public class TokenService {
     private Instant genExpirationDate() {
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-05:00"));
     }
+    
+    private record TokenVerificado(String subject, Instant expiraEn) {}
+    
+    private static class ExpiracionDelToken implements Expiry<String, TokenVerificado> {
+        
+        @Override
+        public long expireAfterCreate(String token, TokenVerificado verificado, long currentTime) {
+            if (verificado.expiraEn() == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(Instant.now(), verificado.expiraEn()).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String token, TokenVerificado verificado, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verificado, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String token, TokenVerificado verificado, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
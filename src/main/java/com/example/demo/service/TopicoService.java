@@ -1,26 +1,72 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+import com.example.demo.dto.CursorTopico;
+import com.example.demo.dto.EstadisticaTopicosDTO;
+import com.example.demo.dto.EstadoTopicoDTO;
+import com.example.demo.dto.EventoTopicoDTO;
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.dto.ListaTopicos;
+import com.example.demo.dto.ModoBusquedaCurso;
+import com.example.demo.dto.ResultadoItemLoteDTO;
+import com.example.demo.dto.ResultadoLoteDTO;
 import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoEventoDTO;
+import com.example.demo.dto.TopicoParcialDTO;
 import com.example.demo.dto.TopicoResponseDTO;
-import com.example.demo.model.Curso;
+import com.example.demo.dto.TopicoSliceResponseDTO;
+import com.example.demo.exception.PrecondicionFallidaException;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.model.TipoEventoTopico;
 import com.example.demo.model.Topico;
-import com.example.demo.model.Usuario;
+import com.example.demo.model.VersionColeccion;
 import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.EventoTopicoRepository;
+import com.example.demo.repository.TopicoLoteRepository;
+import com.example.demo.repository.TopicoLoteRepository.FilaTopico;
 import com.example.demo.repository.TopicoRepository;
 import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.VersionColeccionRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Un timer por método público (etiquetas class y method), vía el TimedAspect de Actuator
+@Timed("forohub.servicio.topicos")
 @Service
 public class TopicoService {
     
+    private static final String MENSAJE_DUPLICADO = "Ya existe un tópico con el mismo título y mensaje";
+    
+    // Columna de la clave foránea violada, tal como la informan MySQL ("FOREIGN KEY (`autor_id`)") y H2
+    private static final Pattern CLAVE_FORANEA = Pattern.compile("FOREIGN KEY\\s*\\(\\W*(autor_id|curso_id)", Pattern.CASE_INSENSITIVE);
+    
     @Autowired
     private TopicoRepository topicoRepository;
     
@@ -30,125 +76,447 @@ public class TopicoService {
     @Autowired
     private CursoRepository cursoRepository;
     
+    @Autowired
+    private EscritorExportacion escritorExportacion;
+    
+    @Autowired
+    private TopicoLoteRepository topicoLoteRepository;
+    
+    @Autowired
+    private VersionColeccionRepository versionColeccionRepository;
+    
+    @Autowired
+    private BuscadorTopicos buscadorTopicos;
+    
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
+    @Autowired
+    private EventoTopicoRepository eventoTopicoRepository;
+    
+    @Autowired
+    private ListasTopicos listasTopicos;
+    
+    @Autowired
+    private Validator validator;
+    
     @Transactional
     public TopicoResponseDTO crearTopico(TopicoRequestDTO topicoRequest) {
-        // Validar que no existe un tópico duplicado
-        if (topicoRepository.existsByTituloAndMensaje(topicoRequest.titulo(), topicoRequest.mensaje())) {
-            throw new IllegalArgumentException("Ya existe un tópico con el mismo título y mensaje");
-        }
-        
-        // Buscar el autor
-        Usuario autor = usuarioRepository.findById(topicoRequest.autorId())
-                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + topicoRequest.autorId()));
-        
-        // Buscar el curso
-        Curso curso = cursoRepository.findById(topicoRequest.cursoId())
-                .orElseThrow(() -> new EntityNotFoundException("Curso no encontrado con ID: " + topicoRequest.cursoId()));
-        
-        // Crear el tópico
+        // Crear el tópico con referencias al autor y al curso, sin consultarlos: las claves foráneas
+        // validan que existan y el índice único de huella que no haya otro tópico con el mismo contenido
         Topico topico = new Topico();
         topico.setTitulo(topicoRequest.titulo());
         topico.setMensaje(topicoRequest.mensaje());
-        topico.setAutor(autor);
-        topico.setCurso(curso);
+        topico.setAutor(usuarioRepository.getReferenceById(topicoRequest.autorId()));
+        topico.setCurso(cursoRepository.getReferenceById(topicoRequest.cursoId()));
         
         // Guardar el tópico
-        Topico topicoGuardado = topicoRepository.save(topico);
+        Topico topicoGuardado = guardar(topico);
+        estadisticasService.sumar(topicoRequest.cursoId(), topicoGuardado.getFechaCreacion(), topicoGuardado.getStatus(), 1);
+        eventoTopicoRepository.insertar(List.of(evento(TipoEventoTopico.CREADO, topicoGuardado)));
+        // Última sentencia: la partición de la versión queda bloqueada lo menos posible
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        indexarAlConfirmar(List.of(topicoGuardado.getId()));
         
         // Convertir a DTO de respuesta
-        return convertirATopicoResponseDTO(topicoGuardado);
+        TopicoResponseDTO respuesta = convertirATopicoResponseDTO(topicoGuardado);
+        listasTopicos.guardadosAlConfirmar(List.of(respuesta));
+        return respuesta;
+    }
+    
+    // Crear tópicos en lote: valida todos los elementos con una consulta por autores, una por cursos y una
+    // por huellas, e inserta los válidos en un solo batch JDBC. Los inválidos se informan sin cortar el lote
+    @Transactional
+    public ResultadoLoteDTO crearTopicosEnLote(List<TopicoRequestDTO> topicos) {
+        ResultadoItemLoteDTO[] resultados = new ResultadoItemLoteDTO[topicos.size()];
+        String[] huellas = new String[topicos.size()];
+        
+        // Validar campos de cada elemento
+        for (int i = 0; i < topicos.size(); i++) {
+            TopicoRequestDTO topico = topicos.get(i);
+            if (topico == null) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, "Elemento vacío");
+                continue;
+            }
+            Set<ConstraintViolation<TopicoRequestDTO>> errores = validator.validate(topico);
+            if (!errores.isEmpty()) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, errores.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            huellas[i] = Topico.calcularHuella(topico.titulo(), topico.mensaje());
+        }
+        
+        // Resolver autores, cursos y duplicados existentes para todo el lote
+        Set<Long> autorIds = new HashSet<>();
+        Set<Long> cursoIds = new HashSet<>();
+        Set<String> huellasDelLote = new HashSet<>();
+        for (int i = 0; i < topicos.size(); i++) {
+            if (resultados[i] == null) {
+                autorIds.add(topicos.get(i).autorId());
+                cursoIds.add(topicos.get(i).cursoId());
+                huellasDelLote.add(huellas[i]);
+            }
+        }
+        Set<Long> autoresExistentes = autorIds.isEmpty() ? Set.of() : new HashSet<>(usuarioRepository.buscarIdsExistentes(autorIds));
+        Set<Long> cursosExistentes = cursoIds.isEmpty() ? Set.of() : new HashSet<>(cursoRepository.buscarIdsExistentes(cursoIds));
+        Set<String> huellasExistentes = huellasDelLote.isEmpty() ? Set.of()
+                : new HashSet<>(topicoRepository.buscarHuellasExistentes(huellasDelLote));
+        
+        // Decidir cada elemento y preparar las filas a insertar
+        List<Integer> indicesAInsertar = new ArrayList<>();
+        List<FilaTopico> filas = new ArrayList<>();
+        Set<String> huellasVistas = new HashSet<>();
+        for (int i = 0; i < topicos.size(); i++) {
+            if (resultados[i] != null) {
+                continue;
+            }
+            TopicoRequestDTO topico = topicos.get(i);
+            if (!autoresExistentes.contains(topico.autorId())) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, "Usuario no encontrado con ID: " + topico.autorId());
+            } else if (!cursosExistentes.contains(topico.cursoId())) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, "Curso no encontrado con ID: " + topico.cursoId());
+            } else if (huellasExistentes.contains(huellas[i])) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, MENSAJE_DUPLICADO);
+            } else if (!huellasVistas.add(huellas[i])) {
+                resultados[i] = ResultadoItemLoteDTO.rechazado(i, "Duplica a otro elemento del mismo lote");
+            } else {
+                indicesAInsertar.add(i);
+                filas.add(new FilaTopico(topico.titulo(), topico.mensaje(), huellas[i], topico.autorId(), topico.cursoId()));
+            }
+        }
+        
+        if (!filas.isEmpty()) {
+            LocalDateTime fechaCreacion = LocalDateTime.now();
+            List<Long> ids;
+            try {
+                ids = topicoLoteRepository.insertar(filas, fechaCreacion);
+            } catch (DataIntegrityViolationException e) {
+                // Otra transacción guardó el mismo contenido entre la validación y la inserción
+                throw new IllegalArgumentException(MENSAJE_DUPLICADO + "; el lote no se guardó, vuelva a enviarlo");
+            }
+            for (int j = 0; j < ids.size(); j++) {
+                int indice = indicesAInsertar.get(j);
+                resultados[indice] = ResultadoItemLoteDTO.creado(indice, ids.get(j));
+            }
+            // Un ajuste por curso, en orden de ID
+            filas.stream()
+                    .collect(Collectors.groupingBy(FilaTopico::cursoId, TreeMap::new, Collectors.counting()))
+                    .forEach((cursoId, cantidad) -> estadisticasService.sumar(cursoId, fechaCreacion, StatusTopico.ABIERTO, cantidad));
+            List<EventoTopicoDTO> eventos = new ArrayList<>(filas.size());
+            for (int j = 0; j < ids.size(); j++) {
+                FilaTopico fila = filas.get(j);
+                eventos.add(new EventoTopicoDTO(null, TipoEventoTopico.CREADO, ids.get(j), fechaCreacion, new TopicoEventoDTO(
+                        fila.titulo(), fila.mensaje(), StatusTopico.ABIERTO, fila.autorId(), fila.cursoId(), fechaCreacion, 0L)));
+            }
+            eventoTopicoRepository.insertar(eventos);
+            versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+            indexarAlConfirmar(ids);
+            listasTopicos.modificadosAlConfirmar(ids);
+        }
+        
+        int creados = filas.size();
+        return new ResultadoLoteDTO(topicos.size(), creados, topicos.size() - creados, List.of(resultados));
     }
     
     // Listar todos los tópicos con paginación
+    @Transactional(readOnly = true)
     public Page<TopicoResponseDTO> listarTopicos(Pageable pageable) {
-        Page<Topico> topicos = topicoRepository.findAll(pageable);
-        return topicos.map(this::convertirATopicoResponseDTO);
+        return topicoRepository.listarTopicos(pageable);
     }
     
-    // Listar los primeros 10 tópicos ordenados por fecha de creación ASC
-    public List<TopicoResponseDTO> listarPrimeros10Topicos() {
-        List<Topico> topicos = topicoRepository.findTop10ByOrderByFechaCreacionAsc();
-        return topicos.stream()
-                .map(this::convertirATopicoResponseDTO)
-                .collect(Collectors.toList());
+    // Primeros 10, recientes o activos, ya serializados desde memoria
+    public ListasTopicos.Instantanea obtenerLista(ListaTopicos lista) {
+        return listasTopicos.obtener(lista);
     }
     
     // Buscar tópicos por nombre de curso
-    public Page<TopicoResponseDTO> buscarPorCurso(String nombreCurso, Pageable pageable) {
-        Page<Topico> topicos = topicoRepository.findByCursoNombreContaining(nombreCurso, pageable);
-        return topicos.map(this::convertirATopicoResponseDTO);
+    @Transactional(readOnly = true)
+    public Page<TopicoResponseDTO> buscarPorCurso(String nombreCurso, ModoBusquedaCurso modo, Pageable pageable) {
+        List<Long> cursoIds = resolverCursoIds(nombreCurso, modo);
+        if (cursoIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return topicoRepository.findByCursoIdIn(cursoIds, pageable);
     }
     
     // Buscar tópicos por año
+    @Transactional(readOnly = true)
     public Page<TopicoResponseDTO> buscarPorAnio(int anio, Pageable pageable) {
-        Page<Topico> topicos = topicoRepository.findByAnio(anio, pageable);
-        return topicos.map(this::convertirATopicoResponseDTO);
+        return topicoRepository.findByFechaCreacionEntre(inicioDeAnio(anio), inicioDeAnio(anio + 1), pageable);
     }
     
     // Buscar tópicos por curso y año
-    public Page<TopicoResponseDTO> buscarPorCursoYAnio(String nombreCurso, int anio, Pageable pageable) {
-        Page<Topico> topicos = topicoRepository.findByCursoNombreContainingAndAnio(nombreCurso, anio, pageable);
-        return topicos.map(this::convertirATopicoResponseDTO);
+    @Transactional(readOnly = true)
+    public Page<TopicoResponseDTO> buscarPorCursoYAnio(String nombreCurso, ModoBusquedaCurso modo, int anio, Pageable pageable) {
+        List<Long> cursoIds = resolverCursoIds(nombreCurso, modo);
+        if (cursoIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return topicoRepository.findByCursoIdInAndFechaCreacionEntre(cursoIds, inicioDeAnio(anio), inicioDeAnio(anio + 1), pageable);
+    }
+    
+    // Listar tópicos por cursor (keyset), con los mismos filtros opcionales de curso y año
+    @Transactional(readOnly = true)
+    public TopicoSliceResponseDTO listarTopicosPorCursor(String cursor, int tamano, String nombreCurso,
+                                                         ModoBusquedaCurso modo, Integer anio) {
+        CursorTopico posicion = CursorTopico.decodificar(cursor);
+        // Se pide un elemento extra para saber si existe una página siguiente sin contar filas
+        Limit limite = Limit.of(tamano + 1);
+        
+        List<Long> cursoIds = nombreCurso != null ? resolverCursoIds(nombreCurso, modo) : null;
+        if (cursoIds != null && cursoIds.isEmpty()) {
+            return new TopicoSliceResponseDTO(List.of(), null, false);
+        }
+        
+        List<TopicoResponseDTO> topicos;
+        if (cursoIds != null && anio != null) {
+            topicos = topicoRepository.buscarPorCursosYFechasDespuesDe(cursoIds, inicioDeAnio(anio), inicioDeAnio(anio + 1),
+                    posicion.fechaCreacion(), posicion.id(), limite);
+        } else if (cursoIds != null) {
+            topicos = topicoRepository.buscarPorCursosDespuesDe(cursoIds, posicion.fechaCreacion(), posicion.id(), limite);
+        } else if (anio != null) {
+            topicos = topicoRepository.buscarPorFechasDespuesDe(inicioDeAnio(anio), inicioDeAnio(anio + 1),
+                    posicion.fechaCreacion(), posicion.id(), limite);
+        } else {
+            topicos = topicoRepository.listarDespuesDe(posicion.fechaCreacion(), posicion.id(), limite);
+        }
+        
+        boolean haySiguiente = topicos.size() > tamano;
+        if (haySiguiente) {
+            topicos = topicos.subList(0, tamano);
+        }
+        String siguienteCursor = haySiguiente ? CursorTopico.desde(topicos.get(tamano - 1)).codificar() : null;
+        return new TopicoSliceResponseDTO(topicos, siguienteCursor, haySiguiente);
+    }
+    
+    // Exportar todos los tópicos (con los filtros opcionales) escribiéndolos directamente en la salida.
+    // La transacción mantiene abierto el cursor mientras se recorre; la memoria usada no depende del total de filas
+    @Transactional(readOnly = true)
+    public long exportarTopicos(String nombreCurso, ModoBusquedaCurso modo, Integer anio,
+                                FormatoExportacion formato, OutputStream salida) throws IOException {
+        List<Long> cursoIds = nombreCurso != null ? resolverCursoIds(nombreCurso, modo) : null;
+        
+        Stream<TopicoResponseDTO> topicos;
+        if (cursoIds != null && cursoIds.isEmpty()) {
+            topicos = Stream.empty();
+        } else if (cursoIds != null && anio != null) {
+            topicos = topicoRepository.exportarPorCursosYFechas(cursoIds, inicioDeAnio(anio), inicioDeAnio(anio + 1));
+        } else if (cursoIds != null) {
+            topicos = topicoRepository.exportarPorCursos(cursoIds);
+        } else if (anio != null) {
+            topicos = topicoRepository.exportarPorFechas(inicioDeAnio(anio), inicioDeAnio(anio + 1));
+        } else {
+            topicos = topicoRepository.exportarTodos();
+        }
+        
+        try (topicos) {
+            return escritorExportacion.escribir(topicos, formato, salida);
+        }
+    }
+    
+    // Cantidad de tópicos por curso y año, con los mismos filtros opcionales que el listado.
+    // Se lee de la tabla de estadísticas: el costo depende de la cantidad de cursos, no de tópicos
+    @Transactional(readOnly = true)
+    public List<EstadisticaTopicosDTO> obtenerEstadisticas(String nombreCurso, ModoBusquedaCurso modo, Integer anio) {
+        List<Long> cursoIds = nombreCurso != null ? resolverCursoIds(nombreCurso, modo) : null;
+        if (cursoIds != null && cursoIds.isEmpty()) {
+            return List.of();
+        }
+        return estadisticasService.listar(cursoIds, anio);
+    }
+    
+    // Buscar tópicos por texto en título y mensaje, ordenados por relevancia
+    public BusquedaSliceResponseDTO buscarTopicos(String consulta, String cursor, int tamano) {
+        return buscadorTopicos.buscar(consulta, cursor, tamano);
+    }
+    
+    // Versión de la colección de tópicos, para la ETag de los listados. Se lee antes que los datos:
+    // si una escritura se confirma entre ambas lecturas la ETag queda atrasada y el cliente volverá
+    // a descargar, nunca al revés
+    @Transactional(readOnly = true)
+    public long obtenerVersionDeTopicos() {
+        return versionColeccionRepository.buscarVersion(VersionColeccion.TOPICOS);
+    }
+    
+    // Los listados llevan autorNombre y cursoNombre: renombrar un usuario o un curso cambia su contenido
+    // aunque no se haya escrito ningún tópico, así que avanza la versión de la colección y descarta las
+    // listas en memoria. Se llama después de guardar el cambio, para que la versión nueva nunca se sirva
+    // con los nombres viejos
+    @Transactional
+    public void referenciasModificadas() {
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        listasTopicos.invalidarAlConfirmar();
+    }
+    
+    // Versión de un tópico, para responder 304 sin construir el DTO
+    @Transactional(readOnly = true)
+    public long obtenerVersion(Long id) {
+        return topicoRepository.buscarVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + id));
     }
     
     // Obtener detalle de un tópico por ID
+    @Transactional(readOnly = true)
     public TopicoResponseDTO obtenerTopicoPorId(Long id) {
-        Topico topico = topicoRepository.findById(id)
+        return topicoRepository.buscarPorId(id)
                 .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + id));
-        
-        return convertirATopicoResponseDTO(topico);
     }
     
-    // Actualizar un tópico existente
+    // Actualizar un tópico existente con todos sus campos
+    @Transactional
+    public TopicoResponseDTO actualizarTopico(Long id, TopicoRequestDTO topicoRequest, Long versionEsperada) {
+        return aplicarCambios(id, topicoRequest.titulo(), topicoRequest.mensaje(), topicoRequest.autorId(),
+                topicoRequest.cursoId(), versionEsperada);
+    }
+    
+    // Actualizar solo los campos indicados; los nulos conservan su valor
     @Transactional
-    public TopicoResponseDTO actualizarTopico(Long id, TopicoRequestDTO topicoRequest) {
-        // Verificar si el tópico existe
-        if (!topicoRepository.findById(id).isPresent()) {
-            throw new EntityNotFoundException("Tópico no encontrado con ID: " + id);
+    public TopicoResponseDTO actualizarTopicoParcialmente(Long id, TopicoParcialDTO cambios, Long versionEsperada) {
+        if (cambios.titulo() == null && cambios.mensaje() == null && cambios.autorId() == null && cambios.cursoId() == null) {
+            throw new IllegalArgumentException("Debe indicar al menos un campo a modificar");
         }
+        return aplicarCambios(id, cambios.titulo(), cambios.mensaje(), cambios.autorId(), cambios.cursoId(), versionEsperada);
+    }
+    
+    // Eliminar un tópico por ID sin cargar la entidad. Es una eliminación lógica: el tópico y sus respuestas
+    // se borran después, por lotes, en PurgaTopicosEliminados
+    @Transactional
+    public void eliminarTopico(Long id) {
+        // Curso, fecha y estado del tópico, para descontarlo de las estadísticas
+        EstadoTopicoDTO estado = topicoRepository.buscarEstado(id)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + id));
         
-        // Obtener el tópico existente
-        Topico topicoExistente = topicoRepository.findById(id).get();
-        
-        // Validar que no existe otro tópico duplicado (excluyendo el actual)
-        if (topicoRepository.existsByTituloAndMensajeAndIdNot(topicoRequest.titulo(), topicoRequest.mensaje(), id)) {
-            throw new IllegalArgumentException("Ya existe un tópico con el mismo título y mensaje");
+        // Marcar el tópico, si sigue en el curso y estado leídos
+        if (topicoRepository.marcarEliminado(id, estado.cursoId(), estado.status(), LocalDateTime.now()) == 0) {
+            // Otro DELETE o la purga se adelantaron (404), o cambió el curso o el estado (409); si no cambió nada
+            // se marca con la fila ya bloqueada. Sin bloqueo, la relectura vería la misma foto que la primera
+            EstadoTopicoDTO actual = topicoRepository.bloquearEstado(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + id));
+            if (!actual.cursoId().equals(estado.cursoId()) || actual.status() != estado.status()) {
+                throw new ObjectOptimisticLockingFailureException(Topico.class, id);
+            }
+            estado = actual;
+            topicoRepository.marcarEliminado(id, estado.cursoId(), estado.status(), LocalDateTime.now());
+        }
+        estadisticasService.sumar(estado.cursoId(), estado.fechaCreacion(), estado.status(), -1);
+        eventoTopicoRepository.insertar(List.of(new EventoTopicoDTO(null, TipoEventoTopico.ELIMINADO, id, LocalDateTime.now(), null)));
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        indexarAlConfirmar(List.of(id));
+        listasTopicos.eliminadosAlConfirmar(List.of(id));
+    }
+    
+    // Una lectura del tópico y un UPDATE con solo las columnas que cambiaron (@DynamicUpdate); sin cambios no
+    // se escribe nada. El autor y el curso nuevos se asignan como referencias, igual que al crear.
+    // Si se indica versionEsperada (If-Match), debe coincidir con la actual; las actualizaciones concurrentes
+    // que no la indiquen las detecta el bloqueo optimista al guardar
+    private TopicoResponseDTO aplicarCambios(Long id, String titulo, String mensaje, Long autorId, Long cursoId,
+                                             Long versionEsperada) {
+        Topico topico = topicoRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico no encontrado con ID: " + id));
+        if (versionEsperada != null && !versionEsperada.equals(topico.getVersion())) {
+            throw new PrecondicionFallidaException("El tópico fue modificado; versión actual: " + topico.getVersion());
         }
         
-        // Buscar el autor
-        Usuario autor = usuarioRepository.findById(topicoRequest.autorId())
-                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + topicoRequest.autorId()));
-        
-        // Buscar el curso
-        Curso curso = cursoRepository.findById(topicoRequest.cursoId())
-                .orElseThrow(() -> new EntityNotFoundException("Curso no encontrado con ID: " + topicoRequest.cursoId()));
-        
-        // Actualizar los campos del tópico
-        topicoExistente.setTitulo(topicoRequest.titulo());
-        topicoExistente.setMensaje(topicoRequest.mensaje());
-        topicoExistente.setAutor(autor);
-        topicoExistente.setCurso(curso);
+        // Actualizar los campos que cambian
+        Long cursoAnterior = topico.getCurso().getId();
+        boolean cambio = false;
+        if (titulo != null && !titulo.equals(topico.getTitulo())) {
+            topico.setTitulo(titulo);
+            cambio = true;
+        }
+        if (mensaje != null && !mensaje.equals(topico.getMensaje())) {
+            topico.setMensaje(mensaje);
+            cambio = true;
+        }
+        if (autorId != null && !autorId.equals(topico.getAutor().getId())) {
+            topico.setAutor(usuarioRepository.getReferenceById(autorId));
+            cambio = true;
+        }
+        if (cursoId != null && !cursoId.equals(cursoAnterior)) {
+            topico.setCurso(cursoRepository.getReferenceById(cursoId));
+            cambio = true;
+        }
+        if (!cambio) {
+            return convertirATopicoResponseDTO(topico);
+        }
         
         // Guardar los cambios
-        Topico topicoActualizado = topicoRepository.save(topicoExistente);
+        Topico topicoActualizado = guardar(topico);
+        // La fecha de creación no cambia; el estado tampoco, y si otra transacción lo cambió
+        // el bloqueo optimista ya hizo fallar el guardado
+        estadisticasService.moverCurso(cursoAnterior, topicoActualizado.getCurso().getId(),
+                topicoActualizado.getFechaCreacion(), topicoActualizado.getStatus());
+        eventoTopicoRepository.insertar(List.of(evento(TipoEventoTopico.ACTUALIZADO, topicoActualizado)));
+        versionColeccionRepository.incrementar(VersionColeccion.TOPICOS);
+        indexarAlConfirmar(List.of(id));
         
         // Convertir a DTO de respuesta
-        return convertirATopicoResponseDTO(topicoActualizado);
+        TopicoResponseDTO respuesta = convertirATopicoResponseDTO(topicoActualizado);
+        listasTopicos.guardadosAlConfirmar(List.of(respuesta));
+        return respuesta;
     }
     
-    // Eliminar un tópico por ID
-    @Transactional
-    public void eliminarTopico(Long id) {
-        // Verificar si el tópico existe
-        if (!topicoRepository.findById(id).isPresent()) {
-            throw new EntityNotFoundException("Tópico no encontrado con ID: " + id);
+    // Guarda y sincroniza con la base para traducir las restricciones que validan la escritura: el índice único
+    // de huella (otra transacción pudo guardar el mismo contenido) y las claves foráneas de autor y curso.
+    // La clave foránea se reconoce por su columna y no por su nombre, que en bases anteriores a Flyway
+    // lo generó Hibernate
+    private Topico guardar(Topico topico) {
+        try {
+            return topicoRepository.saveAndFlush(topico);
+        } catch (DataIntegrityViolationException e) {
+            Matcher claveForanea = CLAVE_FORANEA.matcher(String.valueOf(e.getMostSpecificCause().getMessage()));
+            if (!claveForanea.find()) {
+                throw new IllegalArgumentException(MENSAJE_DUPLICADO);
+            }
+            if (claveForanea.group(1).equalsIgnoreCase("autor_id")) {
+                throw new EntityNotFoundException("Usuario no encontrado con ID: " + topico.getAutor().getId());
+            }
+            throw new EntityNotFoundException("Curso no encontrado con ID: " + topico.getCurso().getId());
         }
-        
-        // Eliminar el tópico
-        topicoRepository.deleteById(id);
     }
     
-    private TopicoResponseDTO convertirATopicoResponseDTO(Topico topico) {
+    // Evento para la bandeja de salida; se inserta en la misma transacción que el cambio y después de
+    // escribir el tópico, así los eventos de un mismo tópico se numeran en el orden de sus escrituras
+    private static EventoTopicoDTO evento(TipoEventoTopico tipo, Topico topico) {
+        return new EventoTopicoDTO(null, tipo, topico.getId(), LocalDateTime.now(), new TopicoEventoDTO(
+                topico.getTitulo(), topico.getMensaje(), topico.getStatus(), topico.getAutor().getId(),
+                topico.getCurso().getId(), topico.getFechaCreacion(), topico.getVersion()));
+    }
+    
+    // Después del commit: si la transacción se revierte el índice no cambia. Solo se encolan los IDs; el
+    // indexador los lee y los escribe en el índice en su propio hilo, sin la conexión de esta petición
+    private void indexarAlConfirmar(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buscadorTopicos.encolar(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                buscadorTopicos.encolar(ids);
+            }
+        });
+    }
+    
+    // Resuelve el filtro por nombre contra la tabla de cursos (pequeña) para que la consulta
+    // sobre Topico filtre por curso_id y pueda usar el índice (curso_id, fechaCreacion, id)
+    private List<Long> resolverCursoIds(String nombreCurso, ModoBusquedaCurso modo) {
+        return switch (modo) {
+            case EXACTO -> cursoRepository.buscarIdsPorNombre(nombreCurso);
+            case PREFIJO -> cursoRepository.buscarIdsPorNombreQueEmpiezaCon(nombreCurso);
+            case CONTIENE -> cursoRepository.buscarIdsPorNombreQueContiene(nombreCurso);
+        };
+    }
+    
+    private static LocalDateTime inicioDeAnio(int anio) {
+        return LocalDate.of(anio, 1, 1).atStartOfDay();
+    }
+    
+    // Visibilidad de paquete para poder medirlo desde los benchmarks (src/jmh)
+    TopicoResponseDTO convertirATopicoResponseDTO(Topico topico) {
         return new TopicoResponseDTO(
                 topico.getId(),
                 topico.getTitulo(),
@@ -156,7 +524,10 @@ public class TopicoService {
                 topico.getFechaCreacion(),
                 topico.getStatus(),
                 topico.getAutor().getNombre(),
-                topico.getCurso().getNombre()
+                topico.getCurso().getNombre(),
+                topico.getRespuestasCount(),
+                topico.getUltimaRespuesta(),
+                topico.getVersion()
         );
     }
 }
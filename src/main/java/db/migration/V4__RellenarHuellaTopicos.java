@@ -0,0 +1,80 @@
+package db.migration;
+
+import com.example.demo.model.Topico;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rellena la huella de los tópicos existentes en lotes ordenados por id, usando el mismo
+ * cálculo que la entidad. Cada lote se confirma por separado para no mantener una
+ * transacción larga sobre toda la tabla; si se interrumpe, se puede volver a ejecutar.
+ * Los tópicos cuyo contenido ya existe (duplicados históricos) conservan la huella en NULL.
+ */
+public class V4__RellenarHuellaTopicos extends BaseJavaMigration {
+    
+    private static final int TAMANO_LOTE = 500;
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexion = context.getConnection();
+        long ultimoId = 0;
+        List<Fila> lote;
+        while (!(lote = leerLote(conexion, ultimoId)).isEmpty()) {
+            actualizarLote(conexion, lote);
+            ultimoId = lote.get(lote.size() - 1).id();
+        }
+    }
+    
+    private List<Fila> leerLote(Connection conexion, long ultimoId) throws SQLException {
+        List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+        try (PreparedStatement consulta = conexion.prepareStatement(
+                "SELECT id, titulo, mensaje FROM topico WHERE id > ? AND huella IS NULL ORDER BY id LIMIT " + TAMANO_LOTE)) {
+            consulta.setLong(1, ultimoId);
+            try (ResultSet filas = consulta.executeQuery()) {
+                while (filas.next()) {
+                    lote.add(new Fila(filas.getLong("id"), Topico.calcularHuella(filas.getString("titulo"), filas.getString("mensaje"))));
+                }
+            }
+        }
+        return lote;
+    }
+    
+    private void actualizarLote(Connection conexion, List<Fila> lote) throws SQLException {
+        Set<String> huellasDelLote = new HashSet<>();
+        try (PreparedStatement existe = conexion.prepareStatement("SELECT 1 FROM topico WHERE huella = ? LIMIT 1");
+             PreparedStatement actualizar = conexion.prepareStatement("UPDATE topico SET huella = ? WHERE id = ?")) {
+            for (Fila fila : lote) {
+                if (!huellasDelLote.add(fila.huella()) || existeHuella(existe, fila.huella())) {
+                    continue;
+                }
+                actualizar.setString(1, fila.huella());
+                actualizar.setLong(2, fila.id());
+                actualizar.addBatch();
+            }
+            actualizar.executeBatch();
+        }
+    }
+    
+    private boolean existeHuella(PreparedStatement existe, String huella) throws SQLException {
+        existe.setString(1, huella);
+        try (ResultSet resultado = existe.executeQuery()) {
+            return resultado.next();
+        }
+    }
+    
+    private record Fila(long id, String huella) {}
+}
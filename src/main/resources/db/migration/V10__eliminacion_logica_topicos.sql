@@ -0,0 +1,7 @@
+-- Eliminación lógica de tópicos: DELETE /topicos/{id} marca fecha_eliminacion con un UPDATE de una fila
+-- y todas las consultas de Topico la excluyen (@SQLRestriction). PurgaTopicosEliminados borra después
+-- las respuestas y el tópico por lotes. El índice sirve a la purga, que recorre los eliminados por fecha.
+
+ALTER TABLE topico ADD COLUMN fecha_eliminacion DATETIME(6);
+
+CREATE INDEX idx_topico_fecha_eliminacion ON topico (fecha_eliminacion, id);
@@ -0,0 +1,23 @@
+-- fecha_creacion obligatoria en topico y respuesta. La paginación por cursor compara (fecha_creacion, id)
+-- y una fila con fecha NULL no cumple ninguna de las dos condiciones: nunca aparecía en las páginas.
+-- Las filas antiguas sin fecha toman la de su primera respuesta (o la de la migración si no tienen),
+-- y las respuestas sin fecha la de su tópico. Las estadísticas de esos tópicos las agrega la
+-- reconciliación periódica de EstadisticasService.
+
+UPDATE topico t
+SET fecha_creacion = COALESCE(
+        (SELECT MIN(r.fecha_creacion) FROM respuesta r WHERE r.topico_id = t.id),
+        CURRENT_TIMESTAMP(6))
+WHERE t.fecha_creacion IS NULL;
+
+UPDATE respuesta r
+SET fecha_creacion = (SELECT t.fecha_creacion FROM topico t WHERE t.id = r.topico_id)
+WHERE r.fecha_creacion IS NULL;
+
+UPDATE topico t
+SET ultima_respuesta = (SELECT MAX(r.fecha_creacion) FROM respuesta r WHERE r.topico_id = t.id)
+WHERE t.ultima_respuesta IS NULL AND t.respuestas_count > 0;
+
+ALTER TABLE topico MODIFY fecha_creacion DATETIME(6) NOT NULL;
+
+ALTER TABLE respuesta MODIFY fecha_creacion DATETIME(6) NOT NULL;
@@ -0,0 +1,43 @@
+-- La versión de la colección de tópicos se reparte en 32 filas (particiones). Cada escritura incrementa
+-- una al azar y la ETag de los listados es la suma. Con una sola fila todas las escrituras de tópicos y
+-- respuestas esperaban el bloqueo de esa fila hasta el commit; ahora dos escrituras solo se esperan si
+-- eligen la misma partición. La suma sigue creciendo con cada escritura confirmada, en cualquier orden.
+
+ALTER TABLE version_coleccion ADD COLUMN particion INT NOT NULL DEFAULT 0;
+
+ALTER TABLE version_coleccion DROP PRIMARY KEY;
+
+ALTER TABLE version_coleccion ADD PRIMARY KEY (nombre, particion);
+
+INSERT INTO version_coleccion (nombre, particion, version) VALUES
+    ('topicos', 1, 0),
+    ('topicos', 2, 0),
+    ('topicos', 3, 0),
+    ('topicos', 4, 0),
+    ('topicos', 5, 0),
+    ('topicos', 6, 0),
+    ('topicos', 7, 0),
+    ('topicos', 8, 0),
+    ('topicos', 9, 0),
+    ('topicos', 10, 0),
+    ('topicos', 11, 0),
+    ('topicos', 12, 0),
+    ('topicos', 13, 0),
+    ('topicos', 14, 0),
+    ('topicos', 15, 0),
+    ('topicos', 16, 0),
+    ('topicos', 17, 0),
+    ('topicos', 18, 0),
+    ('topicos', 19, 0),
+    ('topicos', 20, 0),
+    ('topicos', 21, 0),
+    ('topicos', 22, 0),
+    ('topicos', 23, 0),
+    ('topicos', 24, 0),
+    ('topicos', 25, 0),
+    ('topicos', 26, 0),
+    ('topicos', 27, 0),
+    ('topicos', 28, 0),
+    ('topicos', 29, 0),
+    ('topicos', 30, 0),
+    ('topicos', 31, 0);
@@ -0,0 +1,24 @@
+-- Entrega de la bandeja de salida por destino: cada destino recibe los eventos que todavía no tienen su fila
+-- en evento_topico_entrega, así uno que falla no frena ni duplica a los demás. El evento se borra cuando
+-- todos los destinos lo recibieron. La clave empieza por evento_id: sirve a la búsqueda de pendientes de
+-- un destino (evento_id, destino) y al borrado de las entregas de un evento.
+
+CREATE TABLE evento_topico_entrega (
+    evento_id BIGINT NOT NULL,
+    destino VARCHAR(50) NOT NULL,
+    PRIMARY KEY (evento_id, destino)
+);
+
+-- Eventos cuya carga no se puede leer: no se pueden entregar a ningún destino y bloquearían la bandeja,
+-- así que el relay los mueve aquí con el motivo para revisarlos a mano
+
+CREATE TABLE evento_topico_descartado (
+    id BIGINT NOT NULL,
+    topico_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    carga TEXT,
+    fecha_creacion DATETIME(6) NOT NULL,
+    motivo VARCHAR(500) NOT NULL,
+    fecha_descarte DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
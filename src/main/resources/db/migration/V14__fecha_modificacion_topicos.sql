@@ -0,0 +1,8 @@
+-- Cada instancia tiene su propio índice de búsqueda y solo conoce las escrituras que atendió. Para recoger
+-- las demás, el buscador consulta cada pocos segundos los tópicos cuya fecha_modificacion avanzó. La pone
+-- la base en cada INSERT y UPDATE (JPA, lotes JDBC, eliminación lógica, SQL manual), sin que la aplicación
+-- tenga que recordarla. El índice sirve a esa consulta, que recorre por (fecha_modificacion, id).
+
+ALTER TABLE topico ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_topico_fecha_modificacion ON topico (fecha_modificacion, id);
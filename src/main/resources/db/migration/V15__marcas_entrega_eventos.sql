@@ -0,0 +1,15 @@
+-- Marca de entrega por destino: todos los eventos con id <= hasta_id ya los recibió el destino. Por debajo
+-- de la marca no se guardan entregas, así que las consultas del relay solo recorren lo que está por encima.
+-- Con un destino caído, la bandeja crece pero el destino que sí recibe no vuelve a recorrerla en cada pasada.
+-- La marca no pasa de los eventos recientes: un id menor todavía sin confirmar sería invisible.
+
+CREATE TABLE evento_topico_marca (
+    destino VARCHAR(50) NOT NULL,
+    hasta_id BIGINT NOT NULL,
+    PRIMARY KEY (destino)
+);
+
+-- Entregas de un destino por encima de su marca: el borrado de las que la marca ya cubre y los candidatos
+-- a borrar del destino más atrasado
+
+CREATE INDEX idx_evento_topico_entrega_destino ON evento_topico_entrega (destino, evento_id);
@@ -0,0 +1,51 @@
+-- Esquema inicial de ForoHub, equivalente al que ya existía antes de usar Flyway.
+-- En bases existentes se omite gracias a spring.flyway.baseline-on-migrate (línea base = 1).
+
+CREATE TABLE IF NOT EXISTS perfil (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(100) NOT NULL,
+    correo_electronico VARCHAR(150) NOT NULL,
+    contrasena VARCHAR(255) NOT NULL,
+    perfil_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuario_correo_electronico UNIQUE (correo_electronico),
+    CONSTRAINT fk_usuario_perfil FOREIGN KEY (perfil_id) REFERENCES perfil (id)
+);
+
+CREATE TABLE IF NOT EXISTS curso (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(150) NOT NULL,
+    categoria VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS topico (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    titulo VARCHAR(200) NOT NULL,
+    mensaje TEXT NOT NULL,
+    fecha_creacion DATETIME(6),
+    status ENUM('ABIERTO', 'CERRADO', 'EN_REVISION') DEFAULT 'ABIERTO',
+    autor_id BIGINT NOT NULL,
+    curso_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_topico_autor FOREIGN KEY (autor_id) REFERENCES usuario (id),
+    CONSTRAINT fk_topico_curso FOREIGN KEY (curso_id) REFERENCES curso (id)
+);
+
+CREATE TABLE IF NOT EXISTS respuesta (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    mensaje TEXT NOT NULL,
+    fecha_creacion DATETIME(6),
+    solucion BOOLEAN DEFAULT FALSE,
+    autor_id BIGINT NOT NULL,
+    topico_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_respuesta_autor FOREIGN KEY (autor_id) REFERENCES usuario (id),
+    CONSTRAINT fk_respuesta_topico FOREIGN KEY (topico_id) REFERENCES topico (id)
+);
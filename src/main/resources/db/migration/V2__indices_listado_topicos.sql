@@ -0,0 +1,10 @@
+-- Índices para los listados de tópicos:
+--  * filtro por curso (+ año) y paginación por cursor ordenada por (fecha_creacion, id)
+--  * filtro por año como rango semiabierto sobre fecha_creacion
+--  * resolución de nombres de curso a IDs en modo EXACTO / PREFIJO
+
+CREATE INDEX idx_topico_curso_fecha ON topico (curso_id, fecha_creacion, id);
+
+CREATE INDEX idx_topico_fecha ON topico (fecha_creacion, id);
+
+CREATE INDEX idx_curso_nombre ON curso (nombre);
@@ -0,0 +1,7 @@
+-- Huella del contenido (SHA-256 de título + mensaje normalizados) para detectar duplicados
+-- sin comparar la columna TEXT. Queda NULL hasta que V4 la rellena; un índice único admite
+-- varios NULL, así que los duplicados históricos no impiden crearlo.
+
+ALTER TABLE topico ADD COLUMN huella VARCHAR(64);
+
+CREATE UNIQUE INDEX uk_topico_huella ON topico (huella);
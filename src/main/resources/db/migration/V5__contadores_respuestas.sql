@@ -0,0 +1,14 @@
+-- Respuestas por tópico:
+--  * contador y fecha de la última respuesta desnormalizados en topico, para que los listados
+--    no cuenten filas de respuesta; se mantienen con UPDATE atómicos al crear o eliminar respuestas
+--  * índice para cargar las respuestas de un tópico por cursor ordenado por (fecha_creacion, id)
+
+ALTER TABLE topico ADD COLUMN respuestas_count INT NOT NULL DEFAULT 0;
+
+ALTER TABLE topico ADD COLUMN ultima_respuesta DATETIME(6);
+
+UPDATE topico t
+SET respuestas_count = (SELECT COUNT(*) FROM respuesta r WHERE r.topico_id = t.id),
+    ultima_respuesta = (SELECT MAX(r.fecha_creacion) FROM respuesta r WHERE r.topico_id = t.id);
+
+CREATE INDEX idx_respuesta_topico_fecha ON respuesta (topico_id, fecha_creacion, id);
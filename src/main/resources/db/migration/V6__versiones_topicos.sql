@@ -0,0 +1,15 @@
+-- Versiones para peticiones condicionales (ETag) y bloqueo optimista:
+--  * version en topico: la incrementa Hibernate (@Version) al actualizar la entidad y los UPDATE
+--    atómicos de TopicoRepository al cambiar contadores o estado
+--  * version_coleccion: una fila por colección; se incrementa con cada escritura sobre sus elementos,
+--    así la ETag de un listado se obtiene sin leer la tabla topico
+
+ALTER TABLE topico ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE version_coleccion (
+    nombre VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (nombre)
+);
+
+INSERT INTO version_coleccion (nombre, version) VALUES ('topicos', 0);
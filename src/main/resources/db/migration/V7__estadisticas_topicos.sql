@@ -0,0 +1,18 @@
+-- Estadísticas materializadas: cantidad de tópicos por curso, año de creación y estado.
+-- TopicoService y RespuestaService aplican la diferencia de cada escritura en la misma transacción,
+-- y una tarea periódica las recalcula por lotes de cursos. Sin clave foránea a curso: la lectura
+-- une con curso y la reconciliación quita las filas de cursos que ya no existen
+
+CREATE TABLE estadistica_topicos (
+    curso_id BIGINT NOT NULL,
+    anio INT NOT NULL,
+    status ENUM('ABIERTO', 'CERRADO', 'EN_REVISION') NOT NULL,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (curso_id, anio, status)
+);
+
+INSERT INTO estadistica_topicos (curso_id, anio, status, total)
+SELECT curso_id, YEAR(fecha_creacion), status, COUNT(*)
+FROM topico
+WHERE fecha_creacion IS NOT NULL AND status IS NOT NULL
+GROUP BY curso_id, YEAR(fecha_creacion), status;
@@ -0,0 +1,12 @@
+-- Bandeja de salida (outbox) de cambios de tópicos: TopicoService inserta un evento en la misma
+-- transacción que el cambio y RelayEventosTopicos los publica en orden de id y los borra al entregarlos.
+-- Sin clave foránea a topico: el evento de eliminación sobrevive al tópico
+
+CREATE TABLE evento_topico (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    topico_id BIGINT NOT NULL,
+    tipo ENUM('CREADO', 'ACTUALIZADO', 'ELIMINADO') NOT NULL,
+    carga TEXT,
+    fecha_creacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
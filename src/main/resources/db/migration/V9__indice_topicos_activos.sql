@@ -0,0 +1,4 @@
+-- Lista de tópicos activos: los de respuesta más reciente, ordenados por (ultima_respuesta DESC, id DESC).
+-- El índice se recorre desde el final y la consulta se detiene al completar la lista.
+
+CREATE INDEX idx_topico_ultima_respuesta ON topico (ultima_respuesta, id);
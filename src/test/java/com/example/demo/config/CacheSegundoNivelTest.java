@@ -0,0 +1,107 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cuenta las sentencias SQL antes y después de calentar el caché de segundo nivel
+ * y comprueba que sus estadísticas se exponen.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class CacheSegundoNivelTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Autor cacheado", "cache@email.com", "secreto", null)).getId();
+        cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+        
+        // Empezar con el caché frío
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+    }
+    
+    @Test
+    void crearTopicoReutilizaAutorYCursoCacheados() throws Exception {
+        long enFrio = sentenciasAlCrear("Primer tópico");
+        long enCaliente = sentenciasAlCrear("Segundo tópico");
+        
+        // Los nombres de autor y curso de la respuesta salen del caché
+        assertThat(enCaliente).isEqualTo(enFrio - 2);
+        assertThat(statistics.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGION_CURSOS).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGION_USUARIOS).getHitCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void estadisticasDelCacheSeExponen() throws Exception {
+        sentenciasAlCrear("Con estadísticas");
+        sentenciasAlCrear("Con más estadísticas");
+        
+        mockMvc.perform(get("/test/cache/hibernate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.habilitada").value(true))
+                .andExpect(jsonPath("$.regiones.curso.escrituras").isNumber())
+                .andExpect(jsonPath("$.regiones.usuario.aciertos").isNumber())
+                .andExpect(jsonPath("$.consultasAciertos").isNumber());
+    }
+    
+    private long sentenciasAlCrear(String titulo) throws Exception {
+        statistics.clear();
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO(titulo, "Mensaje de " + titulo, autorId, cursoId))))
+                .andExpect(status().isCreated());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.config;
+
+import com.example.demo.config.LimitadorPeticiones.Grupo;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Límites chicos y sin reposición apreciable durante la prueba; cada prueba usa su propia IP
+ * para no compartir cubetas con las demás. El servidor real está para probar X-Forwarded-For,
+ * que lo resuelve Tomcat y no MockMvc.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "api.limite.habilitado=true",
+        "api.limite.login.capacidad=2",
+        "api.limite.login.por-segundo=0.001",
+        "api.limite.escritura.capacidad=1",
+        "api.limite.escritura.por-segundo=0.001",
+        "api.limite.lectura.capacidad=3",
+        "api.limite.lectura.por-segundo=0.001"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class LimitePeticionesTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    void lecturasSeRechazanAlAgotarLaCubetaDeLaIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(desde("10.0.0.1", get("/topicos/primeros10"))).andExpect(status().isOk());
+        }
+        
+        mockMvc.perform(desde("10.0.0.1", get("/topicos/primeros10")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Demasiadas solicitudes"));
+        // Otra IP tiene su propia cubeta
+        mockMvc.perform(desde("10.0.0.2", get("/topicos/primeros10"))).andExpect(status().isOk());
+    }
+    
+    @Test
+    void conTokenLaCubetaEsDelUsuarioYNoDeLaIp() throws Exception {
+        String tokenAna = token("limite.ana@email.com");
+        String tokenLuis = token("limite.luis@email.com");
+        
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(desde("10.0.1.1", get("/topicos/primeros10")).header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAna))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(desde("10.0.1.1", get("/topicos/primeros10")).header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAna))
+                .andExpect(status().isTooManyRequests());
+        
+        mockMvc.perform(desde("10.0.1.1", get("/topicos/primeros10")).header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenLuis))
+                .andExpect(status().isOk());
+        // La misma IP sin token tampoco se ve afectada
+        mockMvc.perform(desde("10.0.1.1", get("/topicos/primeros10"))).andExpect(status().isOk());
+    }
+    
+    @Test
+    void tokenInvalidoSeVerificaUnaSolaVezPorPeticion() throws Exception {
+        // Un token inválido no entra al caché de TokenService: cada verificación cuenta como un fallo
+        double antes = fallosCacheTokens();
+        mockMvc.perform(desde("10.0.5.1", get("/topicos/primeros10")).header(HttpHeaders.AUTHORIZATION, "Bearer no-es-un-jwt"))
+                .andExpect(status().isOk());
+        
+        assertThat(fallosCacheTokens() - antes).isEqualTo(1);
+    }
+    
+    @Test
+    void loginSeLimitaPorIpAunqueTraigaToken() throws Exception {
+        String token = token("limite.login@email.com");
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("10.0.2.1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().is(not(429)));
+        }
+        
+        mockMvc.perform(login("10.0.2.1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.mensaje").value(containsString("intente de nuevo")));
+    }
+    
+    @Test
+    void detrasDelBalanceadorLaCubetaEsDeLaIpDelCliente() {
+        // Todas las peticiones salen de 127.0.0.1, un proxy de confianza, como el balanceador
+        for (int i = 0; i < 2; i++) {
+            assertThat(loginDesde("203.0.113.7").getStatusCode().value()).isNotEqualTo(429);
+        }
+        assertThat(loginDesde("203.0.113.7").getStatusCode().value()).isEqualTo(429);
+        
+        assertThat(loginDesde("203.0.113.8").getStatusCode().value()).isNotEqualTo(429);
+        // Con un proxy intermedio cuenta la última dirección que no es de confianza
+        assertThat(loginDesde("198.51.100.1, 203.0.113.9").getStatusCode().value()).isNotEqualTo(429);
+    }
+    
+    @Test
+    void escriturasTienenUnaCubetaSeparadaDeLasLecturas() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(desde("10.0.3.1", get("/topicos/primeros10"))).andExpect(status().isOk());
+        }
+        
+        // El cuerpo vacío no pasa la validación: lo que importa es que no lo frena el límite de lecturas
+        mockMvc.perform(desde("10.0.3.1", post("/topicos")).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(desde("10.0.3.1", post("/topicos")).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isTooManyRequests());
+    }
+    
+    @Test
+    void conElMaximoDeClavesCadaClaveNuevaTieneSuPropiaCubeta() {
+        LimitadorPeticiones limitador = new LimitadorPeticiones();
+        for (String grupo : new String[]{"Login", "Escritura", "Lectura"}) {
+            ReflectionTestUtils.setField(limitador, "capacidad" + grupo, 1L);
+            ReflectionTestUtils.setField(limitador, "porSegundo" + grupo, 0.001);
+        }
+        ReflectionTestUtils.setField(limitador, "maximoClaves", 10L);
+        limitador.inicializar();
+        
+        // Muchas más claves que el máximo: ninguna queda frenada por las anteriores
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(limitador.consumir(Grupo.LOGIN, "ip:10.1." + i / 256 + "." + i % 256)).isZero();
+        }
+        assertThat(limitador.consumir(Grupo.LOGIN, "ip:10.1.3.231")).isPositive();
+    }
+    
+    @Test
+    void actuatorNoSeLimita() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(desde("10.0.4.1", get("/actuator/health"))).andExpect(status().isOk());
+        }
+    }
+    
+    private MockHttpServletRequestBuilder login(String ip) {
+        return desde(ip, post("/auth/login")).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"correoElectronico\":\"nadie@email.com\",\"contrasena\":\"secreto123\"}");
+    }
+    
+    private ResponseEntity<String> loginDesde(String reenviadoPara) {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setContentType(MediaType.APPLICATION_JSON);
+        cabeceras.set("X-Forwarded-For", reenviadoPara);
+        return restTemplate.exchange("/auth/login", HttpMethod.POST,
+                new HttpEntity<>("{\"correoElectronico\":\"nadie@email.com\",\"contrasena\":\"secreto123\"}", cabeceras), String.class);
+    }
+    
+    private static MockHttpServletRequestBuilder desde(String ip, MockHttpServletRequestBuilder peticion) {
+        return peticion.with(request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        });
+    }
+    
+    private double fallosCacheTokens() {
+        return meterRegistry.get("cache.gets").tag("cache", "tokens-verificados").tag("result", "miss").functionCounter().count();
+    }
+    
+    private String token(String correo) {
+        Usuario usuario = (Usuario) usuarioRepository.findByCorreoElectronico(correo);
+        if (usuario == null) {
+            usuario = usuarioRepository.save(new Usuario(null, "Límite", correo, "secreto", null));
+        }
+        return tokenService.generateToken(usuario);
+    }
+}
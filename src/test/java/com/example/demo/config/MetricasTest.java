@@ -0,0 +1,118 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.TokenService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricasTest {
+    
+    private static final String CORREO = "metricas@email.com";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    private Usuario usuario;
+    
+    private Long topicoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        Usuario existente = (Usuario) usuarioRepository.findByCorreoElectronico(CORREO);
+        usuario = existente != null ? existente
+                : usuarioRepository.save(new Usuario(null, "Métricas", CORREO, "secreto", null));
+        Curso curso = cursoRepository.save(new Curso(null, "Observabilidad", "DevOps"));
+        
+        Topico topico = new Topico();
+        topico.setTitulo("Métricas " + System.nanoTime());
+        topico.setMensaje("¿Qué mide Micrometer?");
+        topico.setAutor(usuario);
+        topico.setCurso(curso);
+        topicoId = topicoRepository.save(topico).getId();
+    }
+    
+    @Test
+    void cadaPeticionRegistraSusSentenciasSql() throws Exception {
+        long resumenAntes = cantidad(meterRegistry.find("forohub.sql.sentencias").tags("method", "GET", "uri", "/topicos/{id}").summary());
+        long timerAntes = cantidad(meterRegistry.find("http.server.requests")
+                .tags("uri", "/topicos/{id}", "status", "304", "sql.sentencias", "1").timer());
+        
+        // Revalidación con la ETag vigente: solo se lee la versión del tópico (sin token, SecurityFilter no consulta la base)
+        mockMvc.perform(get("/topicos/" + topicoId).with(user("metricas")).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+        
+        DistributionSummary resumen = meterRegistry.get("forohub.sql.sentencias").tags("method", "GET", "uri", "/topicos/{id}").summary();
+        assertThat(resumen.count()).isEqualTo(resumenAntes + 1);
+        assertThat(resumen.max()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests")
+                .tags("uri", "/topicos/{id}", "status", "304", "sql.sentencias", "1").timer().count()).isEqualTo(timerAntes + 1);
+    }
+    
+    @Test
+    void prometheusExponeLasMetricasDeCadaCapa() throws Exception {
+        mockMvc.perform(get("/topicos/primeros10").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.generateToken(usuario)))
+                .andExpect(status().isOk());
+        
+        String metricas = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(metricas)
+                .contains("http_server_requests_seconds_bucket{")
+                .containsPattern("forohub_servicio_topicos_seconds_bucket\\{[^}]*method=\"obtenerLista\"")
+                .containsPattern("forohub_seguridad_autenticacion_seconds_count\\{[^}]*resultado=\"autenticado\"")
+                .contains("forohub_token_generacion_seconds_count")
+                .contains("forohub_token_validacion_seconds_count")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"principales\"")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"tokens-verificados\"")
+                .contains("forohub_sql_sentencias_count")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_pending")
+                .contains("hikaricp_connections_acquire_seconds_count");
+    }
+    
+    private static long cantidad(DistributionSummary resumen) {
+        return resumen != null ? resumen.count() : 0;
+    }
+    
+    private static long cantidad(Timer timer) {
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enrutamiento a réplicas con dos bases H2 en memoria como réplicas del primario (la base de los demás
+ * tests) y una tercera URL que no responde. Las réplicas no reciben las escrituras: tienen un tópico que
+ * el primario no tiene, y así se ve de qué base salió cada lectura.
+ */
+@SpringBootTest(properties = {
+        "api.replicas.urls=" + ReplicasLecturaTest.REPLICA_A + "," + ReplicasLecturaTest.REPLICA_B + "," + ReplicasLecturaTest.REPLICA_CAIDA,
+        "api.replicas.connection-timeout=500ms",
+        "api.replicas.ventana-escritura=1s"
+})
+@AutoConfigureMockMvc
+class ReplicasLecturaTest {
+    
+    static final String REPLICA_A = "jdbc:h2:mem:ForoHubReplicaA;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:ForoHubReplicaB;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_CAIDA = "jdbc:h2:tcp://localhost:1/caida";
+    
+    private static final long ID_SOLO_EN_REPLICAS = 900_001L;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    @Qualifier("dataSourcePrimario")
+    private DataSource primario;
+    
+    @Autowired
+    private DataSourceReplicas dataSourceReplicas;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    // Antes de levantar el contexto: las réplicas tienen el esquema y un tópico propio cada una
+    @BeforeAll
+    static void prepararReplicas() {
+        prepararReplica(REPLICA_A, "Solo en la réplica A");
+        prepararReplica(REPLICA_B, "Solo en la réplica B");
+    }
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Escritor", "replicas@email.com", "secreto", null)).getId();
+        cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+    }
+    
+    @Test
+    void lecturasSeRepartenEntreLasReplicasSanas() throws Exception {
+        Set<String> titulos = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            titulos.add(leer("lector", ID_SOLO_EN_REPLICAS).titulo());
+        }
+        
+        assertThat(titulos).containsExactlyInAnyOrder("Solo en la réplica A", "Solo en la réplica B");
+        assertThat(conexiones("replica-0")).isGreaterThan(0);
+        assertThat(conexiones("replica-1")).isGreaterThan(0);
+        // La réplica caída quedó fuera del reparto en la verificación al arrancar
+        assertThat(conexiones("replica-2")).isZero();
+    }
+    
+    @Test
+    void escrituraVaAlPrimarioYSuAutorLaLeeDuranteLaVentana() throws Exception {
+        String cuerpo = mockMvc.perform(post("/topicos").with(user("escritor"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Recién escrito", "Mensaje", autorId, cursoId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(cuerpo, TopicoResponseDTO.class).id();
+        
+        assertThat(contarTopicos(primario, id)).isEqualTo(1);
+        assertThat(contarTopicos(new DriverManagerDataSource(REPLICA_A, "sa", ""), id)).isZero();
+        assertThat(contarTopicos(new DriverManagerDataSource(REPLICA_B, "sa", ""), id)).isZero();
+        
+        // El autor lee del primario; otro usuario lee de una réplica, que todavía no tiene el tópico
+        assertThat(leer("escritor", id).titulo()).isEqualTo("Recién escrito");
+        mockMvc.perform(get("/topicos/" + id).with(user("otro"))).andExpect(status().isNotFound());
+        
+        // Pasada la ventana el autor vuelve a las réplicas
+        Thread.sleep(1_500);
+        mockMvc.perform(get("/topicos/" + id).with(user("escritor"))).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void conexionConCredencialesSeEnrutaComoSinEllas() throws Exception {
+        // Las credenciales configuradas llevan a una réplica, que tiene el tópico que el primario no tiene
+        try (Connection conexion = dataSourceReplicas.getConnection("sa", "")) {
+            assertThat(contarTopicos(new SingleConnectionDataSource(conexion, true), ID_SOLO_EN_REPLICAS)).isEqualTo(1);
+        }
+        // Otras credenciales van al primario; su pool de Hikari no las admite
+        assertThatThrownBy(() -> dataSourceReplicas.getConnection("otro", "clave")).isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+    
+    private TopicoResponseDTO leer(String usuario, Long id) throws Exception {
+        String cuerpo = mockMvc.perform(get("/topicos/" + id).with(user(usuario)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, TopicoResponseDTO.class);
+    }
+    
+    private double conexiones(String destino) {
+        Counter contador = meterRegistry.find("forohub.replicas.conexiones").tag("destino", destino).counter();
+        return contador != null ? contador.count() : 0;
+    }
+    
+    private static int contarTopicos(DataSource dataSource, Long id) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM topico WHERE id = ?", Integer.class, id);
+    }
+    
+    private static void prepararReplica(String url, String titulo) {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbc.update("DELETE FROM topico");
+        jdbc.update("DELETE FROM usuario");
+        jdbc.update("DELETE FROM curso");
+        jdbc.update("INSERT INTO usuario (id, nombre, correo_electronico, contrasena) VALUES (?, 'Replicado', 'replica@email.com', 'secreto')",
+                ID_SOLO_EN_REPLICAS);
+        jdbc.update("INSERT INTO curso (id, nombre, categoria) VALUES (?, 'Réplicas', 'Bases de datos')", ID_SOLO_EN_REPLICAS);
+        jdbc.update("INSERT INTO topico (id, titulo, mensaje, fecha_creacion, status, autor_id, curso_id) VALUES (?, ?, 'Mensaje', CURRENT_TIMESTAMP, 'ABIERTO', ?, ?)",
+                ID_SOLO_EN_REPLICAS, titulo, ID_SOLO_EN_REPLICAS, ID_SOLO_EN_REPLICAS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityFilterTest {
+    
+    private static final String CORREO = "principal@email.com";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private CachePrincipales cachePrincipales;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    private Usuario usuario;
+    
+    private String token;
+    
+    @BeforeEach
+    void prepararUsuario() {
+        Usuario existente = (Usuario) usuarioRepository.findByCorreoElectronico(CORREO);
+        usuario = existente != null ? existente
+                : usuarioRepository.save(new Usuario(null, "Principal", CORREO, "secreto", null));
+        token = tokenService.generateToken(usuario);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void peticionesAutenticadasNoConsultanElUsuarioConCacheCaliente() throws Exception {
+        mockMvc.perform(get("/topicos/primeros10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        statistics.clear();
+        long aciertosAntes = cachePrincipales.estadisticas().hitCount();
+        mockMvc.perform(get("/topicos/primeros10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        long sentenciasConToken = statistics.getPrepareStatementCount();
+        
+        // Misma petición sin pasar por SecurityFilter: solo las sentencias del propio endpoint
+        statistics.clear();
+        mockMvc.perform(get("/topicos/primeros10").with(user(usuario)))
+                .andExpect(status().isOk());
+        
+        assertThat(sentenciasConToken).isEqualTo(statistics.getPrepareStatementCount());
+        assertThat(cachePrincipales.estadisticas().hitCount()).isEqualTo(aciertosAntes + 1);
+    }
+    
+    @Test
+    void actualizarUsuarioInvalidaLaCache() throws Exception {
+        mockMvc.perform(get("/topicos/primeros10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        usuario.setNombre("Principal actualizado");
+        usuario = usuarioRepository.save(usuario);
+        
+        long fallosAntes = cachePrincipales.estadisticas().missCount();
+        mockMvc.perform(get("/topicos/primeros10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        assertThat(cachePrincipales.estadisticas().missCount()).isEqualTo(fallosAntes + 1);
+    }
+    
+    @Test
+    void exportacionConTokenCompletaElDespachoAsincrono() throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/topicos/export").header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void tokenInvalidoNoConsultaLaBase() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/topicos/primeros10").header("Authorization", "Bearer no-es-un-token"))
+                .andExpect(status().isForbidden());
+        
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.AuthenticationDTO;
+import com.example.demo.dto.RegisterDTO;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.EjecutorContrasenas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticationControllerTest {
+    
+    private static final String CORREO = "autenticacion@email.com";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private EjecutorContrasenas ejecutorContrasenas;
+    
+    @BeforeEach
+    void borrarUsuario() {
+        Usuario existente = (Usuario) usuarioRepository.findByCorreoElectronico(CORREO);
+        if (existente != null) {
+            usuarioRepository.delete(existente);
+        }
+    }
+    
+    @Test
+    void registroYLoginCompletanDeFormaAsincrona() throws Exception {
+        completar(post("/auth/register", new RegisterDTO("Autenticación", CORREO, "secreto123")))
+                .andExpect(status().isOk());
+        assertThat(contrasenaGuardada()).startsWith("$2a$10$");
+        
+        completar(post("/auth/login", new AuthenticationDTO(CORREO, "secreto123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        completar(post("/auth/login", new AuthenticationDTO(CORREO, "incorrecta")))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void loginConCostoAnteriorRecalculaElHash() throws Exception {
+        usuarioRepository.save(new Usuario(null, "Usuario antiguo", CORREO, new BCryptPasswordEncoder(4).encode("secreto123"), null));
+        
+        completar(post("/auth/login", new AuthenticationDTO(CORREO, "secreto123")))
+                .andExpect(status().isOk());
+        
+        String recalculada = contrasenaGuardada();
+        assertThat(recalculada).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("secreto123", recalculada)).isTrue();
+    }
+    
+    @Test
+    void poolDeContrasenasLlenoDevuelveTooManyRequests() throws Exception {
+        CountDownLatch iniciadas = new CountDownLatch(ejecutorContrasenas.hilos());
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            // Primero todos los hilos quedan tomados por una tarea bloqueada; después se llena la cola
+            llenarPool(iniciadas, liberar);
+            iniciadas.await();
+            llenarPool(iniciadas, liberar);
+            
+            mockMvc.perform(post("/auth/login", new AuthenticationDTO(CORREO, "secreto123")))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            liberar.countDown();
+        }
+    }
+    
+    private void llenarPool(CountDownLatch iniciadas, CountDownLatch liberar) {
+        while (true) {
+            try {
+                ejecutorContrasenas.ejecutar(() -> {
+                    iniciadas.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+    
+    private MockHttpServletRequestBuilder post(String url, Object cuerpo) throws Exception {
+        return MockMvcRequestBuilders.post(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cuerpo));
+    }
+    
+    private ResultActions completar(MockHttpServletRequestBuilder peticion) throws Exception {
+        MvcResult resultado = mockMvc.perform(peticion).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(resultado));
+    }
+    
+    private String contrasenaGuardada() {
+        return ((Usuario) usuarioRepository.findByCorreoElectronico(CORREO)).getContrasena();
+    }
+}
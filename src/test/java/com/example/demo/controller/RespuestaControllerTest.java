@@ -0,0 +1,212 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.RespuestaResponseDTO;
+import com.example.demo.dto.RespuestaSliceResponseDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.PurgaTopicosEliminados;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class RespuestaControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    private Long autorId;
+    
+    private Long topicoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Usuario autor = usuarioRepository.save(new Usuario(null, "Respondedor", "respuestas@email.com", "secreto", null));
+        autorId = autor.getId();
+        Curso curso = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación"));
+        
+        Topico topico = new Topico();
+        topico.setTitulo("Duda con respuestas");
+        topico.setMensaje("¿Alguien sabe?");
+        topico.setAutor(autor);
+        topico.setCurso(curso);
+        topicoId = topicoRepository.save(topico).getId();
+    }
+    
+    // Las demás clases de prueba borran tópicos sin conocer las respuestas ni los eliminados lógicamente
+    @AfterEach
+    void borrarRespuestas() {
+        respuestaRepository.deleteAll();
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void crearRespuestasActualizaLosContadoresDelTopico() throws Exception {
+        RespuestaResponseDTO primera = crearRespuesta("Primera");
+        RespuestaResponseDTO segunda = crearRespuesta("Segunda");
+        
+        TopicoResponseDTO topico = obtenerTopico();
+        assertThat(topico.respuestasCount()).isEqualTo(2);
+        assertThat(topico.ultimaRespuesta()).isEqualTo(segunda.fechaCreacion());
+        assertThat(primera.autorNombre()).isEqualTo("Respondedor");
+        
+        // Al eliminar la última, la fecha vuelve a la de la respuesta anterior
+        mockMvc.perform(delete("/topicos/{id}/respuestas/{respuestaId}", topicoId, segunda.id()))
+                .andExpect(status().isNoContent());
+        topico = obtenerTopico();
+        assertThat(topico.respuestasCount()).isEqualTo(1);
+        assertThat(topico.ultimaRespuesta()).isEqualTo(primera.fechaCreacion());
+    }
+    
+    @Test
+    void respuestasSeRecorrenPorCursorConUnaConsultaPorPagina() throws Exception {
+        List<Long> creadas = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            creadas.add(crearRespuesta("Respuesta " + i).id());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        List<Long> vistas = new ArrayList<>();
+        String cursor = "";
+        do {
+            statistics.clear();
+            String cuerpo = mockMvc.perform(get("/topicos/{id}/respuestas", topicoId).param("cursor", cursor).param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            
+            RespuestaSliceResponseDTO pagina = objectMapper.readValue(cuerpo, RespuestaSliceResponseDTO.class);
+            pagina.content().forEach(respuesta -> vistas.add(respuesta.id()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+        
+        assertThat(vistas).containsExactlyElementsOf(creadas);
+    }
+    
+    @Test
+    void marcarSolucionCierraElTopicoYDesmarcarLoReabre() throws Exception {
+        RespuestaResponseDTO primera = crearRespuesta("Primera");
+        RespuestaResponseDTO segunda = crearRespuesta("Segunda");
+        
+        mockMvc.perform(put("/topicos/{id}/respuestas/{respuestaId}/solucion", topicoId, primera.id()))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/topicos/{id}/respuestas/{respuestaId}/solucion", topicoId, segunda.id()))
+                .andExpect(status().isOk());
+        
+        // Solo la última marcada queda como solución
+        assertThat(respuestaRepository.findById(primera.id()).orElseThrow().getSolucion()).isFalse();
+        assertThat(respuestaRepository.findById(segunda.id()).orElseThrow().getSolucion()).isTrue();
+        assertThat(obtenerTopico().status()).isEqualTo(StatusTopico.CERRADO);
+        
+        mockMvc.perform(delete("/topicos/{id}/respuestas/{respuestaId}/solucion", topicoId, segunda.id()))
+                .andExpect(status().isOk());
+        assertThat(obtenerTopico().status()).isEqualTo(StatusTopico.ABIERTO);
+    }
+    
+    @Test
+    void respuestaDeOtroTopicoOTopicoInexistenteDevuelveNotFound() throws Exception {
+        RespuestaResponseDTO respuesta = crearRespuesta("Respuesta");
+        
+        mockMvc.perform(put("/topicos/{id}/respuestas/{respuestaId}/solucion", topicoId + 1000, respuesta.id()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/topicos/{id}/respuestas", topicoId + 1000))
+                .andExpect(status().isNotFound());
+        enviarRespuesta(topicoId + 1000, "Sin tópico").andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void eliminarTopicoOcultaSusRespuestasHastaLaPurga() throws Exception {
+        RespuestaResponseDTO primera = crearRespuesta("Primera");
+        crearRespuesta("Segunda");
+        
+        mockMvc.perform(delete("/topicos/{id}", topicoId)).andExpect(status().isNoContent());
+        
+        assertThat(topicoRepository.existsById(topicoId)).isFalse();
+        mockMvc.perform(get("/topicos/{id}/respuestas", topicoId)).andExpect(status().isNotFound());
+        enviarRespuesta(topicoId, "Tarde").andExpect(status().isNotFound());
+        mockMvc.perform(delete("/topicos/{id}/respuestas/{respuestaId}", topicoId, primera.id()))
+                .andExpect(status().isNotFound());
+        // Las respuestas siguen en la tabla hasta que la purga las borra
+        assertThat(respuestaRepository.count()).isEqualTo(2);
+        
+        purgaTopicosEliminados.purgar();
+        assertThat(respuestaRepository.count()).isZero();
+    }
+    
+    private RespuestaResponseDTO crearRespuesta(String mensaje) throws Exception {
+        String cuerpo = enviarRespuesta(topicoId, mensaje)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, RespuestaResponseDTO.class);
+    }
+    
+    private ResultActions enviarRespuesta(Long topico, String mensaje) throws Exception {
+        return mockMvc.perform(post("/topicos/{id}/respuestas", topico)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RespuestaRequestDTO(mensaje, autorId))));
+    }
+    
+    private TopicoResponseDTO obtenerTopico() throws Exception {
+        String cuerpo = mockMvc.perform(get("/topicos/{id}", topicoId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, TopicoResponseDTO.class);
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BusquedaSliceResponseDTO;
+import com.example.demo.dto.ResultadoBusquedaDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.BuscadorTopicos;
+import com.example.demo.service.PurgaTopicosEliminados;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerBusquedaTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private BuscadorTopicos buscadorTopicos;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Usuario autor = usuarioRepository.save(new Usuario(null, "Buscador", "busqueda@email.com", "secreto", null));
+        autorId = autor.getId();
+        Curso curso = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación"));
+        cursoId = curso.getId();
+        
+        // Las demás clases borran tópicos directamente en la base, sin pasar por el índice
+        buscadorTopicos.reconstruir();
+    }
+    
+    // Las demás clases de prueba borran tópicos con deleteAll, que no ve los eliminados lógicamente
+    @AfterEach
+    void purgarEliminados() {
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void resultadosOrdenadosPorRelevanciaConResaltado() throws Exception {
+        Long enMensaje = crear("Duda sobre seguridad", "No sé cómo hacer la configuración del filtro JWT").id();
+        Long enTitulo = crear("Configuración de Spring Security", "Necesito ayuda con el login").id();
+        crear("Consulta sobre JPA", "¿Cuándo usar LAZY?");
+        
+        // Sin tilde y en plural: el análisis quita tildes y reduce a la raíz
+        BusquedaSliceResponseDTO resultado = buscar("configuraciones", "", 10);
+        
+        assertThat(resultado.content()).extracting(ResultadoBusquedaDTO::id).containsExactly(enTitulo, enMensaje);
+        assertThat(resultado.content().get(0).tituloResaltado()).isEqualTo("<mark>Configuración</mark> de Spring Security");
+        assertThat(resultado.content().get(1).fragmento()).contains("<mark>configuración</mark>");
+        assertThat(resultado.content().get(1).tituloResaltado()).isEqualTo("Duda sobre seguridad");
+        assertThat(resultado.haySiguiente()).isFalse();
+    }
+    
+    @Test
+    void paginacionPorCursorRecorreTodosLosResultados() throws Exception {
+        List<TopicoRequestDTO> lote = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Distintas repeticiones del término dan puntajes distintos; varios empatan y se ordenan por id
+            lote.add(new TopicoRequestDTO("Hibernate " + i, "caché ".repeat(1 + i % 4) + "número " + i, autorId, cursoId));
+        }
+        mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk());
+        
+        Set<Long> vistos = new HashSet<>();
+        List<Float> puntajes = new ArrayList<>();
+        String cursor = "";
+        do {
+            BusquedaSliceResponseDTO pagina = buscar("cache", cursor, 7);
+            pagina.content().forEach(resultado -> {
+                assertThat(vistos.add(resultado.id())).isTrue();
+                puntajes.add(resultado.puntaje());
+            });
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+        
+        assertThat(vistos).hasSize(25);
+        assertThat(puntajes).isSortedAccordingTo((a, b) -> Float.compare(b, a));
+    }
+    
+    @Test
+    void actualizarYEliminarSeReflejanEnElIndice() throws Exception {
+        Long id = crear("Problema con Maven", "El build falla al compilar").id();
+        assertThat(buscar("maven", "", 10).content()).hasSize(1);
+        
+        mockMvc.perform(put("/topicos/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Problema con Gradle", "El build falla al compilar", autorId, cursoId))))
+                .andExpect(status().isOk());
+        assertThat(buscar("maven", "", 10).content()).isEmpty();
+        assertThat(buscar("gradle", "", 10).content()).extracting(ResultadoBusquedaDTO::id).containsExactly(id);
+        
+        mockMvc.perform(delete("/topicos/" + id)).andExpect(status().isNoContent());
+        assertThat(buscar("gradle", "", 10).content()).isEmpty();
+    }
+    
+    @Test
+    void elIndexadorAplicaLasEscriturasEnSegundoPlano() throws Exception {
+        Long id = crear("Indexado en segundo plano", "Lo aplica el hilo indexador").id();
+        
+        // Sin vaciar la cola desde la prueba: el hilo indexador toma el ID por su cuenta
+        long limite = System.currentTimeMillis() + 5_000;
+        List<ResultadoBusquedaDTO> encontrados;
+        do {
+            Thread.sleep(20);
+            encontrados = consultar("indexador", "", 10).content();
+        } while (encontrados.isEmpty() && System.currentTimeMillis() < limite);
+        
+        assertThat(encontrados).extracting(ResultadoBusquedaDTO::id).containsExactly(id);
+    }
+    
+    @Test
+    void reconstruirIndexaLoEscritoFueraDeLaApi() throws Exception {
+        Long borrado = crear("Tópico que se borrará", "Kubernetes en producción").id();
+        // Indexado antes del DELETE: si el indexador lo leyera después, lo quitaría del índice por su cuenta
+        buscadorTopicos.indexarPendientes();
+        jdbcTemplate.update("DELETE FROM topico WHERE id = ?", borrado);
+        jdbcTemplate.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                + "VALUES ('Importado por SQL', 'Kubernetes y Docker', CURRENT_TIMESTAMP, 'ABIERTO', ?, ?)", autorId, cursoId);
+        assertThat(buscar("kubernetes", "", 10).content()).extracting(ResultadoBusquedaDTO::id).containsExactly(borrado);
+        
+        assertThat(buscadorTopicos.reconstruir()).isEqualTo(1);
+        
+        assertThat(buscar("kubernetes", "", 10).content()).extracting(ResultadoBusquedaDTO::titulo)
+                .containsExactly("Importado por SQL");
+    }
+    
+    @Test
+    void sincronizarRecogeLoEscritoEnOtraInstancia() throws Exception {
+        Long eliminado = crear("Escrito en esta instancia", "Terraform en producción").id();
+        // La primera pasada también encola el tópico recién creado; se indexa antes de cambiarlo por SQL
+        buscadorTopicos.sincronizar();
+        buscadorTopicos.indexarPendientes();
+        
+        // Otra instancia, aquí SQL directo: este índice no se entera hasta sincronizar
+        jdbcTemplate.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                + "VALUES ('Escrito en otra instancia', 'Terraform y Ansible', CURRENT_TIMESTAMP, 'ABIERTO', ?, ?)", autorId, cursoId);
+        jdbcTemplate.update("UPDATE topico SET fecha_eliminacion = CURRENT_TIMESTAMP WHERE id = ?", eliminado);
+        assertThat(buscar("terraform", "", 10).content()).extracting(ResultadoBusquedaDTO::id).containsExactly(eliminado);
+        
+        buscadorTopicos.sincronizar();
+        
+        assertThat(buscar("terraform", "", 10).content()).extracting(ResultadoBusquedaDTO::titulo)
+                .containsExactly("Escrito en otra instancia");
+    }
+    
+    @Test
+    void consultaInvalidaDevuelveBadRequest() throws Exception {
+        mockMvc.perform(get("/topicos/search").param("q", " ")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/topicos/search").param("q", "x".repeat(201))).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/topicos/search").param("q", "java").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void consultaSoloConPalabrasVaciasNoDevuelveResultados() throws Exception {
+        crear("La guía de los que empiezan", "Para todos los de primer año");
+        
+        assertThat(buscar("de los que", "", 10).content()).isEmpty();
+    }
+    
+    private TopicoResponseDTO crear(String titulo, String mensaje) throws Exception {
+        String cuerpo = mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO(titulo, mensaje, autorId, cursoId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, TopicoResponseDTO.class);
+    }
+    
+    // La indexación es asíncrona: se vacía la cola antes de cada búsqueda
+    private BusquedaSliceResponseDTO buscar(String consulta, String cursor, int tamano) throws Exception {
+        buscadorTopicos.indexarPendientes();
+        return consultar(consulta, cursor, tamano);
+    }
+    
+    private BusquedaSliceResponseDTO consultar(String consulta, String cursor, int tamano) throws Exception {
+        String cuerpo = mockMvc.perform(get("/topicos/search").param("q", consulta).param("cursor", cursor)
+                        .param("size", String.valueOf(tamano)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, BusquedaSliceResponseDTO.class);
+    }
+}
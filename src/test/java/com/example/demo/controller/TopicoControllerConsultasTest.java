@@ -0,0 +1,172 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.TopicoSliceResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que los listados de tópicos se resuelvan con un número fijo de sentencias
+ * SQL por página, sin importar cuántas filas devuelvan (regresión de N+1). Cada petición
+ * incluye además la lectura de la versión que da la ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerConsultasTest {
+    
+    private static final int TOPICOS = 30;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    private Long primerTopicoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Curso[] cursos = {
+                cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")),
+                cursoRepository.save(new Curso(null, "Java Básico", "Programación"))
+        };
+        Usuario[] autores = new Usuario[3];
+        for (int i = 0; i < autores.length; i++) {
+            autores[i] = usuarioRepository.save(
+                    new Usuario(null, "Autor " + i, "autor" + i + "@email.com", "secreto", null));
+        }
+        for (int i = 0; i < TOPICOS; i++) {
+            Topico topico = new Topico();
+            topico.setTitulo("Tópico " + i);
+            topico.setMensaje("Mensaje " + i);
+            topico.setAutor(autores[i % autores.length]);
+            topico.setCurso(cursos[i % cursos.length]);
+            Topico guardado = topicoRepository.save(topico);
+            if (primerTopicoId == null || guardado.getId() < primerTopicoId) {
+                primerTopicoId = guardado.getId();
+            }
+        }
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void listadoPaginadoUsaConsultaYConteo() throws Exception {
+        assertSentenciasMaximas("listado", "/topicos?size=50", 3);
+    }
+    
+    @Test
+    void listadosFiltradosUsanConsultaYConteo() throws Exception {
+        int anio = LocalDate.now().getYear();
+        assertSentenciasMaximas("curso", "/topicos?size=50&curso=Spring", 3);
+        assertSentenciasMaximas("anio", "/topicos?size=50&anio=" + anio, 3);
+        assertSentenciasMaximas("curso y anio", "/topicos?size=50&curso=Java&anio=" + anio, 3);
+    }
+    
+    @Test
+    void primeros10UsaUnaSolaConsulta() throws Exception {
+        assertSentenciasMaximas("primeros10", "/topicos/primeros10", 2);
+    }
+    
+    @Test
+    void detalleUsaUnaSolaConsulta() throws Exception {
+        assertSentenciasMaximas("detalle", "/topicos/" + primerTopicoId, 2);
+    }
+    
+    @Test
+    void paginacionPorCursorRecorreTodoSinConteo() throws Exception {
+        Set<Long> vistos = new HashSet<>();
+        String cursor = "";
+        int paginas = 0;
+        do {
+            statistics.clear();
+            String cuerpo = mockMvc.perform(get("/topicos").param("cursor", cursor).param("size", "7"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            
+            TopicoSliceResponseDTO pagina = objectMapper.readValue(cuerpo, TopicoSliceResponseDTO.class);
+            pagina.content().forEach(topico -> assertThat(vistos.add(topico.id())).isTrue());
+            cursor = pagina.siguienteCursor();
+            paginas++;
+        } while (cursor != null);
+        
+        assertThat(vistos).hasSize(TOPICOS);
+        assertThat(paginas).isEqualTo((TOPICOS + 6) / 7);
+    }
+    
+    @Test
+    void exportacionEscribeTodasLasFilasConUnaSolaConsulta() throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/topicos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(cuerpo.lines()).hasSize(TOPICOS)
+                .allSatisfy(linea -> assertThat(objectMapper.readTree(linea).has("titulo")).isTrue());
+    }
+    
+    @Test
+    void cursorInvalidoDevuelveBadRequest() throws Exception {
+        mockMvc.perform(get("/topicos").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private void assertSentenciasMaximas(String caso, String url, long maximo) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("sentencias SQL para %s (%s)", caso, url)
+                .isLessThanOrEqualTo(maximo);
+    }
+}
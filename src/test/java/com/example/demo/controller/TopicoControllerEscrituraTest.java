@@ -0,0 +1,297 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.TopicoParcialDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.ListasTopicos;
+import com.example.demo.service.PurgaTopicosEliminados;
+import com.example.demo.service.TopicoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sentencias de las escrituras de un tópico: autor y curso por referencia (los validan las claves foráneas),
+ * UPDATE solo de las columnas modificadas y eliminación sin cargar la entidad. Las sentencias del outbox de
+ * eventos van por JDBC y no las cuentan las estadísticas de Hibernate.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@ExtendWith(OutputCaptureExtension.class)
+class TopicoControllerEscrituraTest {
+    
+    private static final String MENSAJE = "¿Cómo se escribe solo lo que cambió?";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ListasTopicos listasTopicos;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
+    private Statistics statistics;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    private Long otroCursoId;
+    
+    private Long topicoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Usuario autor = usuarioRepository.save(new Usuario(null, "Escritor", "escritura@email.com", "secreto", null));
+        autorId = autor.getId();
+        Curso curso = cursoRepository.save(new Curso(null, "JPA Avanzado", "Programación"));
+        cursoId = curso.getId();
+        otroCursoId = cursoRepository.save(new Curso(null, "SQL Básico", "Bases de datos")).getId();
+        
+        Topico topico = new Topico();
+        topico.setTitulo("UPDATE dinámico");
+        topico.setMensaje(MENSAJE);
+        topico.setAutor(autor);
+        topico.setCurso(curso);
+        topicoId = topicoRepository.save(topico).getId();
+        
+        // Autor y cursos en el caché de segundo nivel, como en una aplicación en uso
+        usuarioRepository.findById(autorId);
+        cursoRepository.findAllById(List.of(cursoId, otroCursoId));
+        // Sin listas en memoria las escrituras no las releen después del commit
+        listasTopicos.invalidar();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel("org.hibernate.SQL", LogLevel.DEBUG);
+    }
+    
+    // Las demás clases de prueba borran tópicos con deleteAll, que no ve los eliminados lógicamente
+    @AfterEach
+    void purgarEliminados() {
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @AfterEach
+    void restaurarLog() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel("org.hibernate.SQL", null);
+    }
+    
+    @Test
+    void crearNoConsultaAutorNiCursoNiDuplicados() throws Exception {
+        statistics.clear();
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Nuevo", "Otro mensaje", autorId, cursoId))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.autorNombre").value("Escritor"))
+                .andExpect(jsonPath("$.cursoNombre").value("JPA Avanzado"));
+        // INSERT del tópico, versión de la colección y estadísticas; el índice se actualiza fuera de la petición
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        
+        // Las restricciones de la base siguen dando los mismos errores
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Nuevo", "Otro mensaje", autorId, cursoId))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Sin autor", "Mensaje", autorId + 1000, cursoId))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensaje").value("Usuario no encontrado con ID: " + (autorId + 1000)));
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Sin curso", "Mensaje", autorId, cursoId + 1000))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensaje").value("Curso no encontrado con ID: " + (cursoId + 1000)));
+    }
+    
+    @Test
+    void patchEscribeSoloLasColumnasModificadas(CapturedOutput salida) throws Exception {
+        statistics.clear();
+        int inicio = salida.getOut().length();
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO(null, null, null, otroCursoId))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.titulo").value("UPDATE dinámico"))
+                .andExpect(jsonPath("$.cursoNombre").value("SQL Básico"));
+        // SELECT del tópico, su UPDATE, versión de la colección y un ajuste de estadísticas por curso
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(updatesDeTopico(salida.getOut().substring(inicio)))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).contains("curso_id").doesNotContain("mensaje", "titulo", "huella", "autor_id"));
+        
+        // Cambiar el título recalcula la huella, que sigue detectando duplicados
+        inicio = salida.getOut().length();
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO("Solo el título", null, null, null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mensaje").value(MENSAJE));
+        assertThat(updatesDeTopico(salida.getOut().substring(inicio)))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).contains("titulo", "huella").doesNotContain("mensaje", "curso_id"));
+        assertThat(topicoRepository.findById(topicoId).orElseThrow().getHuella())
+                .isEqualTo(Topico.calcularHuella("Solo el título", MENSAJE));
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("solo el  TÍTULO", MENSAJE, autorId, cursoId))))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void putSinCambiosSoloLeeElTopico() throws Exception {
+        mockMvc.perform(put("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("UPDATE dinámico revisado", MENSAJE, autorId, cursoId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+        
+        statistics.clear();
+        mockMvc.perform(put("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("UPDATE dinámico revisado", MENSAJE, autorId, cursoId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void patchValidaLosCamposEnviados() throws Exception {
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO(null, null, null, null))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO("  ", null, null, null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errores.titulo").value("El título no puede estar vacío"));
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO(null, null, autorId + 1000, null))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensaje").value("Usuario no encontrado con ID: " + (autorId + 1000)));
+        mockMvc.perform(patch("/topicos/" + (topicoId + 1000)).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO("Otro", null, null, null))))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO("Otro", null, null, null))))
+                .andExpect(status().isPreconditionFailed());
+        
+        assertThat(topicoRepository.findById(topicoId).orElseThrow().getVersion()).isZero();
+    }
+    
+    @Test
+    void eliminarNoCargaElTopico() throws Exception {
+        statistics.clear();
+        mockMvc.perform(delete("/topicos/" + topicoId)).andExpect(status().isNoContent());
+        // Estado del tópico, UPDATE que lo marca eliminado, versión de la colección y estadísticas
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(topicoRepository.existsById(topicoId)).isFalse();
+        
+        statistics.clear();
+        mockMvc.perform(delete("/topicos/" + topicoId)).andExpect(status().isNotFound());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void eliminacionesConcurrentesDejanUnaExitosaYElRestoNoEncontrado() throws Exception {
+        int peticiones = 4;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(peticiones);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < peticiones; i++) {
+                resultados.add(hilos.submit(() -> {
+                    salida.await();
+                    try {
+                        topicoService.eliminarTopico(topicoId);
+                        return "eliminado";
+                    } catch (EntityNotFoundException e) {
+                        return "no encontrado";
+                    }
+                }));
+            }
+            salida.countDown();
+            
+            List<String> obtenidos = new ArrayList<>();
+            for (Future<String> resultado : resultados) {
+                obtenidos.add(resultado.get(30, TimeUnit.SECONDS));
+            }
+            // Ninguna recibe el conflicto de concurrencia (409): las que pierden ven el tópico ya eliminado
+            assertThat(obtenidos).containsOnlyOnce("eliminado").containsOnly("eliminado", "no encontrado");
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+    
+    private static List<String> updatesDeTopico(String salida) {
+        return Arrays.stream(salida.split("\\R"))
+                .map(linea -> linea.toLowerCase(Locale.ROOT))
+                .filter(linea -> linea.contains("update topico "))
+                .toList();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.EstadisticaTopicosDTO;
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.RespuestaResponseDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.EstadisticaTopicos;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.EstadisticaTopicosRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoLoteRepository;
+import com.example.demo.repository.TopicoLoteRepository.FilaTopico;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.service.PurgaTopicosEliminados;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Un curso por lote de reconciliación, para recorrer más de un lote con pocos cursos
+@SpringBootTest(properties = "api.estadisticas.cursos-por-lote=1")
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerEstadisticasTest {
+    
+    private static final int ANIO_ACTUAL = LocalDateTime.now().getYear();
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private TopicoLoteRepository topicoLoteRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EstadisticaTopicosRepository estadisticaTopicosRepository;
+    
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    private Long autorId;
+    
+    private Long springId;
+    
+    private Long javaId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        // Las demás clases de prueba guardan y borran tópicos con el repositorio, sin pasar por las estadísticas
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        estadisticaTopicosRepository.deleteAll();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Estadístico", "estadisticas@email.com", "secreto", null)).getId();
+        springId = cursoRepository.save(new Curso(null, "Spring Boot", "Programación")).getId();
+        javaId = cursoRepository.save(new Curso(null, "Java Básico", "Programación")).getId();
+    }
+    
+    // Las demás clases de prueba borran tópicos sin conocer las respuestas ni los eliminados lógicamente
+    @AfterEach
+    void borrarRespuestas() {
+        respuestaRepository.deleteAll();
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void escriturasActualizanLasEstadisticasSinRecorrerTopicos() throws Exception {
+        TopicoResponseDTO primero = crearTopico("Primero", springId);
+        TopicoResponseDTO segundo = crearTopico("Segundo", springId);
+        TopicoResponseDTO tercero = crearTopico("Tercero", springId);
+        mockMvc.perform(post("/topicos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new TopicoRequestDTO("Lote uno", "Mensaje", autorId, javaId),
+                                new TopicoRequestDTO("Lote dos", "Mensaje", autorId, javaId)))))
+                .andExpect(status().isOk());
+        
+        // Cambio de curso, cierre por solución y eliminación
+        mockMvc.perform(put("/topicos/{id}", segundo.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Segundo", "Mensaje", autorId, javaId))))
+                .andExpect(status().isOk());
+        RespuestaResponseDTO respuesta = objectMapper.readValue(mockMvc.perform(post("/topicos/{id}/respuestas", primero.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RespuestaRequestDTO("Solución", autorId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), RespuestaResponseDTO.class);
+        mockMvc.perform(put("/topicos/{id}/respuestas/{respuestaId}/solucion", primero.id(), respuesta.id()))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/topicos/{id}", tercero.id())).andExpect(status().isNoContent());
+        
+        // Una sola consulta sobre la tabla agregada
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<EstadisticaTopicosDTO> estadisticas = obtenerEstadisticas(get("/topicos/estadisticas"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas).containsExactly(
+                new EstadisticaTopicosDTO("Java Básico", ANIO_ACTUAL, 3, 3, 0, 0),
+                new EstadisticaTopicosDTO("Spring Boot", ANIO_ACTUAL, 1, 0, 1, 0));
+        
+        // La reconciliación llega al mismo resultado contando los tópicos
+        estadisticasService.reconciliar();
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas"))).isEqualTo(estadisticas);
+    }
+    
+    @Test
+    void reconciliacionCorrigeLoQueNoPasoPorLaAplicacion() throws Exception {
+        topicoLoteRepository.insertar(List.of(
+                new FilaTopico("Antiguo uno", "Mensaje", "huella-1", autorId, springId),
+                new FilaTopico("Antiguo dos", "Mensaje", "huella-2", autorId, javaId)), LocalDateTime.of(2020, 5, 1, 10, 0));
+        crearTopico("Reciente", springId);
+        estadisticaTopicosRepository.save(new EstadisticaTopicos(springId, 2019, StatusTopico.CERRADO, 7L));
+        estadisticaTopicosRepository.save(new EstadisticaTopicos(javaId + 1000, 2020, StatusTopico.ABIERTO, 3L));
+        
+        estadisticasService.reconciliar();
+        
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas"))).containsExactly(
+                new EstadisticaTopicosDTO("Java Básico", 2020, 1, 1, 0, 0),
+                new EstadisticaTopicosDTO("Spring Boot", 2020, 1, 1, 0, 0),
+                new EstadisticaTopicosDTO("Spring Boot", ANIO_ACTUAL, 1, 1, 0, 0));
+        assertThat(estadisticaTopicosRepository.findAll())
+                .extracting(EstadisticaTopicos::getCursoId)
+                .containsOnly(springId, javaId);
+        
+        // Mismos filtros que el listado de tópicos
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas").param("curso", "Spring")))
+                .extracting(EstadisticaTopicosDTO::anio)
+                .containsExactly(2020, ANIO_ACTUAL);
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas").param("anio", "2020")))
+                .extracting(EstadisticaTopicosDTO::curso)
+                .containsExactly("Java Básico", "Spring Boot");
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas").param("curso", "Java Básico").param("cursoModo", "EXACTO")
+                .param("anio", String.valueOf(ANIO_ACTUAL)))).isEmpty();
+        assertThat(obtenerEstadisticas(get("/topicos/estadisticas").param("curso", "Inexistente"))).isEmpty();
+    }
+    
+    @Test
+    void ajustarEstadisticasNoVaciaElCacheDeSegundoNivel() throws Exception {
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cursoRepository.findById(springId);
+        assertThat(cache.containsEntity(Curso.class, springId)).isTrue();
+        
+        crearTopico("Con caché", springId);
+        
+        assertThat(cache.containsEntity(Curso.class, springId)).isTrue();
+    }
+    
+    private TopicoResponseDTO crearTopico(String titulo, Long cursoId) throws Exception {
+        String cuerpo = mockMvc.perform(post("/topicos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO(titulo, "Mensaje", autorId, cursoId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, TopicoResponseDTO.class);
+    }
+    
+    private List<EstadisticaTopicosDTO> obtenerEstadisticas(MockHttpServletRequestBuilder peticion) throws Exception {
+        String cuerpo = mockMvc.perform(peticion)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, new TypeReference<>() {});
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.model.VersionColeccion;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.VersionColeccionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Peticiones condicionales sobre tópicos: ETag por versión del tópico y de la colección,
+ * 304 sin consultar los tópicos y actualización con If-Match.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerEtagTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private VersionColeccionRepository versionColeccionRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    private Long topicoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Usuario autor = usuarioRepository.save(new Usuario(null, "Autor ETag", "etag@email.com", "secreto", null));
+        autorId = autor.getId();
+        Curso curso = cursoRepository.save(new Curso(null, "HTTP Avanzado", "Programación"));
+        cursoId = curso.getId();
+        
+        Topico topico = new Topico();
+        topico.setTitulo("Caché HTTP");
+        topico.setMensaje("¿Cómo funciona If-None-Match?");
+        topico.setAutor(autor);
+        topico.setCurso(curso);
+        topicoId = topicoRepository.save(topico).getId();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    // Las demás clases de prueba borran tópicos sin conocer las respuestas
+    @AfterEach
+    void borrarRespuestas() {
+        respuestaRepository.deleteAll();
+    }
+    
+    @Test
+    void detalleRevalidaConUnaSolaSentenciaYCambiaConLasRespuestas() throws Exception {
+        String etag = mockMvc.perform(get("/topicos/" + topicoId))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        statistics.clear();
+        mockMvc.perform(get("/topicos/" + topicoId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        
+        // Una respuesta cambia los contadores del tópico, y con ellos su versión
+        mockMvc.perform(post("/topicos/" + topicoId + "/respuestas").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RespuestaRequestDTO("Con la ETag", autorId))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/topicos/" + topicoId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.respuestasCount").value(1));
+    }
+    
+    @Test
+    void listadosRevalidanConLaVersionDeLaColeccion() throws Exception {
+        String etag = mockMvc.perform(get("/topicos"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("W/\"c\\d+\"");
+        
+        statistics.clear();
+        mockMvc.perform(get("/topicos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/topicos").param("cursor", "").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // Solo se leyó la versión de la colección, una vez por petición
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        
+        mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Otro tópico", "Otro mensaje", autorId, cursoId))))
+                .andExpect(status().isCreated());
+        String nueva = mockMvc.perform(get("/topicos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(nueva).isNotEqualTo(etag);
+    }
+    
+    @Test
+    void renombrarUnCursoCambiaLaEtagDeLosListados() throws Exception {
+        String etag = mockMvc.perform(get("/topicos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].cursoNombre").value("HTTP Avanzado"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        mockMvc.perform(post("/test/curso").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Curso(cursoId, "HTTP Experto", "Programación"))))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(get("/topicos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].cursoNombre").value("HTTP Experto"));
+    }
+    
+    @Test
+    void versionDeLaColeccionSumaUnaPorCadaEscrituraEntreLasParticiones() throws Exception {
+        long antes = versionDeColeccion();
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new TopicoRequestDTO("Tópico " + i, "Mensaje " + i, autorId, cursoId))))
+                    .andExpect(status().isCreated());
+        }
+        
+        assertThat(versionDeColeccion()).isEqualTo(antes + 5);
+        assertThat(versionColeccionRepository.count()).isEqualTo(VersionColeccion.PARTICIONES);
+    }
+    
+    @Test
+    void actualizarConIfMatchVigenteAvanzaLaVersion() throws Exception {
+        mockMvc.perform(actualizar("Caché HTTP revisada").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+        
+        // La misma ETag ya no es la actual
+        mockMvc.perform(actualizar("Cambio perdido").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        // If-Match exige comparación fuerte
+        mockMvc.perform(actualizar("Cambio perdido").header(HttpHeaders.IF_MATCH, "W/\"1\""))
+                .andExpect(status().isPreconditionFailed());
+        
+        assertThat(topicoRepository.findById(topicoId).orElseThrow().getTitulo()).isEqualTo("Caché HTTP revisada");
+        
+        mockMvc.perform(actualizar("Sin precondición"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+    
+    @Test
+    void guardarUnaCopiaDesactualizadaFallaPorBloqueoOptimista() throws Exception {
+        Topico copia = topicoRepository.findById(topicoId).orElseThrow();
+        
+        // Otra petición actualiza el tópico mientras tanto
+        mockMvc.perform(actualizar("Actualizado antes"))
+                .andExpect(status().isOk());
+        
+        copia.setTitulo("Actualizado después");
+        assertThatThrownBy(() -> topicoRepository.save(copia))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(topicoRepository.findById(topicoId).orElseThrow().getTitulo()).isEqualTo("Actualizado antes");
+    }
+    
+    private MockHttpServletRequestBuilder actualizar(String titulo) throws Exception {
+        return put("/topicos/" + topicoId).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TopicoRequestDTO(titulo, "¿Cómo funciona If-None-Match?", autorId, cursoId)));
+    }
+    
+    private long versionDeColeccion() throws Exception {
+        String etag = mockMvc.perform(get("/topicos")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        return Long.parseLong(etag.substring("W/\"c".length(), etag.length() - 1));
+    }
+}
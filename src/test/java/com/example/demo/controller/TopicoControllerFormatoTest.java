@@ -0,0 +1,157 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.TokenService;
+import com.example.demo.service.TopicoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Formato de los listados sobre el servidor HTTP real: sobre compacto, campos pedidos con fields y
+ * compresión gzip negociada (MockMvc no pasa por la compresión de Tomcat).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TopicoControllerFormatoTest {
+    
+    private static final int TOPICOS = 100;
+    
+    @LocalServerPort
+    private int puerto;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    
+    private String token;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        Usuario autor = usuarioRepository.save(new Usuario(null, "Juan Pérez", "formato@email.com", "secreto", null));
+        Long cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+        token = tokenService.generateToken(autor);
+        
+        String mensaje = "Necesito ayuda para configurar la autenticación en mi proyecto Spring Boot. ".repeat(8);
+        List<TopicoRequestDTO> lote = new ArrayList<>();
+        for (int i = 0; i < TOPICOS; i++) {
+            lote.add(new TopicoRequestDTO("Tópico " + i, i + " " + mensaje, autor.getId(), cursoId));
+        }
+        topicoService.crearTopicosEnLote(lote);
+    }
+    
+    @Test
+    void paginaCompactaConLosMismosTopicosQueJackson() throws Exception {
+        HttpResponse<byte[]> respuesta = pedir("/topicos?size=" + TOPICOS, false);
+        
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        assertThat(respuesta.headers().firstValue("Content-Type")).hasValue("application/json");
+        JsonNode pagina = objectMapper.readTree(respuesta.body());
+        assertThat(pagina.properties()).extracting(Map.Entry::getKey)
+                .containsExactly("content", "totalElements", "siguientePagina");
+        assertThat(pagina.get("totalElements").asLong()).isEqualTo(TOPICOS);
+        assertThat(pagina.get("siguientePagina").isNull()).isTrue();
+        assertThat(pagina.get("content")).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(
+                topicoService.listarTopicos(PageRequest.of(0, TOPICOS, Sort.by("fechaCreacion"))).getContent())));
+        
+        JsonNode primera = objectMapper.readTree(pedir("/topicos?size=10", false).body());
+        assertThat(primera.get("siguientePagina").asInt()).isEqualTo(1);
+    }
+    
+    @Test
+    void fieldsEscribeSoloLosCamposPedidos() throws Exception {
+        JsonNode pagina = objectMapper.readTree(pedir("/topicos?size=5&fields=id,titulo,fechaCreacion", false).body());
+        for (JsonNode topico : pagina.get("content")) {
+            assertThat(topico.properties()).extracting(Map.Entry::getKey)
+                    .containsExactly("id", "titulo", "fechaCreacion");
+        }
+        
+        JsonNode slice = objectMapper.readTree(pedir("/topicos?cursor=&size=5&fields=titulo", false).body());
+        assertThat(slice.get("content").get(0).properties()).extracting(Map.Entry::getKey).containsExactly("titulo");
+        assertThat(slice.get("haySiguiente").asBoolean()).isTrue();
+        
+        assertThat(pedir("/topicos?fields=id,clave", false).statusCode()).isEqualTo(400);
+    }
+    
+    @Test
+    void listadosGrandesSeComprimenConGzip() throws Exception {
+        byte[] sinComprimir = pedir("/topicos?size=" + TOPICOS, false).body();
+        HttpResponse<byte[]> comprimida = pedir("/topicos?size=" + TOPICOS, true);
+        
+        assertThat(comprimida.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(descomprimir(comprimida.body())).isEqualTo(sinComprimir);
+        // El mensaje se repite en cada tópico: gzip lo reduce a una fracción
+        assertThat(comprimida.body().length).isLessThan(sinComprimir.length / 5);
+        
+        // Sin mensaje la página pesa mucho menos aun antes de comprimir
+        assertThat(pedir("/topicos?size=" + TOPICOS + "&fields=id,titulo,fechaCreacion,status", false).body().length)
+                .isLessThan(sinComprimir.length / 5);
+        
+        // Por debajo del umbral la respuesta va sin comprimir
+        HttpResponse<byte[]> pequena = pedir("/topicos?size=1&fields=id", true);
+        assertThat(pequena.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+    
+    private HttpResponse<byte[]> pedir(String ruta, boolean gzip) throws IOException, InterruptedException {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .header("Authorization", "Bearer " + token);
+        if (gzip) {
+            peticion.header("Accept-Encoding", "gzip");
+        }
+        return cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+    
+    private static byte[] descomprimir(byte[] gzip) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+}
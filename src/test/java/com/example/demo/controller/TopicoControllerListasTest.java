@@ -0,0 +1,205 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.TopicoParcialDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.ListasTopicos;
+import com.example.demo.service.PurgaTopicosEliminados;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listas primeros10, recientes y activos servidas desde memoria: después de la primera lectura no
+ * consultan la base, y las escrituras hechas por la API se reflejan sin volver a consultarlas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerListasTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private ListasTopicos listasTopicos;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    private Statistics statistics;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        // Los borrados de arriba no pasan por la API: las listas de otras clases de prueba quedarían viejas
+        listasTopicos.invalidar();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Listador", "listas@email.com", "secreto", null)).getId();
+        cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    // Las demás clases de prueba borran tópicos con deleteAll, que no ve los eliminados lógicamente
+    @AfterEach
+    void purgarEliminados() {
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void listasSalenDeMemoriaYRevalidanConLaEtagDelContenido() throws Exception {
+        crear("Primero");
+        crear("Segundo");
+        
+        statistics.clear();
+        MvcResult primera = mockMvc.perform(get("/topicos/primeros10"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("W/\"l[0-9a-f]{32}\"");
+        
+        statistics.clear();
+        mockMvc.perform(get("/topicos/primeros10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(primera.getResponse().getContentAsByteArray()));
+        mockMvc.perform(get("/topicos/primeros10").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        
+        assertThat(titulos("/topicos/primeros10")).containsExactly("Primero", "Segundo");
+        assertThat(titulos("/topicos/recientes")).containsExactly("Segundo", "Primero");
+        // Sin respuestas no hay tópicos activos
+        assertThat(titulos("/topicos/activos")).isEmpty();
+    }
+    
+    @Test
+    void escriturasSeAplicanSinVolverAConsultarLasListas() throws Exception {
+        Long primero = crear("Primero");
+        Long segundo = crear("Segundo");
+        titulos("/topicos/primeros10");
+        titulos("/topicos/recientes");
+        titulos("/topicos/activos");
+        
+        Long tercero = crear("Tercero");
+        mockMvc.perform(patch("/topicos/" + primero).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoParcialDTO("Primero editado", null, null, null))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/topicos/" + segundo + "/respuestas").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RespuestaRequestDTO("Respuesta", autorId))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new TopicoRequestDTO("En lote", "Mensaje del lote", autorId, cursoId)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/topicos/" + tercero)).andExpect(status().isNoContent());
+        
+        statistics.clear();
+        assertThat(titulos("/topicos/primeros10")).containsExactly("Primero editado", "Segundo", "En lote");
+        assertThat(titulos("/topicos/recientes")).containsExactly("En lote", "Segundo", "Primero editado");
+        List<TopicoResponseDTO> activos = leer("/topicos/activos");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(activos).extracting(TopicoResponseDTO::id).containsExactly(segundo);
+        assertThat(activos.get(0).respuestasCount()).isEqualTo(1);
+        
+        // Lo mismo que daría volver a consultar
+        listasTopicos.invalidar();
+        assertThat(titulos("/topicos/primeros10")).containsExactly("Primero editado", "Segundo", "En lote");
+        assertThat(titulos("/topicos/recientes")).containsExactly("En lote", "Segundo", "Primero editado");
+        assertThat(leer("/topicos/activos")).isEqualTo(activos);
+    }
+    
+    @Test
+    void listaLlenaSeVuelveAConsultarAlPerderUnTopico() throws Exception {
+        List<TopicoRequestDTO> lote = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            lote.add(new TopicoRequestDTO("Tópico " + i, "Mensaje " + i, autorId, cursoId));
+        }
+        mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk());
+        List<TopicoResponseDTO> primeros = leer("/topicos/primeros10");
+        assertThat(primeros).hasSize(10);
+        
+        // El undécimo no estaba en memoria: hay que consultarlo para completar la lista
+        mockMvc.perform(delete("/topicos/" + primeros.get(0).id())).andExpect(status().isNoContent());
+        
+        statistics.clear();
+        assertThat(titulos("/topicos/primeros10")).hasSize(10).startsWith("Tópico 1").endsWith("Tópico 10");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+    
+    private Long crear(String titulo) throws Exception {
+        String cuerpo = mockMvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicoRequestDTO(titulo, "Mensaje de " + titulo, autorId, cursoId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, TopicoResponseDTO.class).id();
+    }
+    
+    private List<String> titulos(String url) throws Exception {
+        return leer(url).stream().map(TopicoResponseDTO::titulo).toList();
+    }
+    
+    private List<TopicoResponseDTO> leer(String url) throws Exception {
+        String cuerpo = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, new TypeReference<List<TopicoResponseDTO>>() {});
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ResultadoItemLoteDTO;
+import com.example.demo.dto.ResultadoItemLoteDTO.EstadoItemLote;
+import com.example.demo.dto.ResultadoLoteDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Topico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.service.ListasTopicos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TopicoControllerLoteTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ListasTopicos listasTopicos;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Importador", "importador@email.com", "secreto", null)).getId();
+        Curso curso = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación"));
+        cursoId = curso.getId();
+        
+        Topico existente = new Topico();
+        existente.setTitulo("Tópico existente");
+        existente.setMensaje("Ya estaba guardado");
+        existente.setAutor(usuarioRepository.getReferenceById(autorId));
+        existente.setCurso(curso);
+        topicoRepository.save(existente);
+        // Sin listas en memoria el lote no las relee después del commit
+        listasTopicos.invalidar();
+    }
+    
+    @Test
+    void loteInformaElResultadoDeCadaElemento() throws Exception {
+        List<TopicoRequestDTO> lote = new ArrayList<>();
+        lote.add(new TopicoRequestDTO("Primero", "Mensaje uno", autorId, cursoId));
+        lote.add(new TopicoRequestDTO("Segundo", "Mensaje dos", autorId, cursoId));
+        lote.add(new TopicoRequestDTO(" ", "Sin título", autorId, cursoId));
+        lote.add(new TopicoRequestDTO("Autor inexistente", "Mensaje", -1L, cursoId));
+        lote.add(new TopicoRequestDTO("Curso inexistente", "Mensaje", autorId, -1L));
+        lote.add(new TopicoRequestDTO("TÓPICO  existente", "ya estaba guardado", autorId, cursoId));
+        lote.add(new TopicoRequestDTO("primero", "Mensaje   uno", autorId, cursoId));
+        lote.add(null);
+        
+        ResultadoLoteDTO resultado = enviar(lote);
+        
+        assertThat(resultado.total()).isEqualTo(8);
+        assertThat(resultado.creados()).isEqualTo(2);
+        assertThat(resultado.rechazados()).isEqualTo(6);
+        assertThat(resultado.resultados()).extracting(ResultadoItemLoteDTO::indice).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(resultado.resultados()).extracting(ResultadoItemLoteDTO::estado).containsExactly(
+                EstadoItemLote.CREADO, EstadoItemLote.CREADO, EstadoItemLote.RECHAZADO, EstadoItemLote.RECHAZADO,
+                EstadoItemLote.RECHAZADO, EstadoItemLote.RECHAZADO, EstadoItemLote.RECHAZADO, EstadoItemLote.RECHAZADO);
+        assertThat(resultado.resultados().get(2).error()).isEqualTo("El título es obligatorio");
+        assertThat(resultado.resultados().get(3).error()).isEqualTo("Usuario no encontrado con ID: -1");
+        assertThat(resultado.resultados().get(4).error()).isEqualTo("Curso no encontrado con ID: -1");
+        assertThat(resultado.resultados().get(5).error()).isEqualTo("Ya existe un tópico con el mismo título y mensaje");
+        assertThat(resultado.resultados().get(6).error()).isEqualTo("Duplica a otro elemento del mismo lote");
+        
+        // Los IDs devueltos corresponden a cada elemento y la fila queda con su huella
+        Topico primero = topicoRepository.findById(resultado.resultados().get(0).id()).orElseThrow();
+        Topico segundo = topicoRepository.findById(resultado.resultados().get(1).id()).orElseThrow();
+        assertThat(primero.getTitulo()).isEqualTo("Primero");
+        assertThat(segundo.getTitulo()).isEqualTo("Segundo");
+        assertThat(primero.getHuella()).isEqualTo(Topico.calcularHuella("Primero", "Mensaje uno"));
+        assertThat(topicoRepository.count()).isEqualTo(3);
+    }
+    
+    @Test
+    void loteGrandeValidaConTresConsultas() throws Exception {
+        List<TopicoRequestDTO> lote = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lote.add(new TopicoRequestDTO("Importado " + i, "Mensaje importado " + i, autorId, cursoId));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        ResultadoLoteDTO resultado = enviar(lote);
+        
+        // Autores, cursos y huellas, más el incremento de la versión de la colección y el ajuste de las
+        // estadísticas (uno por curso); el INSERT y la lectura del indexador van por JDBC y no pasan por Hibernate
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(resultado.creados()).isEqualTo(1000);
+        assertThat(topicoRepository.count()).isEqualTo(1001);
+    }
+    
+    @Test
+    void loteVacioOExcesivoDevuelveBadRequest() throws Exception {
+        mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        
+        List<TopicoRequestDTO> excesivo = Collections.nCopies(5001, new TopicoRequestDTO("t", "m", autorId, cursoId));
+        mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(excesivo)))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private ResultadoLoteDTO enviar(List<TopicoRequestDTO> lote) throws Exception {
+        String cuerpo = mockMvc.perform(post("/topicos/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(cuerpo, ResultadoLoteDTO.class);
+    }
+}
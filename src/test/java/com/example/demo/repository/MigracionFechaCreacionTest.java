@@ -0,0 +1,117 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.CursorTopico;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * V11 sobre una base propia: se migra hasta V10, se cargan tópicos y respuestas sin fecha (como los que
+ * dejaba el esquema anterior) y se aplica el resto. Después todas las filas tienen fecha y la paginación
+ * por cursor las recorre completas.
+ */
+class MigracionFechaCreacionTest {
+    
+    private static final String URL = "jdbc:h2:mem:ForoHubMigracionFechas;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    
+    private static final LocalDateTime ENERO = LocalDateTime.of(2025, 1, 10, 9, 0);
+    
+    private static final LocalDateTime JUNIO = LocalDateTime.of(2024, 6, 1, 12, 30);
+    
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+    
+    private Long conFecha;
+    
+    private Long sinFechaConRespuesta;
+    
+    private Long sinFechaSinRespuestas;
+    
+    @BeforeEach
+    void migrarConFilasSinFecha() {
+        jdbc.execute("DROP ALL OBJECTS");
+        flyway("10").migrate();
+        
+        jdbc.update("INSERT INTO usuario (id, nombre, correo_electronico, contrasena) VALUES (1, 'Antiguo', 'antiguo@email.com', 'x')");
+        jdbc.update("INSERT INTO curso (id, nombre, categoria) VALUES (1, 'Legado', 'Bases de datos')");
+        // Contadores como los dejaba V5: MAX(fecha_creacion) ignora las respuestas sin fecha
+        conFecha = insertarTopico(ENERO, 1, null);
+        sinFechaConRespuesta = insertarTopico(null, 1, JUNIO);
+        sinFechaSinRespuestas = insertarTopico(null, 0, null);
+        insertarRespuesta(conFecha, null);
+        insertarRespuesta(sinFechaConRespuesta, JUNIO);
+        
+        flyway(null).migrate();
+    }
+    
+    @Test
+    void filasSinFechaTomanLaDeSuRespuestaOSuTopico() {
+        assertThat(fecha("topico", sinFechaConRespuesta)).isEqualTo(JUNIO);
+        assertThat(fecha("topico", sinFechaSinRespuestas)).isNotNull();
+        assertThat(fecha("topico", conFecha)).isEqualTo(ENERO);
+        
+        Map<String, Object> respuesta = jdbc.queryForMap("SELECT fecha_creacion FROM respuesta WHERE topico_id = ?", conFecha);
+        assertThat(respuesta.get("fecha_creacion")).isNotNull();
+        assertThat(jdbc.queryForObject("SELECT ultima_respuesta FROM topico WHERE id = ?", LocalDateTime.class, conFecha))
+                .isEqualTo(ENERO);
+    }
+    
+    @Test
+    void paginacionPorCursorRecorreLosTopicosQueNoTeniaFecha() {
+        List<Long> recorridos = new ArrayList<>();
+        String token = "";
+        do {
+            CursorTopico cursor = CursorTopico.decodificar(token);
+            List<Map<String, Object>> pagina = jdbc.queryForList("SELECT id, fecha_creacion FROM topico "
+                    + "WHERE (fecha_creacion > ? OR (fecha_creacion = ? AND id > ?)) "
+                    + "ORDER BY fecha_creacion, id LIMIT 1", cursor.fechaCreacion(), cursor.fechaCreacion(), cursor.id());
+            if (pagina.isEmpty()) {
+                break;
+            }
+            Long id = ((Number) pagina.get(0).get("id")).longValue();
+            recorridos.add(id);
+            token = new CursorTopico(fecha("topico", id), id).codificar();
+        } while (recorridos.size() < 10);
+        
+        assertThat(recorridos).containsExactlyInAnyOrder(conFecha, sinFechaConRespuesta, sinFechaSinRespuestas);
+        assertThat(recorridos.get(0)).isEqualTo(sinFechaConRespuesta);
+    }
+    
+    @Test
+    void fechaCreacionEsObligatoria() {
+        assertThatThrownBy(() -> insertarTopico(null, 0, null)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> insertarRespuesta(conFecha, null)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+    
+    private Flyway flyway(String objetivo) {
+        var configuracion = Flyway.configure().dataSource(URL, "sa", "");
+        if (objetivo != null) {
+            configuracion.target(objetivo);
+        }
+        return configuracion.load();
+    }
+    
+    private Long insertarTopico(LocalDateTime fecha, int respuestas, LocalDateTime ultimaRespuesta) {
+        jdbc.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id, respuestas_count, ultima_respuesta) "
+                + "VALUES ('Antiguo', 'Mensaje', ?, 'ABIERTO', 1, 1, ?, ?)", fecha, respuestas, ultimaRespuesta);
+        return jdbc.queryForObject("SELECT MAX(id) FROM topico", Long.class);
+    }
+    
+    private void insertarRespuesta(Long topicoId, LocalDateTime fecha) {
+        jdbc.update("INSERT INTO respuesta (mensaje, fecha_creacion, autor_id, topico_id) VALUES ('Respuesta', ?, 1, ?)", fecha, topicoId);
+    }
+    
+    private LocalDateTime fecha(String tabla, Long id) {
+        return jdbc.queryForObject("SELECT fecha_creacion FROM " + tabla + " WHERE id = ?", LocalDateTime.class, id);
+    }
+}
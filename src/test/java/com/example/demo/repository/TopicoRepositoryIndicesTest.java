@@ -0,0 +1,137 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TopicoResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba con EXPLAIN (H2 en modo MySQL, esquema creado por las migraciones de Flyway)
+ * que los filtros de listado usan los índices en lugar de recorrer la tabla completa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TopicoRepositoryIndicesTest {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        // Nombre propio de esta clase: otras pruebas dejan cursos "Spring Boot Avanzado" en la misma base
+        jdbcTemplate.update("INSERT INTO curso (nombre, categoria) VALUES ('Índices en MySQL', 'Bases de datos')");
+        cursoId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM curso", Long.class);
+        jdbcTemplate.update("INSERT INTO usuario (nombre, correo_electronico, contrasena) VALUES ('Autor', 'indices@email.com', 'x')");
+        Long autorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM usuario", Long.class);
+        
+        insertarTopico("Fin de 2024", LocalDateTime.of(2024, 12, 31, 23, 59, 59), autorId);
+        insertarTopico("Inicio de 2025", LocalDateTime.of(2025, 1, 1, 0, 0), autorId);
+        insertarTopico("Fin de 2025", LocalDateTime.of(2025, 12, 31, 23, 59, 59), autorId);
+        insertarTopico("Inicio de 2026", LocalDateTime.of(2026, 1, 1, 0, 0), autorId);
+    }
+    
+    @Test
+    void filtroPorAnioComoRangoUsaIndiceDeFecha() {
+        String plan = explicar("SELECT t.titulo FROM topico t "
+                + "WHERE t.fecha_creacion >= '2025-01-01 00:00:00' AND t.fecha_creacion < '2026-01-01 00:00:00'");
+        
+        assertThat(plan).contains("idx_topico_fecha: fecha_creacion >=").doesNotContain("tableScan");
+    }
+    
+    @Test
+    void filtroPorAnioConYearRecorreLaTabla() {
+        // Referencia de la forma anterior de la consulta: YEAR() sobre la columna impide usar el índice
+        String plan = explicar("SELECT t.titulo FROM topico t WHERE YEAR(t.fecha_creacion) = 2025");
+        
+        assertThat(plan).contains("tableScan");
+    }
+    
+    @Test
+    void filtroPorCursoYAnioBuscaPorIndiceDeCurso() {
+        String plan = explicar("SELECT t.titulo FROM topico t WHERE t.curso_id IN (" + cursoId + ") "
+                + "AND t.fecha_creacion >= '2025-01-01 00:00:00' AND t.fecha_creacion < '2026-01-01 00:00:00'");
+        
+        // H2 puede elegir el índice implícito de la FK o idx_topico_curso_fecha; en ambos casos es una búsqueda por curso_id
+        assertThat(plan).containsPattern("(?s)/\\* public\\.\\w+:[^/]*curso_id = ").doesNotContain("tableScan");
+    }
+    
+    @Test
+    void paginacionPorCursorUsaIndiceDeFecha() {
+        String plan = explicar("SELECT t.titulo FROM topico t "
+                + "WHERE (t.fecha_creacion > '2025-01-01 00:00:00' OR (t.fecha_creacion = '2025-01-01 00:00:00' AND t.id > 2)) "
+                + "ORDER BY t.fecha_creacion, t.id LIMIT 11");
+        
+        assertThat(plan).contains("idx_topico_fecha");
+    }
+    
+    @Test
+    void topicosActivosUsanIndiceDeUltimaRespuesta() {
+        String plan = explicar("SELECT t.titulo FROM topico t WHERE t.ultima_respuesta IS NOT NULL "
+                + "ORDER BY t.ultima_respuesta DESC, t.id DESC LIMIT 10");
+        
+        assertThat(plan).contains("idx_topico_ultima_respuesta");
+    }
+    
+    @Test
+    void respuestasPorCursorUsanIndiceDeTopicoYFecha() {
+        String plan = explicar("SELECT r.mensaje FROM respuesta r WHERE r.topico_id = 1 "
+                + "AND (r.fecha_creacion > '2025-01-01 00:00:00' OR (r.fecha_creacion = '2025-01-01 00:00:00' AND r.id > 2)) "
+                + "ORDER BY r.fecha_creacion, r.id LIMIT 21");
+        
+        // Igual que con curso_id, H2 puede preferir el índice implícito de la FK; basta con que busque por topico_id
+        assertThat(plan).containsPattern("(?s)/\\* public\\.\\w+:[^/]*topico_id = ").doesNotContain("tableScan");
+    }
+    
+    @Test
+    void resolucionDeCursoExactaYPorPrefijoUsaIndiceDeNombre() {
+        assertThat(explicar("SELECT c.id FROM curso c WHERE c.nombre = 'Spring Boot Avanzado'"))
+                .contains("idx_curso_nombre: nombre =");
+        assertThat(explicar("SELECT c.id FROM curso c WHERE c.nombre LIKE 'Spring%'"))
+                .contains("idx_curso_nombre: nombre >=");
+    }
+    
+    @Test
+    void rangoDeAnioRespetaLosLimites() {
+        List<String> titulos = topicoRepository.findByFechaCreacionEntre(
+                        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0), PageRequest.of(0, 10))
+                .map(TopicoResponseDTO::titulo)
+                .getContent();
+        
+        assertThat(titulos).containsExactlyInAnyOrder("Inicio de 2025", "Fin de 2025");
+    }
+    
+    @Test
+    void resolucionDeCursoPorModo() {
+        assertThat(cursoRepository.buscarIdsPorNombre("Índices en MySQL")).containsExactly(cursoId);
+        assertThat(cursoRepository.buscarIdsPorNombre("Índices")).isEmpty();
+        assertThat(cursoRepository.buscarIdsPorNombreQueEmpiezaCon("Índices")).containsExactly(cursoId);
+        assertThat(cursoRepository.buscarIdsPorNombreQueEmpiezaCon("MySQL")).isEmpty();
+        assertThat(cursoRepository.buscarIdsPorNombreQueContiene("en MySQL")).containsExactly(cursoId);
+    }
+    
+    private void insertarTopico(String titulo, LocalDateTime fecha, Long autorId) {
+        jdbcTemplate.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                + "VALUES (?, ?, ?, 'ABIERTO', ?, ?)", titulo, "Mensaje de " + titulo, fecha, autorId, cursoId);
+    }
+    
+    private String explicar(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResultadoBusquedaDTO;
+import com.example.demo.dto.TopicoIndiceDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Documentos cargados directamente en el índice, sin pasar por la base
+@SpringBootTest
+class BuscadorTopicosLuceneTest {
+    
+    private static final long ID_SIN_FECHA = 900_001L;
+    
+    @Autowired
+    private BuscadorTopicosLucene buscadorTopicosLucene;
+    
+    // El ID no existe en la base, así que actualizar lo quita del índice
+    @AfterEach
+    void quitarDocumento() {
+        buscadorTopicosLucene.actualizar(List.of(ID_SIN_FECHA));
+    }
+    
+    @Test
+    void topicoSinFechaSeDevuelveConFechaNula() throws IOException {
+        buscadorTopicosLucene.indexar(List.of(new TopicoIndiceDTO(ID_SIN_FECHA, "Tópico heredado", "Sin fecha de creación", null)));
+        
+        List<ResultadoBusquedaDTO> resultados = buscadorTopicosLucene.buscar("heredado", "", 10).content();
+        
+        assertThat(resultados).singleElement().satisfies(resultado -> {
+            assertThat(resultado.id()).isEqualTo(ID_SIN_FECHA);
+            assertThat(resultado.fechaCreacion()).isNull();
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RespuestaRequestDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.dto.TopicoResponseDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.RespuestaRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lotes de dos filas para ver cómo la purga recorre las respuestas antes de borrar los tópicos
+@SpringBootTest(properties = "api.purga.tamano-lote=2")
+class PurgaTopicosEliminadosTest {
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
+    @Autowired
+    private RespuestaService respuestaService;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void prepararDatos() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Purgador", "purga@email.com", "secreto", null)).getId();
+        cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+    }
+    
+    // Las demás clases de prueba borran tópicos sin conocer las respuestas ni los eliminados lógicamente
+    @AfterEach
+    void borrarRespuestas() {
+        respuestaRepository.deleteAll();
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void eliminarSoloMarcaElTopicoYLoOcultaDeLasConsultas() {
+        Long eliminado = crear("Con respuestas", 2);
+        Long vigente = crear("Vigente", 0);
+        
+        topicoService.eliminarTopico(eliminado);
+        
+        assertThat(contarFilas("topico")).isEqualTo(2);
+        assertThat(contarFilas("respuesta")).isEqualTo(2);
+        assertThat(topicoRepository.findById(eliminado)).isEmpty();
+        assertThat(topicoRepository.count()).isEqualTo(1);
+        assertThat(topicoService.listarTopicos(PageRequest.of(0, 10)).getContent())
+                .extracting(TopicoResponseDTO::id).containsExactly(vigente);
+        
+        // La huella se libera: el mismo contenido no cuenta como duplicado
+        Long publicadoOtraVez = topicoService.crearTopico(
+                new TopicoRequestDTO("Con respuestas", "Mensaje de Con respuestas", autorId, cursoId)).id();
+        assertThat(publicadoOtraVez).isNotEqualTo(eliminado);
+    }
+    
+    @Test
+    void purgaBorraRespuestasYTopicosPorLotesYInformaLosPendientes() {
+        Long conTresRespuestas = crear("Tres respuestas", 3);
+        Long sinRespuestas = crear("Sin respuestas", 0);
+        crear("Vigente", 1);
+        topicoService.eliminarTopico(conTresRespuestas);
+        topicoService.eliminarTopico(sinRespuestas);
+        
+        double respuestasAntes = borrados("respuesta");
+        double topicosAntes = borrados("topico");
+        assertThat(purgaTopicosEliminados.actualizarPendientes().topicos()).isEqualTo(2);
+        assertThat(meterRegistry.get("forohub.purga.pendientes").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("forohub.purga.antiguedad").gauge().value()).isGreaterThanOrEqualTo(0);
+        
+        // Dos lotes de respuestas (2 + 1) y uno con los dos tópicos
+        assertThat(purgaTopicosEliminados.purgarLote()).isEqualTo(2);
+        assertThat(purgaTopicosEliminados.purgarLote()).isEqualTo(1);
+        assertThat(contarFilas("topico")).isEqualTo(3);
+        assertThat(purgaTopicosEliminados.purgarLote()).isEqualTo(2);
+        assertThat(purgaTopicosEliminados.purgarLote()).isZero();
+        
+        assertThat(contarFilas("topico")).isEqualTo(1);
+        assertThat(contarFilas("respuesta")).isEqualTo(1);
+        assertThat(purgaTopicosEliminados.purgar()).isZero();
+        assertThat(meterRegistry.get("forohub.purga.pendientes").gauge().value()).isZero();
+        assertThat(borrados("respuesta") - respuestasAntes).isEqualTo(3);
+        assertThat(borrados("topico") - topicosAntes).isEqualTo(2);
+    }
+    
+    private Long crear(String titulo, int respuestas) {
+        Long id = topicoService.crearTopico(new TopicoRequestDTO(titulo, "Mensaje de " + titulo, autorId, cursoId)).id();
+        for (int i = 0; i < respuestas; i++) {
+            respuestaService.crearRespuesta(id, new RespuestaRequestDTO("Respuesta " + i, autorId));
+        }
+        return id;
+    }
+    
+    private double borrados(String tabla) {
+        Counter contador = meterRegistry.find("forohub.purga.borrados").tag("tabla", tabla).counter();
+        return contador != null ? contador.count() : 0;
+    }
+    
+    private long contarFilas(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Long.class);
+    }
+}
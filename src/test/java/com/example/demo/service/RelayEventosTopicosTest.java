@@ -0,0 +1,269 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoTopicoDTO;
+import com.example.demo.dto.TopicoRequestDTO;
+import com.example.demo.model.Curso;
+import com.example.demo.model.StatusTopico;
+import com.example.demo.model.TipoEventoTopico;
+import com.example.demo.model.Usuario;
+import com.example.demo.repository.CursoRepository;
+import com.example.demo.repository.TopicoRepository;
+import com.example.demo.repository.UsuarioRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Webhook contra un servidor HTTP local que guarda los lotes recibidos y responde con el código configurado
+@SpringBootTest
+class RelayEventosTopicosTest {
+    
+    private static final HttpServer WEBHOOK = iniciarWebhook();
+    
+    private static final List<String> LOTES_WEBHOOK = new CopyOnWriteArrayList<>();
+    
+    private static volatile int respuestaWebhook = 200;
+    
+    @Autowired
+    private RelayEventosTopicos relayEventosTopicos;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
+    @Autowired
+    private TopicoRepository topicoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CursoRepository cursoRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ReceptorEventos receptorEventos;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PurgaTopicosEliminados purgaTopicosEliminados;
+    
+    private Long autorId;
+    
+    private Long cursoId;
+    
+    @DynamicPropertySource
+    static void configurarWebhook(DynamicPropertyRegistry registry) {
+        registry.add("api.eventos.webhook.url", () -> "http://localhost:" + WEBHOOK.getAddress().getPort() + "/eventos");
+    }
+    
+    @AfterAll
+    static void detenerWebhook() {
+        WEBHOOK.stop(0);
+    }
+    
+    @BeforeEach
+    void prepararDatos() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cursoRepository.deleteAll();
+        // Los eventos que dejaron las demás clases de prueba
+        jdbcTemplate.update("DELETE FROM evento_topico_entrega");
+        jdbcTemplate.update("DELETE FROM evento_topico");
+        jdbcTemplate.update("DELETE FROM evento_topico_descartado");
+        jdbcTemplate.update("DELETE FROM evento_topico_marca");
+        receptorEventos.recibidos.clear();
+        LOTES_WEBHOOK.clear();
+        respuestaWebhook = 200;
+        
+        autorId = usuarioRepository.save(new Usuario(null, "Publicador", "eventos@email.com", "secreto", null)).getId();
+        cursoId = cursoRepository.save(new Curso(null, "Spring Boot Avanzado", "Programación")).getId();
+    }
+    
+    // Las demás clases de prueba borran tópicos con deleteAll, que no ve los eliminados lógicamente
+    @AfterEach
+    void purgarEliminados() {
+        purgaTopicosEliminados.purgar();
+    }
+    
+    @Test
+    void eventosLleganEnOrdenATodosLosDestinosYSeBorranAlEntregarse() throws Exception {
+        Long id = topicoService.crearTopico(new TopicoRequestDTO("Eventos", "Primera versión", autorId, cursoId)).id();
+        topicoService.actualizarTopico(id, new TopicoRequestDTO("Eventos", "Segunda versión", autorId, cursoId), null);
+        topicoService.crearTopicosEnLote(List.of(new TopicoRequestDTO("En lote", "Mensaje", autorId, cursoId)));
+        topicoService.eliminarTopico(id);
+        
+        assertThat(relayEventosTopicos.publicarLote()).isEqualTo(4);
+        
+        List<EventoTopicoDTO> recibidos = receptorEventos.recibidos;
+        assertThat(recibidos).extracting(EventoTopicoDTO::tipo).containsExactly(
+                TipoEventoTopico.CREADO, TipoEventoTopico.ACTUALIZADO, TipoEventoTopico.CREADO, TipoEventoTopico.ELIMINADO);
+        assertThat(recibidos).extracting(EventoTopicoDTO::id).isSorted();
+        assertThat(recibidos.get(1).topico().mensaje()).isEqualTo("Segunda versión");
+        assertThat(recibidos.get(1).topico().version()).isEqualTo(1);
+        assertThat(recibidos.get(2).topico().status()).isEqualTo(StatusTopico.ABIERTO);
+        assertThat(recibidos.get(2).topico().cursoId()).isEqualTo(cursoId);
+        assertThat(recibidos.get(3).topicoId()).isEqualTo(id);
+        assertThat(recibidos.get(3).topico()).isNull();
+        
+        // El webhook recibió el mismo lote en un solo POST
+        assertThat(LOTES_WEBHOOK).hasSize(1);
+        assertThat(objectMapper.readValue(LOTES_WEBHOOK.get(0), new TypeReference<List<EventoTopicoDTO>>() {}))
+                .isEqualTo(recibidos);
+        assertThat(eventosEnBandeja()).isZero();
+        assertThat(relayEventosTopicos.publicarLote()).isZero();
+    }
+    
+    @Test
+    void destinoRechazadoSeReintentaSinFrenarNiDuplicarALosDemas() {
+        topicoService.crearTopico(new TopicoRequestDTO("Reintento", "Mensaje", autorId, cursoId));
+        double fallos = meterRegistry.counter("forohub.eventos.fallos", "destino", "webhook").count();
+        
+        respuestaWebhook = 503;
+        assertThat(relayEventosTopicos.publicarLote()).isZero();
+        assertThat(eventosEnBandeja()).isEqualTo(1);
+        assertThat(meterRegistry.counter("forohub.eventos.fallos", "destino", "webhook").count()).isEqualTo(fallos + 1);
+        assertThat(meterRegistry.get("forohub.eventos.antiguedad").gauge().value()).isPositive();
+        
+        // Con el webhook caído, el destino local sigue recibiendo los eventos nuevos
+        topicoService.crearTopico(new TopicoRequestDTO("Otro", "Mensaje", autorId, cursoId));
+        assertThat(relayEventosTopicos.publicarLote()).isZero();
+        assertThat(receptorEventos.recibidos).extracting(evento -> evento.topico().titulo()).containsExactly("Reintento", "Otro");
+        
+        // Al volver, el webhook recibe los dos; el destino local no los recibe de nuevo
+        respuestaWebhook = 200;
+        assertThat(relayEventosTopicos.publicarLote()).isEqualTo(2);
+        assertThat(receptorEventos.recibidos).hasSize(2);
+        assertThat(LOTES_WEBHOOK).hasSize(3);
+        assertThat(eventosEnBandeja()).isZero();
+    }
+    
+    @Test
+    void conUnDestinoCaidoElOtroAvanzaSuMarcaYNoAcumulaEntregas() {
+        // Bandeja acumulada de eventos anteriores al margen de confirmación
+        Timestamp antes = Timestamp.valueOf(LocalDateTime.now().minusMinutes(5));
+        jdbcTemplate.batchUpdate("INSERT INTO evento_topico (topico_id, tipo, carga, fecha_creacion) VALUES (?, 'ELIMINADO', NULL, ?)",
+                Collections.nCopies(1_000, new Object[]{1L, antes}));
+        Long primero = jdbcTemplate.queryForObject("SELECT MIN(id) FROM evento_topico", Long.class);
+        Long ultimo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM evento_topico", Long.class);
+        
+        respuestaWebhook = 503;
+        for (int i = 0; i < 10; i++) {
+            assertThat(relayEventosTopicos.publicarLote()).isZero();
+        }
+        
+        // El destino local lo recibió todo: su marca lo cubre y no le quedan entregas anotadas
+        assertThat(receptorEventos.recibidos).hasSize(1_000);
+        assertThat(marca("local")).isEqualTo(ultimo);
+        assertThat(marca("webhook")).isEqualTo(primero - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM evento_topico_entrega", Integer.class)).isZero();
+        assertThat(eventosEnBandeja()).isEqualTo(1_000);
+        
+        // Un evento reciente queda anotado: la marca no pasa de los que todavía pueden tener ids menores sin confirmar
+        topicoService.crearTopico(new TopicoRequestDTO("Reciente", "Mensaje", autorId, cursoId));
+        relayEventosTopicos.publicarLote();
+        assertThat(receptorEventos.recibidos).hasSize(1_001);
+        assertThat(marca("local")).isEqualTo(ultimo);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM evento_topico_entrega", Integer.class)).isEqualTo(1);
+        
+        // Al volver, el webhook se pone al día y la bandeja se vacía sin repetir nada al destino local
+        respuestaWebhook = 200;
+        int eliminados = 0;
+        for (int i = 0; i < 11; i++) {
+            eliminados += relayEventosTopicos.publicarLote();
+        }
+        assertThat(eliminados).isEqualTo(1_001);
+        assertThat(eventosEnBandeja()).isZero();
+        assertThat(receptorEventos.recibidos).hasSize(1_001);
+    }
+    
+    @Test
+    void eventoIlegibleSeDescartaSinBloquearLaBandeja() {
+        jdbcTemplate.update("INSERT INTO evento_topico (topico_id, tipo, carga, fecha_creacion) VALUES (1, 'CREADO', 'no es JSON', CURRENT_TIMESTAMP)");
+        Long ilegible = jdbcTemplate.queryForObject("SELECT MAX(id) FROM evento_topico", Long.class);
+        topicoService.crearTopico(new TopicoRequestDTO("Después del ilegible", "Mensaje", autorId, cursoId));
+        double descartados = meterRegistry.counter("forohub.eventos.descartados").count();
+        
+        assertThat(relayEventosTopicos.publicarLote()).isEqualTo(1);
+        
+        assertThat(receptorEventos.recibidos).extracting(evento -> evento.topico().titulo()).containsExactly("Después del ilegible");
+        assertThat(eventosEnBandeja()).isZero();
+        assertThat(meterRegistry.counter("forohub.eventos.descartados").count()).isEqualTo(descartados + 1);
+        assertThat(jdbcTemplate.queryForMap("SELECT id, carga FROM evento_topico_descartado"))
+                .containsEntry("id", ilegible)
+                .containsEntry("carga", "no es JSON");
+    }
+    
+    private long marca(String destino) {
+        return jdbcTemplate.queryForObject("SELECT hasta_id FROM evento_topico_marca WHERE destino = ?", Long.class, destino);
+    }
+    
+    private int eventosEnBandeja() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM evento_topico", Integer.class);
+    }
+    
+    private static HttpServer iniciarWebhook() {
+        try {
+            HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            servidor.createContext("/eventos", intercambio -> {
+                LOTES_WEBHOOK.add(new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                intercambio.sendResponseHeaders(respuestaWebhook, -1);
+                intercambio.close();
+            });
+            servidor.start();
+            return servidor;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @TestConfiguration
+    static class Configuracion {
+        
+        @Bean
+        ReceptorEventos receptorEventos() {
+            return new ReceptorEventos();
+        }
+    }
+    
+    // Listener en proceso, como lo registraría un consumidor dentro de la aplicación
+    static class ReceptorEventos {
+        
+        private final List<EventoTopicoDTO> recibidos = new CopyOnWriteArrayList<>();
+        
+        @EventListener
+        void recibir(EventoTopicoDTO evento) {
+            recibidos.add(evento);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.dto.ModoBusquedaCurso;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exporta un conjunto grande de tópicos generado en la base y comprueba que el heap
+ * no crece con las filas recorridas: la salida total es varias veces mayor que el margen permitido.
+ */
+@SpringBootTest
+class TopicoServiceExportacionTest {
+    
+    private static final int TOPICOS = 100_000;
+    
+    private static final String CURSO = "Curso de exportación masiva";
+    
+    // Crecimiento máximo del heap retenido respecto de antes de empezar la exportación
+    private static final long MARGEN_HEAP = 16L * 1024 * 1024;
+    
+    @Autowired
+    private TopicoService topicoService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long cursoId;
+    
+    @BeforeEach
+    void generarTopicos() {
+        jdbcTemplate.update("INSERT INTO curso (nombre, categoria) VALUES (?, 'Pruebas')", CURSO);
+        cursoId = jdbcTemplate.queryForObject("SELECT id FROM curso WHERE nombre = ?", Long.class, CURSO);
+        jdbcTemplate.update("INSERT INTO usuario (nombre, correo_electronico, contrasena) VALUES ('Exportador', 'exportador@email.com', 'x')");
+        Long autorId = jdbcTemplate.queryForObject("SELECT id FROM usuario WHERE correo_electronico = 'exportador@email.com'", Long.class);
+        
+        jdbcTemplate.update("INSERT INTO topico (titulo, mensaje, fecha_creacion, status, autor_id, curso_id) "
+                + "SELECT CONCAT('Exportación ', n), CONCAT('Mensaje ', n, ' ', REPEAT('contenido ', 60)), "
+                + "DATEADD('SECOND', n, TIMESTAMP '2024-01-01 00:00:00'), 'ABIERTO', ?, ? "
+                + "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(1, " + TOPICOS + ")) AS numeros", autorId, cursoId);
+    }
+    
+    @AfterEach
+    void borrarTopicos() {
+        jdbcTemplate.update("DELETE FROM topico WHERE curso_id = ?", cursoId);
+        jdbcTemplate.update("DELETE FROM curso WHERE id = ?", cursoId);
+        jdbcTemplate.update("DELETE FROM usuario WHERE correo_electronico = 'exportador@email.com'");
+    }
+    
+    @Test
+    void exportacionMantieneAcotadoElHeap() throws Exception {
+        SalidaMedida salida = new SalidaMedida(TOPICOS / 10);
+        long inicial = salida.medir();
+        
+        long filas = topicoService.exportarTopicos(CURSO, ModoBusquedaCurso.EXACTO, null, FormatoExportacion.NDJSON, salida);
+        
+        assertThat(filas).isEqualTo(TOPICOS);
+        assertThat(salida.lineas).isEqualTo(TOPICOS);
+        assertThat(salida.bytes).isGreaterThan(4 * MARGEN_HEAP);
+        assertThat(salida.muestras).hasSizeGreaterThanOrEqualTo(9);
+        long crecimiento = Collections.max(salida.muestras) - inicial;
+        assertThat(crecimiento)
+                .as("crecimiento del heap durante la exportación de %d bytes", salida.bytes)
+                .isLessThan(MARGEN_HEAP);
+    }
+    
+    @Test
+    void exportacionCsvEscapaLosCampos() throws Exception {
+        jdbcTemplate.update("UPDATE topico SET titulo = 'Con \"comillas\", y coma' WHERE titulo = 'Exportación 1' AND curso_id = ?", cursoId);
+        ContadorDeSalida salida = new ContadorDeSalida();
+        
+        topicoService.exportarTopicos(CURSO, ModoBusquedaCurso.EXACTO, 2024, FormatoExportacion.CSV, salida);
+        
+        String primeras = salida.inicio.toString();
+        assertThat(primeras).startsWith("id,titulo,mensaje,fechaCreacion,status,autorNombre,cursoNombre,respuestasCount,ultimaRespuesta,version\r\n");
+        assertThat(primeras).contains(",\"Con \"\"comillas\"\", y coma\",Mensaje 1 ");
+        assertThat(salida.lineas).isEqualTo(TOPICOS + 1);
+    }
+    
+    // Descarta lo escrito, contando bytes y líneas y guardando el inicio para inspeccionarlo
+    private static class ContadorDeSalida extends OutputStream {
+        final StringBuilder inicio = new StringBuilder();
+        long bytes;
+        long lineas;
+        
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (inicio.length() < 1024) {
+                inicio.append(new String(b, off, Math.min(len, 1024), StandardCharsets.UTF_8));
+            }
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lineas++;
+                    alTerminarLinea();
+                }
+            }
+        }
+        
+        void alTerminarLinea() {
+        }
+    }
+    
+    // Toma una muestra del heap retenido (tras un GC) cada cierto número de líneas
+    private static class SalidaMedida extends ContadorDeSalida {
+        private final MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        private final int cadaLineas;
+        final List<Long> muestras = new ArrayList<>();
+        
+        SalidaMedida(int cadaLineas) {
+            this.cadaLineas = cadaLineas;
+        }
+        
+        long medir() {
+            memoria.gc();
+            return memoria.getHeapMemoryUsage().getUsed();
+        }
+        
+        @Override
+        void alTerminarLinea() {
+            if (lineas % cadaLineas == 0) {
+                muestras.add(medir());
+            }
+        }
+    }
+}